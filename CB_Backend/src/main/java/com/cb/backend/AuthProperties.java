@@ -0,0 +1,131 @@
+package com.cb.backend;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for authentication.
+ *
+ * <p>
+ * Maps properties with the prefix "auth" from application.properties or application.yml
+ * to this component. Defines the BCrypt cost factor (optionally calibrated at startup to a
+ * target verification time), the size of the password verification pool and its queue,
+ * the limits of failed login attempts per username and per client IP address, and how
+ * long an address with a successful login is exempt from the username limit.
+ * </p>
+ *
+ * @author Artem Borisenko
+ * @since 1.0
+ */
+@Component
+@ConfigurationProperties(prefix = "auth")
+public class AuthProperties {
+    private int bcryptCost = 10;
+    private boolean calibrateBcryptCost = false;
+    private long targetVerifyMillis = 250;
+    private int minBcryptCost = 10;
+    private int maxBcryptCost = 16;
+    private int verifierThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private int verifierQueueCapacity = 64;
+    private long verifyTimeoutMillis = 5000;
+    private int maxAttemptsPerUsername = 10;
+    private int maxAttemptsPerIp = 50;
+    private long attemptWindowSeconds = 60;
+    private long knownAddressDays = 30;
+
+    public int getBcryptCost() {
+        return bcryptCost;
+    }
+
+    public void setBcryptCost(int bcryptCost) {
+        this.bcryptCost = bcryptCost;
+    }
+
+    public boolean isCalibrateBcryptCost() {
+        return calibrateBcryptCost;
+    }
+
+    public void setCalibrateBcryptCost(boolean calibrateBcryptCost) {
+        this.calibrateBcryptCost = calibrateBcryptCost;
+    }
+
+    public long getTargetVerifyMillis() {
+        return targetVerifyMillis;
+    }
+
+    public void setTargetVerifyMillis(long targetVerifyMillis) {
+        this.targetVerifyMillis = targetVerifyMillis;
+    }
+
+    public int getMinBcryptCost() {
+        return minBcryptCost;
+    }
+
+    public void setMinBcryptCost(int minBcryptCost) {
+        this.minBcryptCost = minBcryptCost;
+    }
+
+    public int getMaxBcryptCost() {
+        return maxBcryptCost;
+    }
+
+    public void setMaxBcryptCost(int maxBcryptCost) {
+        this.maxBcryptCost = maxBcryptCost;
+    }
+
+    public int getVerifierThreads() {
+        return verifierThreads;
+    }
+
+    public void setVerifierThreads(int verifierThreads) {
+        this.verifierThreads = verifierThreads;
+    }
+
+    public int getVerifierQueueCapacity() {
+        return verifierQueueCapacity;
+    }
+
+    public void setVerifierQueueCapacity(int verifierQueueCapacity) {
+        this.verifierQueueCapacity = verifierQueueCapacity;
+    }
+
+    public long getVerifyTimeoutMillis() {
+        return verifyTimeoutMillis;
+    }
+
+    public void setVerifyTimeoutMillis(long verifyTimeoutMillis) {
+        this.verifyTimeoutMillis = verifyTimeoutMillis;
+    }
+
+    public int getMaxAttemptsPerUsername() {
+        return maxAttemptsPerUsername;
+    }
+
+    public void setMaxAttemptsPerUsername(int maxAttemptsPerUsername) {
+        this.maxAttemptsPerUsername = maxAttemptsPerUsername;
+    }
+
+    public int getMaxAttemptsPerIp() {
+        return maxAttemptsPerIp;
+    }
+
+    public void setMaxAttemptsPerIp(int maxAttemptsPerIp) {
+        this.maxAttemptsPerIp = maxAttemptsPerIp;
+    }
+
+    public long getAttemptWindowSeconds() {
+        return attemptWindowSeconds;
+    }
+
+    public void setAttemptWindowSeconds(long attemptWindowSeconds) {
+        this.attemptWindowSeconds = attemptWindowSeconds;
+    }
+
+    public long getKnownAddressDays() {
+        return knownAddressDays;
+    }
+
+    public void setKnownAddressDays(long knownAddressDays) {
+        this.knownAddressDays = knownAddressDays;
+    }
+}
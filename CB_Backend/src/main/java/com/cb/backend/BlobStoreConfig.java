@@ -0,0 +1,74 @@
+package com.cb.backend;
+
+import com.cb.backend.service.BlobStore;
+import com.cb.backend.service.LocalBlobStore;
+import com.cb.backend.service.S3BlobStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+import java.net.URI;
+import java.nio.file.Paths;
+
+/**
+ * Configuration of the {@link BlobStore} used for uploaded files.
+ *
+ * <p>
+ * Creates a {@link LocalBlobStore} on {@code file.upload-dir} by default, or an
+ * {@link S3BlobStore} when {@code file.store=s3}.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Configuration
+public class BlobStoreConfig {
+    /**
+     * Filesystem storage in the upload directory.
+     *
+     * @param properties file storage properties
+     * @return the local blob store
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "file", name = "store", havingValue = "local", matchIfMissing = true)
+    public BlobStore localBlobStore(FileStorageProperties properties) {
+        return new LocalBlobStore(Paths.get(properties.getUploadDir()));
+    }
+
+    /**
+     * S3-compatible object storage shared by all nodes.
+     *
+     * @param properties file storage properties
+     * @return the S3 blob store
+     * @throws RuntimeException if no bucket is configured
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "file", name = "store", havingValue = "s3")
+    public BlobStore s3BlobStore(FileStorageProperties properties) {
+        FileStorageProperties.S3 s3 = properties.getS3();
+        if (s3.getBucket() == null || s3.getBucket().isBlank()) {
+            throw new RuntimeException("file.s3.bucket is required when file.store=s3");
+        }
+
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(s3.getRegion()))
+                .forcePathStyle(s3.isPathStyleAccess());
+        if (s3.getEndpoint() != null && !s3.getEndpoint().isBlank()) {
+            builder.endpointOverride(URI.create(s3.getEndpoint()));
+        }
+        if (s3.getAccessKey() != null && !s3.getAccessKey().isBlank()) {
+            builder.credentialsProvider(StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(s3.getAccessKey(), s3.getSecretKey())));
+        } else {
+            builder.credentialsProvider(DefaultCredentialsProvider.builder().build());
+        }
+        return new S3BlobStore(builder.build(), s3.getBucket(), s3.getKeyPrefix(),
+                (int) s3.getPartSize().toBytes());
+    }
+}
@@ -0,0 +1,131 @@
+package com.cb.backend;
+
+import com.cb.backend.controller.JsonResponseCacheInterceptor.CachedResponse;
+import com.cb.backend.dto.CategoryDto;
+import com.cb.backend.dto.IngredientDto;
+import com.cb.backend.dto.RecipeDto;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Configuration of the in-memory caches.
+ *
+ * <p>
+ * {@value #RECIPES} holds {@link RecipeDto} by recipe ID. It is bounded by the approximate
+ * size of the cached recipes ({@code recipes.cache-max-size}), so a few very long recipes
+ * cannot push out many short ones unnoticed, and entries expire after
+ * {@code recipes.cache-ttl}. Statistics are recorded and published by Actuator as
+ * {@code cache.gets}, {@code cache.puts} and {@code cache.evictions} metrics.
+ * </p>
+ *
+ * <p>
+ * {@value #CATEGORIES} and {@value #BLOGS} hold {@link com.cb.backend.dto.CategoryDto} and
+ * {@link com.cb.backend.dto.BlogDto} by ID, bounded by {@code cache.max-entries} and
+ * {@code cache.ttl}. All caches are invalidated on every node through
+ * {@link com.cb.backend.service.EntityChangePublisher}.
+ * </p>
+ *
+ * <p>
+ * {@value #RESPONSES} holds serialized JSON responses of endpoints marked with
+ * {@link com.cb.backend.controller.CachedJsonResponse}, bounded by their total size
+ * ({@code cache.response-max-size}). Its keys contain entity versions, so it is never
+ * invalidated; entries of outdated versions are evicted as the cache fills up or expire
+ * after {@code cache.ttl}.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    /**
+     * Name of the cache of recipes by ID.
+     */
+    public static final String RECIPES = "recipes";
+
+    /**
+     * Name of the cache of categories by ID.
+     */
+    public static final String CATEGORIES = "categories";
+
+    /**
+     * Name of the cache of blogs by ID.
+     */
+    public static final String BLOGS = "blogs";
+
+    /**
+     * Name of the cache of serialized JSON responses by request and entity versions.
+     */
+    public static final String RESPONSES = "responses";
+
+    /** Rough fixed cost of a DTO with its nested objects, in bytes. */
+    private static final int OBJECT_OVERHEAD = 64;
+
+    /**
+     * Cache manager with the caches of the application.
+     *
+     * @param recipeProperties recipe cache limits
+     * @param cachingProperties limits of the other caches
+     * @return the cache manager
+     */
+    @Bean
+    public CacheManager cacheManager(RecipeProperties recipeProperties, CachingProperties cachingProperties) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                new CaffeineCache(RECIPES, Caffeine.newBuilder()
+                        .maximumWeight(recipeProperties.getCacheMaxSize().toBytes())
+                        .<Object, Object>weigher((id, recipe) -> estimateSize((RecipeDto) recipe))
+                        .expireAfterWrite(recipeProperties.getCacheTtl())
+                        .recordStats()
+                        .build(), false),
+                boundedCache(CATEGORIES, cachingProperties),
+                boundedCache(BLOGS, cachingProperties),
+                new CaffeineCache(RESPONSES, Caffeine.newBuilder()
+                        .maximumWeight(cachingProperties.getResponseMaxSize().toBytes())
+                        .<Object, Object>weigher((key, response) ->
+                                ((String) key).length() * 2 + ((CachedResponse) response).getBytes().length)
+                        .expireAfterWrite(cachingProperties.getTtl())
+                        .recordStats()
+                        .build(), false)));
+        return cacheManager;
+    }
+
+    private static CaffeineCache boundedCache(String name, CachingProperties properties) {
+        return new CaffeineCache(name, Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build(), false);
+    }
+
+    /**
+     * Estimates the heap size of a cached recipe from its text fields and collections.
+     */
+    private static int estimateSize(RecipeDto recipe) {
+        long size = 4L * OBJECT_OVERHEAD + 2L * (length(recipe.getTitle()) + length(recipe.getDescription())
+                + length(recipe.getText()) + length(recipe.getPhotoUrl()));
+        if (recipe.getCategoriesDto() != null) {
+            for (CategoryDto category : recipe.getCategoriesDto()) {
+                size += OBJECT_OVERHEAD + 2L * (length(category.getName()) + length(category.getPhotoUrl()));
+            }
+        }
+        if (recipe.getIngredientsDto() != null) {
+            for (IngredientDto ingredient : recipe.getIngredientsDto()) {
+                size += OBJECT_OVERHEAD + 2L * (length(ingredient.getProductName()) + length(ingredient.getUnit()));
+            }
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
@@ -0,0 +1,113 @@
+package com.cb.backend;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for in-memory caches and their invalidation.
+ *
+ * <p>
+ * Maps properties with the prefix "cache" from application.properties or application.yml
+ * to this component. Defines the size and time to live of the category and blog caches
+ * ({@code cache.max-entries}, {@code cache.ttl}; recipes have their own limits, see
+ * {@link RecipeProperties}), the total size of cached JSON responses
+ * ({@code cache.response-max-size}) and how changes are broadcast to the other API nodes:
+ * {@code cache.invalidation.transport} is {@code database} (a change log table polled every
+ * {@code cache.invalidation.poll-millis}, re-reading the last {@code cache.invalidation.poll-overlap}
+ * IDs for records committed late, kept for {@code cache.invalidation.retention}) or
+ * {@code none} for a single node.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Component
+@ConfigurationProperties(prefix = "cache")
+public class CachingProperties {
+    private int maxEntries = 1000;
+    private Duration ttl = Duration.ofMinutes(10);
+    private DataSize responseMaxSize = DataSize.ofMegabytes(16);
+    private final Invalidation invalidation = new Invalidation();
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public DataSize getResponseMaxSize() {
+        return responseMaxSize;
+    }
+
+    public void setResponseMaxSize(DataSize responseMaxSize) {
+        this.responseMaxSize = responseMaxSize;
+    }
+
+    public Invalidation getInvalidation() {
+        return invalidation;
+    }
+
+    /**
+     * Settings of the cache invalidation bus ({@code cache.invalidation.*}).
+     */
+    public static class Invalidation {
+        private String transport = "database";
+        private long pollMillis = 1000;
+        private int batchSize = 500;
+        private int pollOverlap = 200;
+        private Duration retention = Duration.ofHours(1);
+
+        public String getTransport() {
+            return transport;
+        }
+
+        public void setTransport(String transport) {
+            this.transport = transport;
+        }
+
+        public long getPollMillis() {
+            return pollMillis;
+        }
+
+        public void setPollMillis(long pollMillis) {
+            this.pollMillis = pollMillis;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getPollOverlap() {
+            return pollOverlap;
+        }
+
+        public void setPollOverlap(int pollOverlap) {
+            this.pollOverlap = pollOverlap;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+    }
+}
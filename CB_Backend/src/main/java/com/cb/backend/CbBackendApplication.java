@@ -2,6 +2,7 @@ package com.cb.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Entry point for the Spring Boot application.
@@ -10,6 +11,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @since 1.0
  */
 @SpringBootApplication
+@EnableScheduling
 public class CbBackendApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(CbBackendApplication.class, args);
@@ -2,13 +2,27 @@ package com.cb.backend;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
 
 /**
  * Configuration properties for file storage.
  *
  * <p>
  * Maps properties with the prefix "file" from application.properties or application.yml
- * to this component. Primarily used to define the upload directory for file storage.
+ * to this component. Primarily used to define the upload directory for file storage
+ * and how long clients may cache served files ({@code file.cache-max-age}). Also defines the
+ * widths of the resized image variants generated on upload ({@code file.image-variant-widths},
+ * by default thumbnail, card and hero sizes), their JPEG quality, the largest image
+ * ({@code file.image-max-pixels}) that is decoded to generate them, and the number of
+ * background workers, the backlog limit and the retention of finished image processing jobs.
+ * {@code file.content-addressed} switches new uploads to deduplicating content-addressed storage;
+ * {@code file.migrate-to-content-addressed} moves existing uploads there on startup.
+ * {@code file.store} selects the storage backend: {@code local} (the upload directory) or
+ * {@code s3} (an S3-compatible bucket configured with {@code file.s3.*}); the upload directory
+ * then only holds node-local working data such as image processing jobs.
  * </p>
  * 
  * @author Dmytro Babich
@@ -18,6 +32,19 @@ import org.springframework.stereotype.Component;
 @ConfigurationProperties(prefix = "file")
 public class FileStorageProperties {
     private String uploadDir;
+    private Duration cacheMaxAge = Duration.ofDays(365);
+    private List<Integer> imageVariantWidths = List.of(160, 480, 1280);
+    private float imageVariantQuality = 0.8f;
+    private long imageMaxPixels = 40_000_000L;
+    private int imageWorkers = 2;
+    private int imageQueueCapacity = 100;
+    private int imageMaxAttempts = 3;
+    private Duration imageJobRetention = Duration.ofDays(1);
+    private boolean contentAddressed = false;
+    private boolean migrateToContentAddressed = false;
+    private boolean migrationDeleteOriginals = false;
+    private String store = "local";
+    private final S3 s3 = new S3();
 
     public String getUploadDir() {
         return uploadDir;
@@ -26,4 +53,188 @@ public class FileStorageProperties {
     public void setUploadDir(String uploadDir) {
         this.uploadDir = uploadDir;
     }
+
+    public Duration getCacheMaxAge() {
+        return cacheMaxAge;
+    }
+
+    public void setCacheMaxAge(Duration cacheMaxAge) {
+        this.cacheMaxAge = cacheMaxAge;
+    }
+
+    public List<Integer> getImageVariantWidths() {
+        return imageVariantWidths;
+    }
+
+    public void setImageVariantWidths(List<Integer> imageVariantWidths) {
+        this.imageVariantWidths = imageVariantWidths;
+    }
+
+    public float getImageVariantQuality() {
+        return imageVariantQuality;
+    }
+
+    public void setImageVariantQuality(float imageVariantQuality) {
+        this.imageVariantQuality = imageVariantQuality;
+    }
+
+    public long getImageMaxPixels() {
+        return imageMaxPixels;
+    }
+
+    public void setImageMaxPixels(long imageMaxPixels) {
+        this.imageMaxPixels = imageMaxPixels;
+    }
+
+    public int getImageWorkers() {
+        return imageWorkers;
+    }
+
+    public void setImageWorkers(int imageWorkers) {
+        this.imageWorkers = imageWorkers;
+    }
+
+    public int getImageQueueCapacity() {
+        return imageQueueCapacity;
+    }
+
+    public void setImageQueueCapacity(int imageQueueCapacity) {
+        this.imageQueueCapacity = imageQueueCapacity;
+    }
+
+    public int getImageMaxAttempts() {
+        return imageMaxAttempts;
+    }
+
+    public void setImageMaxAttempts(int imageMaxAttempts) {
+        this.imageMaxAttempts = imageMaxAttempts;
+    }
+
+    public Duration getImageJobRetention() {
+        return imageJobRetention;
+    }
+
+    public void setImageJobRetention(Duration imageJobRetention) {
+        this.imageJobRetention = imageJobRetention;
+    }
+
+    public boolean isContentAddressed() {
+        return contentAddressed;
+    }
+
+    public void setContentAddressed(boolean contentAddressed) {
+        this.contentAddressed = contentAddressed;
+    }
+
+    public boolean isMigrateToContentAddressed() {
+        return migrateToContentAddressed;
+    }
+
+    public void setMigrateToContentAddressed(boolean migrateToContentAddressed) {
+        this.migrateToContentAddressed = migrateToContentAddressed;
+    }
+
+    public boolean isMigrationDeleteOriginals() {
+        return migrationDeleteOriginals;
+    }
+
+    public void setMigrationDeleteOriginals(boolean migrationDeleteOriginals) {
+        this.migrationDeleteOriginals = migrationDeleteOriginals;
+    }
+
+    public String getStore() {
+        return store;
+    }
+
+    public void setStore(String store) {
+        this.store = store;
+    }
+
+    public S3 getS3() {
+        return s3;
+    }
+
+    /**
+     * Settings of the S3-compatible storage backend ({@code file.s3.*}).
+     *
+     * <p>
+     * {@code endpoint} is only needed for non-AWS services (e.g. MinIO), which usually also
+     * need {@code path-style-access}. Without {@code access-key}/{@code secret-key} the
+     * default AWS credentials chain is used.
+     * </p>
+     */
+    public static class S3 {
+        private String bucket;
+        private String keyPrefix = "";
+        private String region = "us-east-1";
+        private String endpoint;
+        private boolean pathStyleAccess = false;
+        private String accessKey;
+        private String secretKey;
+        private DataSize partSize = DataSize.ofMegabytes(8);
+
+        public String getBucket() {
+            return bucket;
+        }
+
+        public void setBucket(String bucket) {
+            this.bucket = bucket;
+        }
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public void setRegion(String region) {
+            this.region = region;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public void setEndpoint(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public boolean isPathStyleAccess() {
+            return pathStyleAccess;
+        }
+
+        public void setPathStyleAccess(boolean pathStyleAccess) {
+            this.pathStyleAccess = pathStyleAccess;
+        }
+
+        public String getAccessKey() {
+            return accessKey;
+        }
+
+        public void setAccessKey(String accessKey) {
+            this.accessKey = accessKey;
+        }
+
+        public String getSecretKey() {
+            return secretKey;
+        }
+
+        public void setSecretKey(String secretKey) {
+            this.secretKey = secretKey;
+        }
+
+        public DataSize getPartSize() {
+            return partSize;
+        }
+
+        public void setPartSize(DataSize partSize) {
+            this.partSize = partSize;
+        }
+    }
 }
@@ -1,6 +1,8 @@
 package com.cb.backend;
 
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -61,6 +63,35 @@ public class GlobalExceptionHandler {
                 .body(Map.of("error", message));
     }
 
+    /**
+     * Handles {@link OptimisticLockingFailureException}, thrown when an entity was changed
+     * by someone else since the client (or the current transaction) read it.
+     *
+     * @param ex the thrown {@link OptimisticLockingFailureException}
+     * @return a {@link ResponseEntity} with status 409 and an error message
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "Запись была изменена другим пользователем, обновите данные"));
+    }
+
+    /**
+     * Handles {@link TooManyRequestsException}, thrown when login attempts are throttled
+     * or the password verification pool is saturated.
+     *
+     * @param ex the thrown {@link TooManyRequestsException}
+     * @return a {@link ResponseEntity} with status 429, a {@code Retry-After} header and the exception message
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<?> handleTooManyRequests(TooManyRequestsException ex) {
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(Map.of("error", ex.getMessage()));
+    }
+
     // Runtime errors (validation, business logic)
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<?> handleRuntimeException(RuntimeException ex) {
@@ -0,0 +1,157 @@
+package com.cb.backend;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for recipe listings.
+ *
+ * <p>
+ * Maps properties with the prefix "recipes" from application.properties or application.yml
+ * to this component. Defines the default and maximum page size used by paginated recipe endpoints
+ * and whether recipe writes are verified with an extra count query ({@code recipes.verify-writes}).
+ * Also bounds the in-memory cache of recipes by ID: its approximate total size
+ * ({@code recipes.cache-max-size}) and how long an entry is kept ({@code recipes.cache-ttl}),
+ * the page size of the public recipe feed ({@code recipes.feed-page-size}) and when the
+ * rating aggregates are reconciled with the ratings ({@code recipes.rating-reconcile-cron}).
+ * {@code recipes.rating-buffer.*} configures the optional write-behind buffer of ratings.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Component
+@ConfigurationProperties(prefix = "recipes")
+public class RecipeProperties {
+    private int defaultPageSize = 20;
+    private int maxPageSize = 100;
+    private boolean verifyWrites = false;
+    private DataSize cacheMaxSize = DataSize.ofMegabytes(32);
+    private Duration cacheTtl = Duration.ofMinutes(10);
+    private int feedPageSize = 20;
+    private String ratingReconcileCron = "0 30 3 * * *";
+    private final RatingBuffer ratingBuffer = new RatingBuffer();
+
+    public int getDefaultPageSize() {
+        return defaultPageSize;
+    }
+
+    public void setDefaultPageSize(int defaultPageSize) {
+        this.defaultPageSize = defaultPageSize;
+    }
+
+    public int getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    public void setMaxPageSize(int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    public boolean isVerifyWrites() {
+        return verifyWrites;
+    }
+
+    public void setVerifyWrites(boolean verifyWrites) {
+        this.verifyWrites = verifyWrites;
+    }
+
+    public DataSize getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    public void setCacheMaxSize(DataSize cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(Duration cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    public int getFeedPageSize() {
+        return feedPageSize;
+    }
+
+    public void setFeedPageSize(int feedPageSize) {
+        this.feedPageSize = feedPageSize;
+    }
+
+    public String getRatingReconcileCron() {
+        return ratingReconcileCron;
+    }
+
+    public void setRatingReconcileCron(String ratingReconcileCron) {
+        this.ratingReconcileCron = ratingReconcileCron;
+    }
+
+    public RatingBuffer getRatingBuffer() {
+        return ratingBuffer;
+    }
+
+    /**
+     * Settings of the write-behind rating buffer ({@code recipes.rating-buffer.*}).
+     */
+    public static class RatingBuffer {
+        private boolean enabled = false;
+        private long flushMillis = 500;
+        private int flushSize = 500;
+        private int capacity = 10000;
+        private String logDir = "rating-log";
+        private boolean syncLog = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getFlushMillis() {
+            return flushMillis;
+        }
+
+        public void setFlushMillis(long flushMillis) {
+            this.flushMillis = flushMillis;
+        }
+
+        public int getFlushSize() {
+            return flushSize;
+        }
+
+        public void setFlushSize(int flushSize) {
+            this.flushSize = flushSize;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public String getLogDir() {
+            return logDir;
+        }
+
+        public void setLogDir(String logDir) {
+            this.logDir = logDir;
+        }
+
+        public boolean isSyncLog() {
+            return syncLog;
+        }
+
+        public void setSyncLog(boolean syncLog) {
+            this.syncLog = syncLog;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.cb.backend;
+
+/**
+ * Thrown when a request is rejected because of rate limiting or overload.
+ *
+ * <p>
+ * Translated to HTTP 429 with a {@code Retry-After} header by {@link GlobalExceptionHandler}.
+ * </p>
+ *
+ * @author Artem Borisenko
+ * @since 1.0
+ */
+public class TooManyRequestsException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,14 +1,17 @@
 package com.cb.backend;
 
+import com.cb.backend.controller.JsonResponseCacheInterceptor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
- * Web configuration for CORS (Cross-Origin Resource Sharing).
+ * Web configuration for CORS (Cross-Origin Resource Sharing) and interceptors.
  *
  * <p>
- * Defines allowed origins, HTTP methods, headers, and credentials for API and file endpoints.
+ * Defines allowed origins, HTTP methods, headers, and credentials for API and file endpoints,
+ * and registers the {@link JsonResponseCacheInterceptor}.
  * </p>
  * 
  * @author Dmytro Babich
@@ -16,6 +19,12 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+    private final JsonResponseCacheInterceptor responseCacheInterceptor;
+
+    public WebConfig(JsonResponseCacheInterceptor responseCacheInterceptor) {
+        this.responseCacheInterceptor = responseCacheInterceptor;
+    }
+
     /**
      * Configures CORS mappings for API and file endpoints.
      *
@@ -31,8 +40,19 @@ public class WebConfig implements WebMvcConfigurer {
         
         registry.addMapping("/api/files/**")
 		        .allowedOrigins("http://localhost:5173", "http://localhost:5174")
-		        .allowedMethods("GET", "POST")
+		        .allowedMethods("GET", "POST", "DELETE")
 		        .allowedHeaders("*")
 		        .allowCredentials(true);
     }
+
+    /**
+     * Registers the interceptor answering {@link com.cb.backend.controller.CachedJsonResponse}
+     * endpoints from the response cache.
+     *
+     * @param registry the {@link InterceptorRegistry} to configure
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(responseCacheInterceptor).addPathPatterns("/api/**");
+    }
 }
@@ -1,8 +1,12 @@
 package com.cb.backend.controller;
 
 import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import com.cb.backend.model.EntityType;
 import com.cb.backend.service.CrudService;
+import com.cb.backend.service.EntityVersionRegistry;
 
 import jakarta.persistence.EntityNotFoundException;
 
@@ -26,6 +30,16 @@ import jakarta.persistence.EntityNotFoundException;
  * </ul>
  * </p>
  *
+ * <p>
+ * GET responses carry a weak {@code ETag} built from the versions of the entity types the
+ * DTOs are made of (see {@link #getEntityTypes()} and {@link EntityVersionRegistry}), so the
+ * tag changes whenever any of these entities is created, updated or deleted through the
+ * services. A request whose {@code If-None-Match} matches the current tag is answered with
+ * {@code 304 Not Modified} before the service is called. Subclasses overriding
+ * {@link #getAll(WebRequest)} or {@link #getById(Object, WebRequest)} call
+ * {@link #checkNotModified(WebRequest)} first.
+ * </p>
+ *
  * @param <DTO> the type of Data Transfer Object handled by the controller
  * @param <ID>  the type of the entity identifier
  * 
@@ -33,6 +47,8 @@ import jakarta.persistence.EntityNotFoundException;
  * @since 1.0
  */
 public abstract class AbstractCrudController<DTO, ID> implements CrudController<DTO, ID> {
+    private EntityVersionRegistry versionRegistry;
+
     /**
      * Returns the service used for CRUD operations.
      * Subclasses must implement this method to provide the correct service instance.
@@ -40,15 +56,43 @@ public abstract class AbstractCrudController<DTO, ID> implements CrudController<
      * @return the {@link CrudService} for the entity
      */
 	protected abstract CrudService<DTO, ID> getService();
-    
+
+    /**
+     * Returns the entity types the DTOs of this controller are built from, including
+     * nested DTOs (e.g. the author of a blog).
+     *
+     * @return the entity types whose changes change the responses, in a fixed order
+     */
+    protected abstract EntityType[] getEntityTypes();
+
+    @Autowired
+    public void setVersionRegistry(EntityVersionRegistry versionRegistry) {
+        this.versionRegistry = versionRegistry;
+    }
+
+    /**
+     * Sets the {@code ETag} of the current entity versions on the response and checks it
+     * against {@code If-None-Match}.
+     *
+     * @param request the current request
+     * @return {@code true} if the client's copy is current; the response status is then
+     *         304 and the handler returns {@code null}
+     */
+    protected boolean checkNotModified(WebRequest request) {
+        return request.checkNotModified(versionRegistry.getETag(getEntityTypes()));
+    }
 
     /**
      * Retrieves all entities.
      *
-     * @return a list of all DTOs
+     * @param request the current request
+     * @return a list of all DTOs, or {@code null} with status 304 if the client's copy is current
      */
     @GetMapping
-    public List<DTO> getAll() {
+    public List<DTO> getAll(WebRequest request) {
+        if (checkNotModified(request)) {
+            return null;
+        }
         return getService().findAll();
     }
 
@@ -56,11 +100,15 @@ public abstract class AbstractCrudController<DTO, ID> implements CrudController<
      * Retrieves a single entity by its ID. If not found, throw EntityNotFoundException
      *
      * @param id the identifier of the entity
-     * @return the corresponding DTO, or null if not found
+     * @param request the current request
+     * @return the corresponding DTO, or {@code null} with status 304 if the client's copy is current
      * @throws EntityNotFoundException if the associated entity not found
      */
     @GetMapping("/{id}")
-    public DTO getById(@PathVariable("id") ID id) {
+    public DTO getById(@PathVariable("id") ID id, WebRequest request) {
+        if (checkNotModified(request)) {
+            return null;
+        }
         DTO dto = getService().findById(id);
         if (dto == null) {
             throw new EntityNotFoundException("Entity not found with id=" + id);
@@ -1,12 +1,16 @@
 package com.cb.backend.controller;
 
+import com.cb.backend.TooManyRequestsException;
 import com.cb.backend.dto.LoginRequest;
 import com.cb.backend.dto.LoginResponse;
 import com.cb.backend.dto.UserDto;
 import com.cb.backend.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * REST controller for authentication and session
  * user management.
@@ -49,27 +53,27 @@ public class AuthController {
      * <p>
      * On successful authentication, the user's ID is stored
      * in the HTTP session to maintain authentication state.
+     * The response is completed asynchronously, so the servlet thread is
+     * not blocked while the password is checked.
      * </p>
      *
      * @param request login request containing user credentials
      * @param session HTTP session used to store authentication data
-     * @return {@link LoginResponse} indicating success or failure
+     * @param httpRequest current HTTP request, used to get the client address (resolved from
+     *                    {@code X-Forwarded-For} of trusted proxies by the servlet container)
+     * @return future of the {@link LoginResponse} indicating success or failure; completes
+     *         with {@link TooManyRequestsException} if login attempts are throttled (HTTP 429)
      */
     @PostMapping("/login")
-    public LoginResponse login(@RequestBody LoginRequest request, HttpSession session) {
-        try {
-            LoginResponse response = authService.login(request);
-            
-            if (response.isSuccess() && response.getUser() != null) {
-                // Сохраняем ID пользователя в сессии
-                session.setAttribute(SESSION_USER_ID, response.getUser().getId());
-            }
-            
-            return response;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return new LoginResponse(false, "Ошибка сервера: " + e.getMessage(), null);
-        }
+    public CompletableFuture<LoginResponse> login(@RequestBody LoginRequest request, HttpSession session, HttpServletRequest httpRequest) {
+        return authService.login(request, httpRequest.getRemoteAddr())
+                .thenApply(response -> {
+                    if (response.isSuccess() && response.getUser() != null) {
+                        // Сохраняем ID пользователя в сессии
+                        session.setAttribute(SESSION_USER_ID, response.getUser().getId());
+                    }
+                    return response;
+                });
     }
 
     /**
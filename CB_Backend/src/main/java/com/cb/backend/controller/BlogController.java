@@ -2,9 +2,11 @@ package com.cb.backend.controller;
 
 import com.cb.backend.dto.BlogDto;
 import com.cb.backend.model.ContentStatus;
+import com.cb.backend.model.EntityType;
 import com.cb.backend.service.BlogService;
 import com.cb.backend.service.CrudService;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,6 +25,7 @@ import java.util.List;
  * </p>
  *
  * <p>
+ * Blog lists are marked with {@link CachedJsonResponse} and reused until a blog or user changes.
  * Delegates all operations to {@link BlogService}.
  * </p>
  * 
@@ -48,8 +51,19 @@ public class BlogController extends AbstractCrudController<BlogDto, Long> {
         return blogService;
     }
 
+    /**
+     * Returns the entity types the DTOs of this controller are built from.
+     *
+     * @return the entity types for the {@code ETag} of GET responses
+     */
+    @Override
+    protected EntityType[] getEntityTypes() {
+        return new EntityType[] {EntityType.BLOG, EntityType.USER};
+    }
+
     // Public endpoint - only returns published blogs
     @GetMapping("/public")
+    @CachedJsonResponse({EntityType.BLOG, EntityType.USER})
     public List<BlogDto> getPublishedBlogs() {
         return blogService.findAllByStatus(ContentStatus.PUBLISHED);
     }
@@ -57,7 +71,11 @@ public class BlogController extends AbstractCrudController<BlogDto, Long> {
     // Override getAll to return only published for public access
     @Override
     @GetMapping
-    public List<BlogDto> getAll() {
+    @CachedJsonResponse({EntityType.BLOG, EntityType.USER})
+    public List<BlogDto> getAll(WebRequest request) {
+        if (checkNotModified(request)) {
+            return null;
+        }
         // For now, return all (admin panel needs all statuses)
         // In production, you might want to check user role here
         return blogService.findAll();
@@ -0,0 +1,37 @@
+package com.cb.backend.controller;
+
+import com.cb.backend.model.EntityType;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET endpoint whose JSON response is cached as serialized bytes.
+ *
+ * <p>
+ * The response is cached per request URI and query string together with the versions of
+ * the entity types it is built from (see {@link com.cb.backend.service.EntityVersionRegistry}).
+ * While none of them changes, later requests are answered with the cached bytes without
+ * calling the controller method or Jackson. The endpoint must return the same body for
+ * every caller.
+ * </p>
+ *
+ * @see JsonResponseCacheInterceptor
+ * @see JsonResponseCacheAdvice
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedJsonResponse {
+    /**
+     * Entity types whose changes invalidate the cached response.
+     *
+     * @return the entity types the response is built from
+     */
+    EntityType[] value();
+}
@@ -1,10 +1,15 @@
 package com.cb.backend.controller;
 
 import com.cb.backend.dto.CategoryDto;
+import com.cb.backend.model.EntityType;
 import com.cb.backend.service.CategoryService;
 import com.cb.backend.service.CrudService;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 /**
  * REST controller for managing {@link CategoryDto} entities.
@@ -21,6 +26,7 @@ import org.springframework.web.bind.annotation.RestController;
  * </p>
  *
  * <p>
+ * The category list is marked with {@link CachedJsonResponse} and reused until a category changes.
  * Delegates all operations to {@link CategoryService}.
  * </p>
  * 
@@ -45,4 +51,30 @@ public class CategoryController extends AbstractCrudController<CategoryDto, Long
     protected CrudService<CategoryDto, Long> getService() {
         return categoryService;
     }
+
+    /**
+     * Returns the entity types the DTOs of this controller are built from.
+     *
+     * @return the entity types for the {@code ETag} of GET responses
+     */
+    @Override
+    protected EntityType[] getEntityTypes() {
+        return new EntityType[] {EntityType.CATEGORY};
+    }
+
+    /**
+     * Retrieves all categories.
+     *
+     * @param request the current request
+     * @return a list of all categories, or {@code null} with status 304 if the client's copy is current
+     */
+    @Override
+    @GetMapping
+    @CachedJsonResponse(EntityType.CATEGORY)
+    public List<CategoryDto> getAll(WebRequest request) {
+        if (checkNotModified(request)) {
+            return null;
+        }
+        return categoryService.findAll();
+    }
 }
\ No newline at end of file
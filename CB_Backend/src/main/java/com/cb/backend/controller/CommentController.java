@@ -1,10 +1,11 @@
 package com.cb.backend.controller;
 
 import com.cb.backend.dto.CommentDto;
+import com.cb.backend.dto.CursorPageDto;
+import com.cb.backend.model.EntityType;
 import com.cb.backend.service.CommentService;
 import com.cb.backend.service.CrudService;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
 /**
  * REST controller for managing {@link CommentDto} entities.
@@ -16,11 +17,20 @@ import org.springframework.web.bind.annotation.RestController;
  *     <li>GET /api/comments/{id} – get a comment by ID,</li>
  *     <li>POST /api/comments – create a new comment,</li>
  *     <li>PUT /api/comments/{id} – update an existing comment,</li>
- *     <li>DELETE /api/comments/{id} – delete a comment by ID.</li>
+ *     <li>DELETE /api/comments/{id} – delete a comment by ID (with all replies below it).</li>
  * </ul>
  * </p>
  *
  * <p>
+ * A comment with {@code parentId} is a reply. The replies of a thread are loaded on demand:
+ * <ul>
+ *     <li>GET /api/comments/{id}/replies?cursor={cursor}&amp;size={size} – page of the replies
+ *         below a comment, in thread order.</li>
+ * </ul>
+ * The top-level comments of a recipe are listed by {@code GET /api/recipes/{id}/comments}.
+ * </p>
+ *
+ * <p>
  * Delegates all operations to {@link CommentService}.
  * </p>
  * 
@@ -45,4 +55,32 @@ public class CommentController extends AbstractCrudController<CommentDto, Long>
     protected CrudService<CommentDto, Long> getService() {
         return commentService;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the entity types the DTOs of this controller are built from.
+     *
+     * @return the entity types for the {@code ETag} of GET responses
+     */
+    @Override
+    protected EntityType[] getEntityTypes() {
+        return new EntityType[] {EntityType.COMMENT, EntityType.RECIPE, EntityType.USER};
+    }
+
+    /**
+     * Retrieves one page of the replies below a comment (on all levels), in thread order.
+     *
+     * @param id     the comment ID
+     * @param cursor continuation token returned with the previous page, omitted for the first page
+     * @param size   requested page size
+     * @return {@link CursorPageDto} with the replies of the page and the next cursor,
+     *         or 404 if the comment does not exist
+     */
+    @GetMapping("/{id}/replies")
+    @CachedJsonResponse({EntityType.COMMENT, EntityType.RECIPE, EntityType.USER})
+    public CursorPageDto<CommentDto> getReplies(
+            @PathVariable("id") Long id,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size) {
+        return commentService.findReplies(id, cursor, size);
+    }
+}
@@ -1,6 +1,7 @@
 package com.cb.backend.controller;
 
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 
 /**
@@ -20,17 +21,19 @@ public interface CrudController<DTO, ID> {
     /**
      * Retrieves all entities.
      *
-     * @return a list of DTOs
+     * @param request the current request, for conditional {@code If-None-Match} handling
+     * @return a list of DTOs, or {@code null} if the client's copy is current
      */
-    List<DTO> getAll();
+    List<DTO> getAll(WebRequest request);
     
     /**
      * Retrieves a single entity by its ID.
      *
      * @param id the identifier of the entity
-     * @return the corresponding DTO
+     * @param request the current request, for conditional {@code If-None-Match} handling
+     * @return the corresponding DTO, or {@code null} if the client's copy is current
      */
-    DTO getById(ID id);
+    DTO getById(ID id, WebRequest request);
     
     /**
      * Creates a new entity.
@@ -1,27 +1,65 @@
 package com.cb.backend.controller;
 
+import com.cb.backend.FileStorageProperties;
+import com.cb.backend.dto.ImageJobDto;
+import com.cb.backend.service.BlobMetadata;
+import com.cb.backend.service.BlobResource;
+import com.cb.backend.service.BlobStore;
 import com.cb.backend.service.FileStorageService;
+import com.cb.backend.service.ImageProcessingQueue;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * REST controller for handling file uploads and downloads.
  *
  * <p>
  * Provides endpoints to upload files to a specified folder and to retrieve files
- * as byte arrays for display or download:
+ * for display or download:
  * <ul>
- *     <li>GET /api/files/upload – upload file,</li>
- *     <li>GET /api/files/images/{folder}/{fileName:.+} – get file by path and file name</li>
+ *     <li>GET /api/files/upload – upload file (image variants are generated in the background),</li>
+ *     <li>GET /api/files/jobs/{id} – status of the image processing job of an upload,</li>
+ *     <li>GET /api/files/jobs – number of image processing jobs by status,</li>
+ *     <li>GET /api/files/images/{folder}/{fileName:.+} – get file by path and file name,
+ *         optionally resized with {@code ?w=} (nearest generated image variant),</li>
+ *     <li>GET /api/files/images/sha256/{a}/{b}/{fileName:.+} – get content-addressed file,</li>
+ *     <li>DELETE /api/files/images/... – release a file (content-addressed files are deleted
+ *         when their last reference is released)</li>
  * </ul>
  * </p>
+ *
+ * <p>
+ * Files are streamed from the {@link BlobStore} as a {@link BlobResource} instead of being
+ * read into memory, so the response carries {@code Content-Length} and supports HTTP
+ * {@code Range} requests ({@code 206 Partial Content}) through Spring's resource message
+ * converters; only the requested range is read from the store.
+ * </p>
+ *
+ * <p>
+ * Stored file names are unique (see {@link FileStorageService#storeFile}) and never
+ * overwritten, so files are served with a strong {@code ETag}, {@code Last-Modified} and a
+ * long-lived {@code Cache-Control: public, immutable}. Conditional requests
+ * ({@code If-None-Match}, {@code If-Modified-Since}) are answered with
+ * {@code 304 Not Modified} without reading the file. Content-addressed files use their
+ * content hash as {@code ETag}, so it is the same on every node; other files combine the
+ * served key with its modification time and size.
+ * </p>
+ *
+ * <p>
+ * A request for a width whose variant does not exist (yet) is answered with the original
+ * and {@code Cache-Control: no-cache}: the variant may still be generated, so clients must
+ * revalidate instead of keeping the original under the variant URL for a year. Since the
+ * {@code ETag} names the served file, the revalidation returns the variant once it exists.
+ * </p>
  * 
  * @author Dmytro Babich
  * @since 1.0
@@ -30,50 +68,171 @@ import java.util.Map;
 @RequestMapping("/api/files")
 public class FileController {
     private final FileStorageService storageService;
+    private final BlobStore blobStore;
+    private final ImageProcessingQueue processingQueue;
+    private final CacheControl cacheControl;
 
-    public FileController(FileStorageService storageService) {
+    public FileController(
+    		FileStorageService storageService,
+    		BlobStore blobStore,
+    		ImageProcessingQueue processingQueue,
+    		FileStorageProperties properties) {
         this.storageService = storageService;
+        this.blobStore = blobStore;
+        this.processingQueue = processingQueue;
+        this.cacheControl = CacheControl.maxAge(properties.getCacheMaxAge()).cachePublic().immutable();
     }
 
     /**
      * Uploads a file to the specified folder.
      *
+     * <p>
+     * Returns as soon as the original is stored. Resized image variants are produced
+     * by {@link ImageProcessingQueue}; until then the original is served for any width.
+     * </p>
+     *
      * @param file the file to upload
      * @param folder the target folder
-     * @return a map containing the path to the stored file
+     * @return a map containing the path to the stored file and the ID of its processing job
      */
     @PostMapping("/upload")
     public Map<String, String> uploadFile(
     		@RequestParam("file") MultipartFile file,
     		@RequestParam("folder") String folder) {
-    	String fileName = storageService.storeFile(file, folder);
-        return Map.of("path", folder + "/" + fileName);
+    	String path = storageService.storeFile(file, folder);
+    	int slash = path.lastIndexOf('/');
+    	ImageJobDto job = processingQueue.submit(path.substring(0, slash), path.substring(slash + 1));
+        return Map.of("path", path, "jobId", job.getId());
+    }
+
+    /**
+     * Retrieves the status of an image processing job.
+     *
+     * @param id the job ID returned by the upload
+     * @return the job, or 404 if it does not exist (or has expired)
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ImageJobDto> getJob(@PathVariable("id") String id) {
+    	ImageJobDto job = processingQueue.findById(id);
+    	return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Retrieves the number of image processing jobs by status.
+     *
+     * @return map of status to job count, plus the number of jobs waiting for a worker
+     */
+    @GetMapping("/jobs")
+    public Map<String, Integer> getJobStats() {
+    	return processingQueue.getStats();
     }
 
     /**
-     * Retrieves a file as a byte array from the specified folder and file name.
+     * Retrieves a file from the specified folder and file name.
+     *
+     * <p>
+     * If {@code w} is given, the smallest generated image variant at least {@code w} pixels wide
+     * is served instead of the original (see {@link com.cb.backend.service.ImageVariantService}).
+     * </p>
      *
      * @param folder the folder containing the file
      * @param fileName the name of the file
-     * @return a {@link ResponseEntity} containing the file bytes, content type, and headers
+     * @param width the requested display width in pixels (optional)
+     * @return a {@link ResponseEntity} streaming the file with its content type and caching headers,
+     *         304 if the client's copy is current, or 404 if the file does not exist
      */
     @GetMapping("/images/{folder}/{fileName:.+}")
-    public ResponseEntity<byte[]> getFile(
+    public ResponseEntity<Resource> getFile(
+            @PathVariable("folder") String folder,
+            @PathVariable("fileName") String fileName,
+            @RequestParam(name = "w", required = false) Integer width) {
+        return serveFile(folder, fileName, width);
+    }
+
+    /**
+     * Retrieves a content-addressed file ({@code sha256/ab/cd/<hash>.<ext>}).
+     *
+     * @param first first two characters of the hash
+     * @param second next two characters of the hash
+     * @param fileName the name of the file
+     * @param width the requested display width in pixels (optional)
+     * @return see {@link #getFile(String, String, Integer)}
+     */
+    @GetMapping("/images/" + FileStorageService.CONTENT_ADDRESSED_FOLDER + "/{first}/{second}/{fileName:.+}")
+    public ResponseEntity<Resource> getContentAddressedFile(
+            @PathVariable("first") String first,
+            @PathVariable("second") String second,
+            @PathVariable("fileName") String fileName,
+            @RequestParam(name = "w", required = false) Integer width) {
+        return serveFile(contentAddressedFolder(first, second), fileName, width);
+    }
+
+    /**
+     * Releases a file from the specified folder.
+     *
+     * @param folder the folder containing the file
+     * @param fileName the name of the file
+     * @return map with {@code deleted = true} if the file was physically removed
+     */
+    @DeleteMapping("/images/{folder}/{fileName:.+}")
+    public Map<String, Boolean> deleteFile(
             @PathVariable("folder") String folder,
             @PathVariable("fileName") String fileName) {
-        try {
-            Path path = storageService.loadFile(folder, fileName);
-            byte[] bytes = Files.readAllBytes(path);
+        return Map.of("deleted", storageService.releaseFile(folder + "/" + fileName));
+    }
+
+    /**
+     * Releases one reference to a content-addressed file.
+     *
+     * @param first first two characters of the hash
+     * @param second next two characters of the hash
+     * @param fileName the name of the file
+     * @return map with {@code deleted = true} if the last reference was released
+     */
+    @DeleteMapping("/images/" + FileStorageService.CONTENT_ADDRESSED_FOLDER + "/{first}/{second}/{fileName:.+}")
+    public Map<String, Boolean> deleteContentAddressedFile(
+            @PathVariable("first") String first,
+            @PathVariable("second") String second,
+            @PathVariable("fileName") String fileName) {
+        return Map.of("deleted", storageService.releaseFile(contentAddressedFolder(first, second) + "/" + fileName));
+    }
+
+    private static String contentAddressedFolder(String first, String second) {
+        return FileStorageService.CONTENT_ADDRESSED_FOLDER + "/" + first + "/" + second;
+    }
 
-            String contentType = Files.probeContentType(path);
-            if (contentType == null) {
-                contentType = "application/octet-stream";
+    private ResponseEntity<Resource> serveFile(String folder, String fileName, Integer width) {
+        try {
+            String original = storageService.resolveKey(folder, fileName);
+            String key = storageService.resolveKey(folder, fileName, width);
+            // Вместо запрошенного варианта отдается оригинал: вариант может еще появиться
+            boolean fallback = width != null && key.equals(original);
+            Optional<BlobMetadata> metadata = blobStore.stat(key);
+            if (metadata.isEmpty()) {
+                return ResponseEntity.notFound().build();
             }
+            BlobResource resource = new BlobResource(blobStore, key, metadata.get());
+            long size = metadata.get().getSize();
+            long lastModified = resource.lastModified();
+            String name = resource.getFilename();
+            String eTag = folder.startsWith(FileStorageService.CONTENT_ADDRESSED_FOLDER + "/")
+                    ? "\"" + name + "\""
+                    : "\"" + Integer.toHexString(key.hashCode()) + "-" + Long.toHexString(lastModified)
+                            + "-" + Long.toHexString(size) + "\"";
+
+            MediaType contentType = MediaTypeFactory.getMediaType(name)
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM);
 
             return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"")
-                    .body(bytes);
+                    .contentType(contentType)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + name + "\"")
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .contentLength(size)
+                    // ETag и Last-Modified: Spring сам ответит 304 на условный запрос
+                    .eTag(eTag)
+                    .lastModified(lastModified)
+                    .cacheControl(fallback ? CacheControl.noCache() : cacheControl)
+                    .body(resource);
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
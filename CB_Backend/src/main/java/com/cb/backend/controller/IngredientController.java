@@ -1,6 +1,7 @@
 package com.cb.backend.controller;
 
 import com.cb.backend.dto.IngredientDto;
+import com.cb.backend.model.EntityType;
 import com.cb.backend.model.RecipeIngredientKey;
 import com.cb.backend.service.IngredientService;
 import com.cb.backend.service.CrudService;
@@ -46,4 +47,14 @@ public class IngredientController extends AbstractCrudController<IngredientDto,
     protected CrudService<IngredientDto, RecipeIngredientKey> getService() {
         return ingredientService;
     }
+
+    /**
+     * Returns the entity types the DTOs of this controller are built from.
+     *
+     * @return the entity types for the {@code ETag} of GET responses
+     */
+    @Override
+    protected EntityType[] getEntityTypes() {
+        return new EntityType[] {EntityType.RECIPE, EntityType.PRODUCT};
+    }
 }
\ No newline at end of file
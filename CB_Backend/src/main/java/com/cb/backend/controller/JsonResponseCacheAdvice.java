@@ -0,0 +1,85 @@
+package com.cb.backend.controller;
+
+import com.cb.backend.CacheConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Stores the responses of {@link CachedJsonResponse} endpoints in the response cache.
+ *
+ * <p>
+ * On a cache miss (see {@link JsonResponseCacheInterceptor}) the returned object is
+ * serialized once with the application's {@link ObjectMapper}; the bytes are cached with
+ * the response's {@code ETag} and written to the response directly, so the message converter has nothing left to do.
+ * Only successful JSON responses are cached.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@ControllerAdvice
+public class JsonResponseCacheAdvice implements ResponseBodyAdvice<Object> {
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+
+    public JsonResponseCacheAdvice(ObjectMapper objectMapper, CacheManager cacheManager) {
+        this.objectMapper = objectMapper;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.hasMethodAnnotation(CachedJsonResponse.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+            Object body,
+            MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request,
+            ServerHttpResponse response) {
+        if (body == null
+                || !MediaType.APPLICATION_JSON.isCompatibleWith(selectedContentType)
+                || !(request instanceof ServletServerHttpRequest servletRequest)
+                || !(response instanceof ServletServerHttpResponse servletResponse)
+                || servletResponse.getServletResponse().getStatus() != HttpStatus.OK.value()
+                || !(servletRequest.getServletRequest().getAttribute(
+                        JsonResponseCacheInterceptor.CACHE_KEY_ATTRIBUTE) instanceof String key)) {
+            return body;
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.RESPONSES);
+        if (cache == null) {
+            return body;
+        }
+
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(body);
+            String eTag = servletResponse.getServletResponse().getHeader(HttpHeaders.ETAG);
+            cache.put(key, new JsonResponseCacheInterceptor.CachedResponse(bytes, eTag));
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.getHeaders().setContentLength(bytes.length);
+            response.getBody().write(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        // Тело уже записано, конвертеру писать нечего
+        return null;
+    }
+}
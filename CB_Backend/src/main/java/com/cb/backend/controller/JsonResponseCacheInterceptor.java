@@ -0,0 +1,102 @@
+package com.cb.backend.controller;
+
+import com.cb.backend.CacheConfig;
+import com.cb.backend.service.EntityVersionRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Answers requests to {@link CachedJsonResponse} endpoints from the response cache.
+ *
+ * <p>
+ * The cache key is computed before the controller method runs, from the versions of the
+ * entity types the endpoint depends on. On a hit the cached bytes are written to the
+ * servlet output stream and the controller is skipped. On a miss the key is left in a
+ * request attribute for {@link JsonResponseCacheAdvice}, which stores the serialized
+ * response under it. A change during the request therefore never makes older data look
+ * current: it increments a version, and later requests use a different key.
+ * </p>
+ *
+ * <p>
+ * The {@code ETag} set by the controller (see {@link AbstractCrudController}) is cached
+ * with the body, so cached responses still answer {@code If-None-Match} with
+ * {@code 304 Not Modified}.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Component
+public class JsonResponseCacheInterceptor implements HandlerInterceptor {
+    /**
+     * Request attribute with the cache key of a response to store.
+     */
+    static final String CACHE_KEY_ATTRIBUTE = JsonResponseCacheInterceptor.class.getName() + ".key";
+
+    private final EntityVersionRegistry versionRegistry;
+    private final CacheManager cacheManager;
+
+    public JsonResponseCacheInterceptor(EntityVersionRegistry versionRegistry, CacheManager cacheManager) {
+        this.versionRegistry = versionRegistry;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod method) || !HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        CachedJsonResponse annotation = method.getMethodAnnotation(CachedJsonResponse.class);
+        Cache cache = cacheManager.getCache(CacheConfig.RESPONSES);
+        if (annotation == null || cache == null) {
+            return true;
+        }
+
+        String key = request.getRequestURI()
+                + (request.getQueryString() != null ? "?" + request.getQueryString() : "")
+                + "#" + versionRegistry.getVersionKey(annotation.value());
+        CachedResponse cached = cache.get(key, CachedResponse.class);
+        if (cached == null) {
+            request.setAttribute(CACHE_KEY_ATTRIBUTE, key);
+            return true;
+        }
+        if (cached.getETag() != null && new ServletWebRequest(request, response).checkNotModified(cached.getETag())) {
+            return false;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(cached.getBytes().length);
+        response.getOutputStream().write(cached.getBytes());
+        return false;
+    }
+
+    /**
+     * Serialized response body with its entity tag.
+     */
+    public static final class CachedResponse {
+        private final byte[] bytes;
+        private final String eTag;
+
+        CachedResponse(byte[] bytes, String eTag) {
+            this.bytes = bytes;
+            this.eTag = eTag;
+        }
+
+        /**
+         * @return the JSON bytes; must not be modified
+         */
+        public byte[] getBytes() { return bytes; }
+
+        /**
+         * @return the {@code ETag} of the response, or {@code null} if it had none
+         */
+        public String getETag() { return eTag; }
+    }
+}
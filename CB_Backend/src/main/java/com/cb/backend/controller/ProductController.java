@@ -1,6 +1,7 @@
 package com.cb.backend.controller;
 
 import com.cb.backend.dto.ProductDto;
+import com.cb.backend.model.EntityType;
 import com.cb.backend.service.ProductService;
 import com.cb.backend.service.CrudService;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -45,4 +46,14 @@ public class ProductController extends AbstractCrudController<ProductDto, Long>
     protected CrudService<ProductDto, Long> getService() {
         return productService;
     }
+
+    /**
+     * Returns the entity types the DTOs of this controller are built from.
+     *
+     * @return the entity types for the {@code ETag} of GET responses
+     */
+    @Override
+    protected EntityType[] getEntityTypes() {
+        return new EntityType[] {EntityType.PRODUCT};
+    }
 }
\ No newline at end of file
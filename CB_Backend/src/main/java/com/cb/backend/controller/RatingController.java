@@ -1,6 +1,7 @@
 package com.cb.backend.controller;
 
 import com.cb.backend.dto.RatingDto;
+import com.cb.backend.model.EntityType;
 import com.cb.backend.service.RatingService;
 import com.cb.backend.service.CrudService;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -45,4 +46,14 @@ public class RatingController extends AbstractCrudController<RatingDto, Long> {
     protected CrudService<RatingDto, Long> getService() {
         return ratingService;
     }
+
+    /**
+     * Returns the entity types the DTOs of this controller are built from.
+     *
+     * @return the entity types for the {@code ETag} of GET responses
+     */
+    @Override
+    protected EntityType[] getEntityTypes() {
+        return new EntityType[] {EntityType.RATING, EntityType.RECIPE};
+    }
 }
\ No newline at end of file
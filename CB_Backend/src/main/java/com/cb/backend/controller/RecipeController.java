@@ -1,10 +1,22 @@
 package com.cb.backend.controller;
 
+import com.cb.backend.dto.CommentDto;
+import com.cb.backend.dto.CursorPageDto;
+import com.cb.backend.dto.RatingSummaryDto;
 import com.cb.backend.dto.RecipeDto;
+import com.cb.backend.dto.RecipeSummaryDto;
 import com.cb.backend.model.ContentStatus;
+import com.cb.backend.model.EntityType;
+import com.cb.backend.service.CommentService;
+import com.cb.backend.service.PublicRecipeFeed;
+import com.cb.backend.service.RatingService;
 import com.cb.backend.service.RecipeService;
 import com.cb.backend.service.CrudService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,7 +35,32 @@ import java.util.List;
  * </p>
  *
  * <p>
- * Delegates all operations to {@link RecipeService}.
+ * Provides additional keyset paginated listings:
+ * <ul>
+ *     <li>GET /api/recipes/public – all published recipes, newest first,</li>
+ *     <li>GET /api/recipes/public/feed?page={page} – numbered page of published recipes,</li>
+ *     <li>GET /api/recipes/page?cursor={cursor}&amp;size={size}&amp;status={status} – page of recipes of any status,</li>
+ *     <li>GET /api/recipes/public/page?cursor={cursor}&amp;size={size} – page of published recipes,</li>
+ *     <li>GET /api/recipes/summaries?cursor={cursor}&amp;size={size}&amp;status={status}&amp;categoryId={id} – page of recipe summaries,</li>
+ *     <li>GET /api/recipes/public/summaries?cursor={cursor}&amp;size={size}&amp;categoryId={id} – page of published recipe summaries.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Provides the data of a single recipe page:
+ * <ul>
+ *     <li>GET /api/recipes/{id}/comments?cursor={cursor}&amp;size={size} – page of the top-level comments of a recipe
+ *         with their reply counts, newest first,</li>
+ *     <li>GET /api/recipes/{id}/ratings/summary – number, average and histogram of the ratings of a recipe.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * The list and page endpoints are marked with {@link CachedJsonResponse}: their serialized
+ * responses are reused until a recipe, category, product or user changes.
+ * The two public feed endpoints are served pre-serialized from {@link PublicRecipeFeed}
+ * with a content {@code ETag}; {@code If-None-Match} is answered with {@code 304 Not Modified}.
+ * Delegates all other operations to {@link RecipeService}.
  * </p>
  * 
  * @author Dmytro Babich
@@ -33,9 +70,19 @@ import java.util.List;
 @RequestMapping("/api/recipes")
 public class RecipeController extends AbstractCrudController<RecipeDto, Long> {
 	private final RecipeService recipeService;
+	private final PublicRecipeFeed publicFeed;
+	private final CommentService commentService;
+	private final RatingService ratingService;
 
-    public RecipeController(RecipeService recipeService) {
+    public RecipeController(
+    		RecipeService recipeService,
+    		PublicRecipeFeed publicFeed,
+    		CommentService commentService,
+    		RatingService ratingService) {
         this.recipeService = recipeService;
+        this.publicFeed = publicFeed;
+        this.commentService = commentService;
+        this.ratingService = ratingService;
     }
 
     /**
@@ -48,19 +95,156 @@ public class RecipeController extends AbstractCrudController<RecipeDto, Long> {
         return recipeService;
     }
 
+    /**
+     * Returns the entity types the DTOs of this controller are built from.
+     *
+     * @return the entity types for the {@code ETag} of GET responses
+     */
+    @Override
+    protected EntityType[] getEntityTypes() {
+        return new EntityType[] {EntityType.RECIPE, EntityType.CATEGORY, EntityType.PRODUCT, EntityType.USER};
+    }
+
     // Public endpoint - only returns published recipes
     @GetMapping("/public")
-    public List<RecipeDto> getPublishedRecipes() {
-        return recipeService.findAllByStatus(ContentStatus.PUBLISHED);
+    public ResponseEntity<byte[]> getPublishedRecipes() {
+        return feedResponse(publicFeed.getAll());
+    }
+
+    /**
+     * Retrieves one numbered page of published recipes, newest first.
+     *
+     * @param page zero-based page number; the page size is {@code recipes.feed-page-size}
+     * @return JSON object with {@code page}, {@code hasMore} and {@code items},
+     *         or 304 if the client's copy is current
+     */
+    @GetMapping("/public/feed")
+    public ResponseEntity<byte[]> getPublishedFeed(
+            @RequestParam(name = "page", defaultValue = "0") int page) {
+        return feedResponse(publicFeed.getPage(page));
+    }
+
+    /**
+     * Retrieves one page of recipes, newest first.
+     *
+     * @param cursor continuation token returned with the previous page, omitted for the first page
+     * @param size   requested page size
+     * @param status optional status filter (PENDING, PUBLISHED, REJECTED)
+     * @return {@link CursorPageDto} with the recipes of the page and the next cursor
+     */
+    @GetMapping("/page")
+    @CachedJsonResponse({EntityType.RECIPE, EntityType.CATEGORY, EntityType.PRODUCT, EntityType.USER})
+    public CursorPageDto<RecipeDto> getPage(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size,
+            @RequestParam(name = "status", required = false) String status) {
+        ContentStatus statusFilter = status == null || status.isBlank() ? null : ContentStatus.fromString(status);
+        return recipeService.findPage(statusFilter, cursor, size);
+    }
+
+    /**
+     * Retrieves one page of published recipes, newest first.
+     *
+     * @param cursor continuation token returned with the previous page, omitted for the first page
+     * @param size   requested page size
+     * @return {@link CursorPageDto} with the recipes of the page and the next cursor
+     */
+    @GetMapping("/public/page")
+    @CachedJsonResponse({EntityType.RECIPE, EntityType.CATEGORY, EntityType.PRODUCT, EntityType.USER})
+    public CursorPageDto<RecipeDto> getPublishedPage(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size) {
+        return recipeService.findPage(ContentStatus.PUBLISHED, cursor, size);
+    }
+
+    /**
+     * Retrieves one page of recipe summaries for list views, newest first.
+     *
+     * @param cursor     continuation token returned with the previous page, omitted for the first page
+     * @param size       requested page size
+     * @param status     optional status filter (PENDING, PUBLISHED, REJECTED)
+     * @param categoryId optional category filter
+     * @return {@link CursorPageDto} with the summaries of the page and the next cursor
+     */
+    @GetMapping("/summaries")
+    @CachedJsonResponse({EntityType.RECIPE, EntityType.CATEGORY, EntityType.PRODUCT, EntityType.USER})
+    public CursorPageDto<RecipeSummaryDto> getSummaries(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size,
+            @RequestParam(name = "status", required = false) String status,
+            @RequestParam(name = "categoryId", required = false) Long categoryId) {
+        ContentStatus statusFilter = status == null || status.isBlank() ? null : ContentStatus.fromString(status);
+        return recipeService.findSummaryPage(statusFilter, categoryId, cursor, size);
+    }
+
+    /**
+     * Retrieves one page of published recipe summaries for list views, newest first.
+     *
+     * @param cursor     continuation token returned with the previous page, omitted for the first page
+     * @param size       requested page size
+     * @param categoryId optional category filter
+     * @return {@link CursorPageDto} with the summaries of the page and the next cursor
+     */
+    @GetMapping("/public/summaries")
+    @CachedJsonResponse({EntityType.RECIPE, EntityType.CATEGORY, EntityType.PRODUCT, EntityType.USER})
+    public CursorPageDto<RecipeSummaryDto> getPublishedSummaries(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size,
+            @RequestParam(name = "categoryId", required = false) Long categoryId) {
+        return recipeService.findSummaryPage(ContentStatus.PUBLISHED, categoryId, cursor, size);
+    }
+
+    /**
+     * Retrieves one page of the top-level comments of a recipe, newest first.
+     * Replies are loaded per thread with {@code GET /api/comments/{id}/replies}.
+     *
+     * @param id     the recipe ID
+     * @param cursor continuation token returned with the previous page, omitted for the first page
+     * @param size   requested page size
+     * @return {@link CursorPageDto} with the comments of the page and the next cursor,
+     *         or 404 if the recipe does not exist
+     */
+    @GetMapping("/{id}/comments")
+    @CachedJsonResponse({EntityType.COMMENT, EntityType.RECIPE, EntityType.USER})
+    public CursorPageDto<CommentDto> getComments(
+            @PathVariable("id") Long id,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size) {
+        return commentService.findPageByRecipe(id, cursor, size);
+    }
+
+    /**
+     * Retrieves the rating summary of a recipe.
+     *
+     * @param id the recipe ID
+     * @return {@link RatingSummaryDto} of the recipe, or 404 if the recipe does not exist
+     */
+    @GetMapping("/{id}/ratings/summary")
+    @CachedJsonResponse(EntityType.RECIPE)
+    public RatingSummaryDto getRatingSummary(@PathVariable("id") Long id) {
+        return ratingService.getSummary(id);
     }
 
     // Override getAll to return only published for public access
     // Admin endpoints should use /api/recipes/all or similar
     @Override
     @GetMapping
-    public List<RecipeDto> getAll() {
+    @CachedJsonResponse({EntityType.RECIPE, EntityType.CATEGORY, EntityType.PRODUCT, EntityType.USER})
+    public List<RecipeDto> getAll(WebRequest request) {
+        if (checkNotModified(request)) {
+            return null;
+        }
         // For now, return all (admin panel needs all statuses)
         // In production, you might want to check user role here
         return recipeService.findAll();
     }
+
+    private static ResponseEntity<byte[]> feedResponse(PublicRecipeFeed.JsonBuffer buffer) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                // Клиент должен перепроверять ETag, ответ 304 без тела
+                .eTag(buffer.getETag())
+                .cacheControl(CacheControl.noCache())
+                .body(buffer.getBytes());
+    }
 }
\ No newline at end of file
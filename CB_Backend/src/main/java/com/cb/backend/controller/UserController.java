@@ -1,6 +1,7 @@
 package com.cb.backend.controller;
 
 import com.cb.backend.dto.UserDto;
+import com.cb.backend.model.EntityType;
 import com.cb.backend.service.UserService;
 import com.cb.backend.service.CrudService;
 
@@ -57,6 +58,16 @@ public class UserController extends AbstractCrudController<UserDto, Long> {
     protected CrudService<UserDto, Long> getService() {
         return userService;
     }
+
+    /**
+     * Returns the entity types the DTOs of this controller are built from.
+     *
+     * @return the entity types for the {@code ETag} of GET responses
+     */
+    @Override
+    protected EntityType[] getEntityTypes() {
+        return new EntityType[] {EntityType.USER};
+    }
     
     /**
      * Searches for users whose usernames contain the specified query string.
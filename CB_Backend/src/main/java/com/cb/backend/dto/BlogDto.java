@@ -19,6 +19,7 @@ public class BlogDto {
     private String status; // PENDING, PUBLISHED, REJECTED
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version; // For optimistic locking, sent back with updates
     private UserDto userDto;
 
     // --- Methods ---
@@ -33,6 +34,7 @@ public class BlogDto {
                 ", cookingTime=" + cookingTime +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
+                ", version=" + version +
                 ", userDto=" + userDto +
                 '}';
     }
@@ -65,6 +67,9 @@ public class BlogDto {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public UserDto getUserDto() { return userDto; }
     public void setUserDto(UserDto userDto) { this.userDto = userDto; }
 }
\ No newline at end of file
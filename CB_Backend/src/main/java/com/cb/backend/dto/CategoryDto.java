@@ -12,6 +12,7 @@ public class CategoryDto {
     private String name;
     private String description;
     private String photoUrl;
+    private Long version; // For optimistic locking, sent back with updates
     
     // --- Methods ---
     @Override
@@ -21,6 +22,7 @@ public class CategoryDto {
                 ", name=" + name + "" +
                 ", description=" + description + "" +
                 ", photoUrl=" + photoUrl + "" +
+                ", version=" + version + "" +
                 '}';
     }
     
@@ -36,4 +38,7 @@ public class CategoryDto {
     
     public String getPhotoUrl() { return photoUrl; }
     public void setPhotoUrl(String photoUrl) { this.photoUrl = photoUrl; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
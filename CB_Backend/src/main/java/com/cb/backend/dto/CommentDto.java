@@ -14,7 +14,11 @@ public class CommentDto {
     private String text;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version; // For optimistic locking, sent back with updates
     private Long recipeId;
+    private Long parentId; // null for top-level comments
+    private Integer depth;
+    private Integer replyCount; // Replies below the comment on all levels, read-only
     private UserDto userDto;
 	
     // --- Methods ---
@@ -25,7 +29,11 @@ public class CommentDto {
                 ", text=" + text + "" +
                 ", createdAt=" + createdAt + "" +
                 ", updatedAt=" + updatedAt + "" +
+                ", version=" + version + "" +
                 ", recipeId=" + recipeId + "" +
+                ", parentId=" + parentId + "" +
+                ", depth=" + depth + "" +
+                ", replyCount=" + replyCount + "" +
                 ", UserDto=" + userDto + "" +
                 '}';
     }
@@ -42,10 +50,22 @@ public class CommentDto {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
     
     public Long getRecipeId() { return recipeId; }
     public void setRecipeId(Long recipeId) { this.recipeId = recipeId; }
     
+    public Long getParentId() { return parentId; }
+    public void setParentId(Long parentId) { this.parentId = parentId; }
+    
+    public Integer getDepth() { return depth; }
+    public void setDepth(Integer depth) { this.depth = depth; }
+    
+    public Integer getReplyCount() { return replyCount; }
+    public void setReplyCount(Integer replyCount) { this.replyCount = replyCount; }
+    
     public UserDto getUserDto() { return userDto; }
     public void setUserDto(UserDto userDto) { this.userDto = userDto; }
 }
\ No newline at end of file
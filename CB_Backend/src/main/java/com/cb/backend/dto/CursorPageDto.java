@@ -0,0 +1,53 @@
+package com.cb.backend.dto;
+
+import java.util.List;
+
+/**
+ * DTO representing one page of a cursor (keyset) paginated listing.
+ *
+ * <p>
+ * {@code nextCursor} is an opaque continuation token. Pass it back as the
+ * {@code cursor} request parameter to fetch the following page. It is
+ * {@code null} when there are no more items.
+ * </p>
+ *
+ * @param <T> the type of the items in the page
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+public class CursorPageDto<T> {
+	// --- Variables ---
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    // --- Constructors ---
+    public CursorPageDto() {}
+
+    public CursorPageDto(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    // --- Methods ---
+    @Override
+    public String toString() {
+        return "CursorPageDto{" +
+                "items[" + (items != null ? items.size() : 0) + "]" +
+                ", nextCursor='" + nextCursor + '\'' +
+                ", hasMore=" + hasMore +
+                '}';
+    }
+
+    // --- Getters & Setters ---
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
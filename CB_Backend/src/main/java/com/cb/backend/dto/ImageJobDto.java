@@ -0,0 +1,74 @@
+package com.cb.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO representing a background image processing job.
+ *
+ * <p>
+ * Created for every uploaded file and persisted as JSON next to the uploads,
+ * so jobs survive restarts. {@code status} is one of
+ * {@link com.cb.backend.model.ImageJobStatus}; {@code variants} lists the widths
+ * of the generated image variants once the job is done.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+public class ImageJobDto {
+	// --- Variables ---
+    private String id;
+    private String folder;
+    private String fileName;
+    private String status;
+    private List<Integer> variants;
+    private String error;
+    private int attempts;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // --- Methods ---
+    @Override
+    public String toString() {
+        return "ImageJobDto{" +
+                "id='" + id + '\'' +
+                ", folder='" + folder + '\'' +
+                ", fileName='" + fileName + '\'' +
+                ", status='" + status + '\'' +
+                ", variants=" + variants +
+                ", error='" + error + '\'' +
+                ", attempts=" + attempts +
+                ", createdAt=" + createdAt +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+
+    // --- Getters & Setters ---
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getFolder() { return folder; }
+    public void setFolder(String folder) { this.folder = folder; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public List<Integer> getVariants() { return variants; }
+    public void setVariants(List<Integer> variants) { this.variants = variants; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,41 @@
+package com.cb.backend.dto;
+
+import java.util.List;
+
+/**
+ * DTO with the rating summary of a {@link com.cb.backend.model.Recipe}.
+ * 
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+public class RatingSummaryDto {
+	// --- Variables ---
+    private Long recipeId;
+    private Integer count;
+    private Double average; // null if the recipe has no ratings
+    private List<Integer> histogram; // Number of ratings per value, from 1 to 5 stars
+
+    // --- Methods ---
+    @Override
+    public String toString() {
+        return "RatingSummaryDto{" +
+                "recipeId=" + recipeId +
+                ", count=" + count + "" +
+                ", average=" + average + "" +
+                ", histogram=" + histogram + "" +
+                '}';
+    }
+
+    // --- Getters & Setters ---
+    public Long getRecipeId() { return recipeId; }
+    public void setRecipeId(Long recipeId) { this.recipeId = recipeId; }
+
+    public Integer getCount() { return count; }
+    public void setCount(Integer count) { this.count = count; }
+
+    public Double getAverage() { return average; }
+    public void setAverage(Double average) { this.average = average; }
+
+    public List<Integer> getHistogram() { return histogram; }
+    public void setHistogram(List<Integer> histogram) { this.histogram = histogram; }
+}
@@ -27,8 +27,13 @@ public class RecipeDto {
     private Double carbohydrates;
     private Double cholesterol;
     private String status; // PENDING, PUBLISHED, REJECTED
+    // Ratings (read-only)
+    private Integer ratingCount;
+    private Double ratingAverage;
+    private List<Integer> ratingHistogram; // Number of ratings with 1 to 5 stars
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version; // For optimistic locking, sent back with updates
     private UserDto userDto;
     private List<CategoryDto> categoriesDto;
     private List<IngredientDto> ingredientsDto;
@@ -46,8 +51,11 @@ public class RecipeDto {
                 ", text='" + (text != null ? text.substring(0, Math.min(text.length(), 50)) + "..." : null) + '\'' +
                 ", photoUrl='" + photoUrl + '\'' +
                 ", cookingTime=" + cookingTime +
+                ", ratingCount=" + ratingCount +
+                ", ratingAverage=" + ratingAverage +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
+                ", version=" + version +
                 ", userDto=" + (userDto != null ? userDto : null) +
                 ", categoriesDtoDto[" + categoriesDtoSize + "]=" + (categoriesDto != null ? categoriesDto.toString() : null)  +
                 ", ingredientsDtoDto[" + ingredientsDtoSize + "]=" + (ingredientsDto != null ? ingredientsDto.toString() : null) +
@@ -97,12 +105,24 @@ public class RecipeDto {
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
 
+    public Integer getRatingCount() { return ratingCount; }
+    public void setRatingCount(Integer ratingCount) { this.ratingCount = ratingCount; }
+
+    public Double getRatingAverage() { return ratingAverage; }
+    public void setRatingAverage(Double ratingAverage) { this.ratingAverage = ratingAverage; }
+
+    public List<Integer> getRatingHistogram() { return ratingHistogram; }
+    public void setRatingHistogram(List<Integer> ratingHistogram) { this.ratingHistogram = ratingHistogram; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public UserDto getUserDto() { return userDto; }
     public void setUserDto(UserDto userDto) { this.userDto = userDto; }
 
@@ -0,0 +1,87 @@
+package com.cb.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight DTO representing a {@link com.cb.backend.model.Recipe} in list views.
+ *
+ * <p>
+ * Unlike {@link RecipeDto}, it carries no recipe text, ingredients or categories,
+ * only what is needed to render a recipe card.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+public class RecipeSummaryDto {
+	// --- Variables ---
+    private Long id;
+    private String title;
+    private String description;
+    private String photoUrl;
+    private Integer cookingTime;
+    private Integer prepTime;
+    private Integer cookTime;
+    private String status; // PENDING, PUBLISHED, REJECTED
+    private Integer ratingCount;
+    private Double ratingAverage;
+    private LocalDateTime createdAt;
+    private Long userId;
+    private String username;
+
+    // --- Methods ---
+    @Override
+    public String toString() {
+        return "RecipeSummaryDto{" +
+                "id=" + id +
+                ", title='" + title + '\'' +
+                ", photoUrl='" + photoUrl + '\'' +
+                ", cookingTime=" + cookingTime +
+                ", status=" + status +
+                ", ratingCount=" + ratingCount +
+                ", ratingAverage=" + ratingAverage +
+                ", createdAt=" + createdAt +
+                ", userId=" + userId +
+                '}';
+    }
+
+    // --- Getters & Setters ---
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getPhotoUrl() { return photoUrl; }
+    public void setPhotoUrl(String photoUrl) { this.photoUrl = photoUrl; }
+
+    public Integer getCookingTime() { return cookingTime; }
+    public void setCookingTime(Integer cookingTime) { this.cookingTime = cookingTime; }
+
+    public Integer getPrepTime() { return prepTime; }
+    public void setPrepTime(Integer prepTime) { this.prepTime = prepTime; }
+
+    public Integer getCookTime() { return cookTime; }
+    public void setCookTime(Integer cookTime) { this.cookTime = cookTime; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Integer getRatingCount() { return ratingCount; }
+    public void setRatingCount(Integer ratingCount) { this.ratingCount = ratingCount; }
+
+    public Double getRatingAverage() { return ratingAverage; }
+    public void setRatingAverage(Double ratingAverage) { this.ratingAverage = ratingAverage; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+}
@@ -35,6 +35,7 @@ public class BlogMapper {
         dto.setStatus(blog.getStatus() != null ? blog.getStatus().name() : ContentStatus.PENDING.name());
         dto.setCreatedAt(blog.getCreatedAt());
         dto.setUpdatedAt(blog.getUpdatedAt());
+        dto.setVersion(blog.getVersion());
         return dto;
     }
 
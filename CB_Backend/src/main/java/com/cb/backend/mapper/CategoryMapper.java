@@ -27,6 +27,7 @@ public class CategoryMapper {
         dto.setName(category.getName());
         dto.setDescription(category.getDescription());
         dto.setPhotoUrl(category.getPhotoUrl());
+        dto.setVersion(category.getVersion());
         return dto;
     }
 
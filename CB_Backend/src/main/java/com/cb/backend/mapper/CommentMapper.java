@@ -25,7 +25,7 @@ public class CommentMapper {
 	 * Converts a {@link Comment} entity to a {@link CommentDto}.
 	 *
 	 * @param comment the entity to convert
-	 * @return a CommentDto with values from the entity, including user and recipe IDs
+	 * @return a CommentDto with values from the entity, including user, recipe and parent IDs
 	 */
     public static CommentDto toDto(Comment comment) {
     	CommentDto dto = new CommentDto();
@@ -33,13 +33,18 @@ public class CommentMapper {
         dto.setText(comment.getText());
         dto.setCreatedAt(comment.getCreatedAt());
         dto.setUpdatedAt(comment.getUpdatedAt());
+        dto.setVersion(comment.getVersion());
         dto.setRecipeId(comment.getRecipe().getId());
+        dto.setParentId(comment.getParent() != null ? comment.getParent().getId() : null);
+        dto.setDepth(comment.getDepth());
+        dto.setReplyCount(comment.getReplyCount());
         dto.setUserDto(UserMapper.toDto(comment.getUser()));
         return dto;
     }
 
     /**
      * Updates an existing {@link Comment} entity with data from a {@link CommentDto}.
+     * The position in the thread (parent, path, depth) is set by the service.
      *
      * @param comment the entity to update
      * @param dto the DTO containing new values
@@ -2,7 +2,9 @@ package com.cb.backend.mapper;
 
 import java.util.ArrayList;
 import java.util.List;
+import com.cb.backend.dto.RatingSummaryDto;
 import com.cb.backend.dto.RecipeDto;
+import com.cb.backend.dto.RecipeSummaryDto;
 import com.cb.backend.dto.CategoryDto;
 import com.cb.backend.dto.IngredientDto;
 import com.cb.backend.model.Category;
@@ -10,6 +12,8 @@ import com.cb.backend.model.Ingredient;
 import com.cb.backend.model.Recipe;
 import com.cb.backend.model.User;
 import com.cb.backend.model.ContentStatus;
+import com.cb.backend.repository.RecipeRatings;
+import com.cb.backend.repository.RecipeSummary;
 
 /**
  * Mapper class for converting between {@link Recipe} entities and {@link RecipeDto} data transfer objects.
@@ -34,6 +38,22 @@ public class RecipeMapper {
 	 * @return a RecipeDto containing values from the entity
 	 */
     public static RecipeDto toDto(Recipe recipe) {
+    	return toDto(recipe, recipe.getIngredients());
+    }
+
+	/**
+	 * Converts a {@link Recipe} entity to a {@link RecipeDto} using ingredients loaded separately.
+	 *
+	 * <p>
+	 * Allows ingredients of many recipes to be fetched in one batch instead of
+	 * initializing the lazy collection of every recipe.
+	 * </p>
+	 *
+	 * @param recipe the entity to convert
+	 * @param ingredients the ingredients of the recipe, with products initialized
+	 * @return a RecipeDto containing values from the entity
+	 */
+    public static RecipeDto toDto(Recipe recipe, List<Ingredient> ingredients) {
     	RecipeDto dto = new RecipeDto();
         dto.setId(recipe.getId());
         dto.setTitle(recipe.getTitle());
@@ -50,8 +70,12 @@ public class RecipeMapper {
         dto.setCarbohydrates(recipe.getCarbohydrates());
         dto.setCholesterol(recipe.getCholesterol());
         dto.setStatus(recipe.getStatus() != null ? recipe.getStatus().name() : ContentStatus.PENDING.name());
+        dto.setRatingCount(recipe.getRatingCount());
+        dto.setRatingAverage(ratingAverage(recipe.getRatingSum(), recipe.getRatingCount()));
+        dto.setRatingHistogram(recipe.getRatingHistogram());
         dto.setCreatedAt(recipe.getCreatedAt());
         dto.setUpdatedAt(recipe.getUpdatedAt());
+        dto.setVersion(recipe.getVersion());
         
         if (recipe.getUser() != null) {
             dto.setUserDto(UserMapper.toDto(recipe.getUser()));
@@ -73,14 +97,54 @@ public class RecipeMapper {
         dto.setCategories(categoriesDto);
         
         List<IngredientDto> ingredientsDto = new ArrayList<>();
-        List<Ingredient> Ingredients = recipe.getIngredients();
-        for (Ingredient ingredient : Ingredients) {
+        for (Ingredient ingredient : ingredients) {
         	ingredientsDto.add(IngredientMapper.toDto(ingredient));
 		}
         dto.setIngredients(ingredientsDto);
         return dto;
     }
 
+    /**
+     * Converts a {@link RecipeSummary} projection to a {@link RecipeSummaryDto}.
+     *
+     * @param summary the projection to convert
+     * @return a RecipeSummaryDto containing values from the projection
+     */
+    public static RecipeSummaryDto toSummaryDto(RecipeSummary summary) {
+    	RecipeSummaryDto dto = new RecipeSummaryDto();
+    	dto.setId(summary.getId());
+    	dto.setTitle(summary.getTitle());
+    	dto.setDescription(summary.getDescription());
+    	dto.setPhotoUrl(summary.getPhotoUrl());
+    	dto.setCookingTime(summary.getCookingTime());
+    	dto.setPrepTime(summary.getPrepTime());
+    	dto.setCookTime(summary.getCookTime());
+    	dto.setStatus(summary.getStatus() != null ? summary.getStatus().name() : ContentStatus.PENDING.name());
+    	dto.setRatingCount(summary.getRatingCount());
+    	dto.setRatingAverage(ratingAverage(summary.getRatingSum(), summary.getRatingCount()));
+    	dto.setCreatedAt(summary.getCreatedAt());
+    	dto.setUserId(summary.getUserId());
+    	dto.setUsername(summary.getUsername());
+    	return dto;
+    }
+
+    /**
+     * Converts the rating aggregates of a recipe to a {@link RatingSummaryDto}.
+     *
+     * @param recipeId the recipe ID
+     * @param ratings the projection with the aggregate columns
+     * @return a RatingSummaryDto with the count, average and histogram of the ratings
+     */
+    public static RatingSummaryDto toRatingSummaryDto(Long recipeId, RecipeRatings ratings) {
+    	RatingSummaryDto dto = new RatingSummaryDto();
+    	dto.setRecipeId(recipeId);
+    	dto.setCount(ratings.getRatingCount());
+    	dto.setAverage(ratingAverage(ratings.getRatingSum(), ratings.getRatingCount()));
+    	dto.setHistogram(List.of(ratings.getRating1(), ratings.getRating2(), ratings.getRating3(),
+    			ratings.getRating4(), ratings.getRating5()));
+    	return dto;
+    }
+
     /**
      * Updates an existing {@link Recipe} entity with data from a {@link RecipeDto}.
      *
@@ -136,4 +200,18 @@ public class RecipeMapper {
     	recipe.getIngredients().clear();
     	recipe.getIngredients().addAll(ingredients);
     }
+
+    /**
+     * Computes the average rating rounded to two decimals.
+     *
+     * @param sum sum of the rating values
+     * @param count number of ratings
+     * @return the average, or {@code null} if the recipe has no ratings
+     */
+    private static Double ratingAverage(Long sum, Integer count) {
+        if (sum == null || count == null || count == 0) {
+            return null;
+        }
+        return Math.round(sum * 100.0 / count) / 100.0;
+    }
 }
@@ -3,11 +3,10 @@ package com.cb.backend.mapper;
 import com.cb.backend.model.Role;
 import com.cb.backend.model.User;
 import com.cb.backend.dto.UserDto;
+import com.cb.backend.service.PasswordHashingPolicy;
 
 import java.util.Random;
 
-import org.springframework.security.crypto.bcrypt.BCrypt;
-
 /**
  * Mapper class for converting between {@link User} entities and {@link UserDto} data transfer objects.
  *
@@ -47,13 +46,14 @@ public class UserMapper {
      *
      * <p>
      * Sets username, name, email, role (default USER if missing), photo URL (default random avatar if missing),
-     * creation date, and password (hashed with BCrypt if provided).
+     * creation date, and password (hashed according to the given {@link PasswordHashingPolicy} if provided).
      * </p>
      *
      * @param user the entity to update
      * @param dto the DTO containing new values
+     * @param hashingPolicy the policy used to hash a new password
      */
-    public static void updateEntity(User user, UserDto dto) {
+    public static void updateEntity(User user, UserDto dto, PasswordHashingPolicy hashingPolicy) {
         user.setUsername(dto.getUsername());
         user.setFirstName(dto.getFirstName());
         user.setLastName(dto.getLastName());
@@ -82,11 +82,10 @@ public class UserMapper {
         
         user.setCreatedAt(dto.getCreatedAt());
 
-        // Generate salt and hash the password using BCrypt
+        // Hash the password using BCrypt (the salt is part of the hash)
         if (dto.getPassword() != null && !dto.getPassword().isEmpty()) {
-            String salt = BCrypt.gensalt();
-            String hash = BCrypt.hashpw(dto.getPassword(), salt);
-            user.setPasswordSalt(salt);
+            String hash = hashingPolicy.hash(dto.getPassword());
+            user.setPasswordSalt(hashingPolicy.saltOf(hash));
             user.setPasswordHash(hash);
         }
     }
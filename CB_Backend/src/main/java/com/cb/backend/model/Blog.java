@@ -1,6 +1,7 @@
 package com.cb.backend.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 import com.cb.backend.model.ContentStatus;
 
@@ -92,6 +93,15 @@ public class Blog {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * Version of the blog post for optimistic locking.
+     * <p>Incremented on every update; an update based on an older version fails.</p>
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     // --- Relationships ---
     /**
      * Author of the blog post.
@@ -174,6 +184,9 @@ public class Blog {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
     
@@ -2,6 +2,7 @@ package com.cb.backend.model;
 
 import java.util.List;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * Entity <b>Category</b> represents a category used to group recipes.
@@ -52,6 +53,15 @@ public class Category {
      */
     @Column(name = "photo_url", length = 255)
     private String photoUrl;
+
+    /**
+     * Version of the category for optimistic locking.
+     * <p>Incremented on every update; an update based on an older version fails.</p>
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
     
     // --- Relationships ---
     /**
@@ -91,6 +101,9 @@ public class Category {
     public String getPhotoUrl() { return photoUrl; }
     public void setPhotoUrl(String photoUrl) { this.photoUrl = photoUrl; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public List<Recipe> getRecipes() { return recipes; }
     public void setRecipes(List<Recipe> recipes) { this.recipes = recipes; }
 }
@@ -1,24 +1,70 @@
 package com.cb.backend.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "CB_COMMENTS")
+@Table(name = "CB_COMMENTS", indexes = {
+        @Index(name = "IDX_COMMENTS_RECIPE_THREADS", columnList = "recipe_id, depth, created_at, id"),
+        @Index(name = "IDX_COMMENTS_THREAD_PATH", columnList = "thread_path"),
+        @Index(name = "IDX_COMMENTS_PARENT", columnList = "parent_id")
+})
 public class Comment {
+	/**
+	 * Deepest nesting level of replies; replies to a comment at this level are added to its parent.
+	 */
+	public static final int MAX_DEPTH = 8;
+
+	/**
+	 * Number of digits of each ID in {@link #getPath()}.
+	 */
+	public static final int PATH_SEGMENT_DIGITS = 12;
+
 	//--- Variables ---
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(length = 255, nullable = false)
+    @Column(length = 2000, nullable = false)
     private String text;
+
+    /**
+     * Materialized path of the comment in its thread: the zero-padded IDs of the top-level
+     * comment, all ancestors and the comment itself, each followed by {@code /}.
+     * The replies of a comment are the comments whose path starts with its path; ordered
+     * by path they come in thread order.
+     */
+    @Column(name = "thread_path", length = 255)
+    private String path;
+
+    /**
+     * Nesting level: 0 for top-level comments.
+     */
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Integer depth = 0;
+
+    /**
+     * Number of replies below the comment (on all levels). Maintained by atomic updates
+     * of {@link com.cb.backend.repository.CommentRepository#addReplies}, not by entity updates.
+     */
+    @ColumnDefault("0")
+    @Column(name = "reply_count", nullable = false, updatable = false)
+    private Integer replyCount = 0;
     
-    @Column(name = "created_at")
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
     
     //--- Relationships ---
     @ManyToOne(fetch = FetchType.LAZY)
@@ -29,6 +75,10 @@ public class Comment {
     @JoinColumn(name = "recipe_id", nullable = false)
     private Recipe recipe;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "parent_id")
+    private Comment parent;
+
     // --- Methods ---
     @PrePersist
     public void onCreate() {
@@ -41,6 +91,38 @@ public class Comment {
         this.updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * Builds the path segment of a comment ID.
+     *
+     * @param id the comment ID
+     * @return the zero-padded ID followed by {@code /}
+     */
+    public static String pathSegment(Long id) {
+        return String.format("%0" + PATH_SEGMENT_DIGITS + "d/", id);
+    }
+
+    /**
+     * Returns the IDs of the ancestors of this comment, from the top-level comment down.
+     *
+     * @return ancestor IDs, empty for top-level comments
+     */
+    public List<Long> getAncestorIds() {
+        List<Long> ids = new ArrayList<>();
+        if (path == null) {
+            return ids;
+        }
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                ids.add(Long.valueOf(segment));
+            }
+        }
+        // Последний сегмент - сам комментарий
+        if (!ids.isEmpty()) {
+            ids.remove(ids.size() - 1);
+        }
+        return ids;
+    }
+
     // --- Getters & Setters ---
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -53,10 +135,24 @@ public class Comment {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
     
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
 
     public Recipe getRecipe() { return recipe; }
     public void setRecipe(Recipe recipe) { this.recipe = recipe; }
+
+    public Comment getParent() { return parent; }
+    public void setParent(Comment parent) { this.parent = parent; }
+
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
+    public Integer getDepth() { return depth; }
+    public void setDepth(Integer depth) { this.depth = depth; }
+
+    public Integer getReplyCount() { return replyCount; }
 }
@@ -0,0 +1,76 @@
+package com.cb.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entity <b>EntityChange</b> is one record of the entity change log.
+ *
+ * <p>
+ * This entity is mapped to the <b>CB_ENTITY_CHANGES</b> table. Every create, update or
+ * delete through a {@link com.cb.backend.service.CrudService} appends a record; the other
+ * API nodes poll the table and evict their cached copies of the entity. Records are
+ * deleted after {@code cache.invalidation.retention}.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Entity
+@Table(name = "CB_ENTITY_CHANGES")
+public class EntityChange {
+	// --- Variables ---
+	/**
+     * Unique, increasing identifier of the record; nodes remember the last one they processed.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Type of the changed entity.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", length = 20, nullable = false)
+    private EntityType entityType;
+
+    /**
+     * Identifier of the changed entity.
+     */
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    /**
+     * Identifier of the node that made the change, so it skips its own records.
+     */
+    @Column(name = "node_id", length = 36, nullable = false)
+    private String nodeId;
+
+    /**
+     * Date and time the record was written.
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // --- Methods ---
+    @PrePersist
+    public void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // --- Getters & Setters ---
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public EntityType getEntityType() { return entityType; }
+    public void setEntityType(EntityType entityType) { this.entityType = entityType; }
+
+    public Long getEntityId() { return entityId; }
+    public void setEntityId(Long entityId) { this.entityId = entityId; }
+
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,18 @@
+package com.cb.backend.model;
+
+/**
+ * Types of entities whose changes are broadcast to all API nodes
+ * (see {@link com.cb.backend.service.EntityChangePublisher}).
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+public enum EntityType {
+    RECIPE,
+    CATEGORY,
+    BLOG,
+    COMMENT,
+    PRODUCT,
+    RATING,
+    USER
+}
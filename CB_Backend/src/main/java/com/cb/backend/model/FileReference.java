@@ -0,0 +1,42 @@
+package com.cb.backend.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity <b>FileReference</b> is the reference count of one content-addressed file.
+ *
+ * <p>
+ * This entity is mapped to the <b>CB_FILE_REFERENCES</b> table. The count is changed only
+ * with single {@code UPDATE} statements by
+ * {@link com.cb.backend.service.FileStorageService}, whose row lock serializes uploads and
+ * releases of the same file across all API nodes. The row is deleted together with the
+ * file when the last reference is released.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Entity
+@Table(name = "CB_FILE_REFERENCES")
+public class FileReference {
+	// --- Variables ---
+	/**
+     * Key of the file in the blob store ({@code sha256/ab/cd/<hash>.<ext>}).
+     */
+    @Id
+    @Column(name = "file_key", length = 100)
+    private String fileKey;
+
+    /**
+     * Number of uploads referencing the file.
+     */
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    // --- Getters & Setters ---
+    public String getFileKey() { return fileKey; }
+    public void setFileKey(String fileKey) { this.fileKey = fileKey; }
+
+    public int getRefCount() { return refCount; }
+    public void setRefCount(int refCount) { this.refCount = refCount; }
+}
@@ -0,0 +1,8 @@
+package com.cb.backend.model;
+
+public enum ImageJobStatus {
+    PENDING,     // Stored, waiting for a worker
+    PROCESSING,  // Variants are being generated
+    DONE,        // Variants generated
+    FAILED;      // Processing failed, see error
+}
@@ -12,14 +12,29 @@ import jakarta.persistence.*;
  *
  * <p>
  * Each rating is associated with exactly one {@link User} and one {@link Recipe}.
+ * A user has at most one rating per recipe; rating a recipe again replaces the value.
  * </p>
  *
  * @author Dmytro Babich
  * @since 1.0
  */
 @Entity
-@Table(name = "CB_RATINGS")
+@Table(name = "CB_RATINGS", indexes = {
+        @Index(name = "IDX_RATINGS_RECIPE_VALUE", columnList = "recipe_id, rating")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "UX_RATINGS_USER_RECIPE", columnNames = {"user_id", "recipe_id"})
+})
 public class Rating {
+	/**
+	 * Lowest allowed rating value.
+	 */
+	public static final int MIN_VALUE = 1;
+
+	/**
+	 * Highest allowed rating value.
+	 */
+	public static final int MAX_VALUE = 5;
+
 	//--- Variables ---
 	/**
      * Unique identifier of the rating.
@@ -29,7 +44,7 @@ public class Rating {
     private Long id;
 
     /**
-     * Rating value given by the user.
+     * Rating value given by the user, from {@link #MIN_VALUE} to {@link #MAX_VALUE}.
      */
     @Column(name = "rating")
     private Integer rating;
@@ -1,6 +1,7 @@
 package com.cb.backend.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -24,7 +25,10 @@ import com.cb.backend.model.ContentStatus;
  * @since 1.0
  */
 @Entity
-@Table(name = "CB_RECIPES")
+@Table(name = "CB_RECIPES", indexes = {
+        @Index(name = "IDX_RECIPES_CREATED", columnList = "created_at, id"),
+        @Index(name = "IDX_RECIPES_STATUS_CREATED", columnList = "status, created_at, id")
+})
 public class Recipe {
 	//--- Variables ---
 	/**
@@ -99,11 +103,55 @@ public class Recipe {
     @Column(name = "status", nullable = false)
     private ContentStatus status = ContentStatus.PENDING;
 
+    // Rating aggregates
+    /**
+     * Number of ratings of the recipe.
+     * <p>
+     * The rating aggregates are maintained by atomic updates of
+     * {@link com.cb.backend.repository.RecipeRepository#addRating} and are never written
+     * by entity updates, so an update of the recipe cannot overwrite a concurrent rating.
+     * </p>
+     */
+    @ColumnDefault("0")
+    @Column(name = "rating_count", nullable = false, updatable = false)
+    private Integer ratingCount = 0;
+
+    /**
+     * Sum of all rating values of the recipe.
+     */
+    @ColumnDefault("0")
+    @Column(name = "rating_sum", nullable = false, updatable = false)
+    private Long ratingSum = 0L;
+
+    /**
+     * Number of ratings per value, {@code rating1} to {@code rating5}.
+     */
+    @ColumnDefault("0")
+    @Column(name = "rating_1", nullable = false, updatable = false)
+    private Integer rating1 = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_2", nullable = false, updatable = false)
+    private Integer rating2 = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_3", nullable = false, updatable = false)
+    private Integer rating3 = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_4", nullable = false, updatable = false)
+    private Integer rating4 = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_5", nullable = false, updatable = false)
+    private Integer rating5 = 0;
+
     /**
      * Timestamp when the recipe was created.
-     * <p>Automatically set before persisting the entity.</p>
+     * <p>Automatically set before persisting the entity. Required, since recipe lists are
+     * paginated by {@code (created_at, id)}.</p>
      */
-    @Column(name = "created_at")
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     /**
@@ -112,6 +160,15 @@ public class Recipe {
      */
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    /**
+     * Version of the recipe for optimistic locking.
+     * <p>Incremented on every update; an update based on an older version fails.</p>
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
     
     //--- Relationships ---
     /**
@@ -239,6 +296,17 @@ public class Recipe {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public Integer getRatingCount() { return ratingCount; }
+    public Long getRatingSum() { return ratingSum; }
+
+    /**
+     * @return number of ratings per value, from 1 to 5 stars
+     */
+    public List<Integer> getRatingHistogram() { return List.of(rating1, rating2, rating3, rating4, rating5); }
     
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
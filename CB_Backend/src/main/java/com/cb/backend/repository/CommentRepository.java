@@ -1,9 +1,16 @@
 package com.cb.backend.repository;
 
 import com.cb.backend.model.Comment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Repository interface for <b>Comment</b> entities.
  *
@@ -21,4 +28,77 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    /**
+     * Selects one page of the top-level comments of a recipe with keyset pagination, newest first.
+     *
+     * <p>
+     * Served by the index on {@code (recipe_id, depth, created_at, id)}: only the top-level
+     * comments of the recipe after the cursor position are read. The authors are fetched in
+     * the same query.
+     * </p>
+     *
+     * @param recipeId        the recipe whose comments are listed
+     * @param cursorCreatedAt creation time of the last comment of the previous page, or {@code null} for the first page
+     * @param cursorId        ID of the last comment of the previous page, or {@code null} for the first page
+     * @param pageable        page limit (only the page size is used)
+     * @return list of comments in listing order
+     */
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user " +
+           "WHERE c.recipe.id = :recipeId AND c.depth = 0 " +
+           "AND (:cursorCreatedAt IS NULL OR c.createdAt < :cursorCreatedAt " +
+           "     OR (c.createdAt = :cursorCreatedAt AND c.id < :cursorId)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findPageByRecipeId(Long recipeId, LocalDateTime cursorCreatedAt, Long cursorId, Pageable pageable);
+
+    /**
+     * Selects one page of the replies below a comment (on all levels) in thread order.
+     *
+     * <p>
+     * The replies are the comments whose path starts with the path of the comment; ordered
+     * by path, every reply directly follows its parent and earlier siblings. The page is read
+     * from the index on {@code thread_path} starting after the cursor, so a page of a large
+     * thread costs one bounded query. The authors are fetched in the same query.
+     * </p>
+     *
+     * @param pathPrefix path of the comment followed by {@code %}
+     * @param afterPath  path of the last reply of the previous page, or of the comment itself
+     *                   for the first page (it sorts before all its replies)
+     * @param pageable   page limit (only the page size is used)
+     * @return list of replies in thread order
+     */
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user " +
+           "WHERE c.path LIKE :pathPrefix AND c.path > :afterPath " +
+           "ORDER BY c.path")
+    List<Comment> findRepliesPage(String pathPrefix, String afterPath, Pageable pageable);
+
+    /**
+     * Atomically changes the reply counts of comments.
+     *
+     * @param ids   the comments to update, typically the ancestors of a new or deleted reply
+     * @param delta number of added (positive) or removed (negative) replies
+     * @return number of updated comments
+     */
+    @Modifying
+    @Query("UPDATE Comment c SET c.replyCount = c.replyCount + :delta WHERE c.id IN :ids")
+    int addReplies(Collection<Long> ids, int delta);
+
+    /**
+     * Removes the parent references within a subtree, so it can be deleted with one statement.
+     *
+     * @param pathPrefix path of the subtree root followed by {@code %}
+     * @return number of updated comments
+     */
+    @Modifying
+    @Query("UPDATE Comment c SET c.parent = NULL WHERE c.path LIKE :pathPrefix")
+    int detachSubtree(String pathPrefix);
+
+    /**
+     * Deletes a comment and all replies below it.
+     *
+     * @param pathPrefix path of the subtree root followed by {@code %}
+     * @return number of deleted comments
+     */
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.path LIKE :pathPrefix")
+    int deleteSubtree(String pathPrefix);
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.cb.backend.repository;
+
+import com.cb.backend.model.EntityChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for <b>EntityChange</b> entities (the entity change log).
+ *
+ * <p>
+ * Spring will automatically implement this interface at runtime.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Repository
+public interface EntityChangeRepository extends JpaRepository<EntityChange, Long> {
+    /**
+     * Loads the records written after a given one, oldest first.
+     *
+     * @param id identifier of the last processed record
+     * @param pageable maximum number of records to load
+     * @return the following records
+     */
+    List<EntityChange> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Returns the identifier of the newest record.
+     *
+     * @return the highest identifier, or 0 if the log is empty
+     */
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM EntityChange c")
+    Long findMaxId();
+
+    /**
+     * Deletes records older than the given time.
+     *
+     * @param createdAt records written before this time are deleted
+     * @return number of deleted records
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EntityChange c WHERE c.createdAt < :createdAt")
+    int deleteByCreatedAtBefore(LocalDateTime createdAt);
+}
@@ -3,8 +3,12 @@ package com.cb.backend.repository;
 import com.cb.backend.model.Ingredient;
 import com.cb.backend.model.RecipeIngredientKey;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Repository interface for <b>Ingredient</b> entities.
  *
@@ -23,4 +27,27 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface IngredientRepository extends JpaRepository<Ingredient, RecipeIngredientKey> {
-}
\ No newline at end of file
+    /**
+     * Loads the ingredients of several recipes at once, together with their products.
+     *
+     * <p>
+     * Used to fill the ingredient lists of a whole page of recipes with a single
+     * {@code IN (...)} query instead of one query per recipe. The ingredients are ordered
+     * by recipe and then by product ID, so every recipe lists them in a stable order.
+     * </p>
+     *
+     * @param recipeIds identifiers of the recipes
+     * @return list of ingredients of all given recipes, ordered by recipe and product ID
+     */
+    @Query("SELECT i FROM Ingredient i JOIN FETCH i.product WHERE i.id.recipeId IN :recipeIds"
+            + " ORDER BY i.id.recipeId, i.id.productId")
+    List<Ingredient> findAllWithProductByRecipeIdIn(Collection<Long> recipeIds);
+
+    /**
+     * Counts the ingredients of a recipe.
+     *
+     * @param recipeId identifier of the recipe
+     * @return number of ingredients stored for the recipe
+     */
+    long countByIdRecipeId(Long recipeId);
+}
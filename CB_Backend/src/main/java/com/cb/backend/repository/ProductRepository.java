@@ -1,9 +1,12 @@
 package com.cb.backend.repository;
 
 import com.cb.backend.model.Product;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -30,4 +33,13 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @return an {@link Optional} containing the product if found, or empty otherwise
      */
     Optional<Product> findByNameIgnoreCase(String name);
+
+    /**
+     * Finds all products whose lower-cased name is in the given collection.
+     *
+     * @param lowerCaseNames product names, already trimmed and lower-cased
+     * @return list of matching products
+     */
+    @Query("SELECT p FROM Product p WHERE LOWER(p.name) IN :lowerCaseNames")
+    List<Product> findAllByLowerCaseNameIn(Collection<String> lowerCaseNames);
 }
\ No newline at end of file
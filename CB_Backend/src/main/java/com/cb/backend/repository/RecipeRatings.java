@@ -0,0 +1,29 @@
+package com.cb.backend.repository;
+
+/**
+ * Read-only projection of the rating aggregates of a <b>Recipe</b>.
+ *
+ * <p>
+ * Selects only the aggregate columns maintained by {@link RecipeRepository#addRating},
+ * so the rating summary of a recipe is read from one row without loading the recipe
+ * or any of its ratings.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+public interface RecipeRatings {
+    Integer getRatingCount();
+
+    Long getRatingSum();
+
+    Integer getRating1();
+
+    Integer getRating2();
+
+    Integer getRating3();
+
+    Integer getRating4();
+
+    Integer getRating5();
+}
@@ -1,10 +1,15 @@
 package com.cb.backend.repository;
 
+import com.cb.backend.model.ContentStatus;
 import com.cb.backend.model.Recipe;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,4 +38,154 @@ public interface RecipeRepository extends JpaRepository<Recipe, Long> {
            
            @Query("SELECT r FROM Recipe r LEFT JOIN FETCH r.categories LEFT JOIN FETCH r.user WHERE r.status = :status")
            List<Recipe> findAllByStatus(com.cb.backend.model.ContentStatus status);
+
+    /**
+     * Returns the IDs of one keyset page of recipes, newest first.
+     *
+     * <p>
+     * Rows are ordered by {@code createdAt} and {@code id} descending. When a cursor is
+     * given, only rows strictly after the cursor position are returned, so the database
+     * can seek on the ordering instead of skipping over previous pages.
+     * </p>
+     *
+     * @param status          the status to filter by, or {@code null} for all statuses
+     * @param cursorCreatedAt creation time of the last row of the previous page, or {@code null} for the first page
+     * @param cursorId        ID of the last row of the previous page, or {@code null} for the first page
+     * @param pageable        page limit (only the page size is used)
+     * @return list of recipe IDs in listing order
+     */
+    @Query("SELECT r.id FROM Recipe r " +
+           "WHERE (:status IS NULL OR r.status = :status) " +
+           "AND (:cursorCreatedAt IS NULL OR r.createdAt < :cursorCreatedAt " +
+           "     OR (r.createdAt = :cursorCreatedAt AND r.id < :cursorId)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Long> findPageIds(ContentStatus status, LocalDateTime cursorCreatedAt, Long cursorId, Pageable pageable);
+
+    /**
+     * Loads recipes by IDs together with their categories and author.
+     *
+     * @param ids the recipe IDs to load
+     * @return list of recipes in no particular order
+     */
+    @Query("SELECT DISTINCT r FROM Recipe r LEFT JOIN FETCH r.categories LEFT JOIN FETCH r.user WHERE r.id IN :ids")
+    List<Recipe> findAllWithCategoriesByIdIn(Collection<Long> ids);
+
+    /**
+     * Returns one keyset page of recipe summaries, newest first.
+     *
+     * <p>
+     * Selects only the columns of {@link RecipeSummary}, so neither the recipe text
+     * nor the ingredient collection is read.
+     * </p>
+     *
+     * @param status          the status to filter by, or {@code null} for all statuses
+     * @param categoryId      the category to filter by, or {@code null} for all categories
+     * @param cursorCreatedAt creation time of the last row of the previous page, or {@code null} for the first page
+     * @param cursorId        ID of the last row of the previous page, or {@code null} for the first page
+     * @param pageable        page limit (only the page size is used)
+     * @return list of recipe summaries in listing order
+     */
+    @Query("SELECT r.id AS id, r.title AS title, r.description AS description, r.photoUrl AS photoUrl, " +
+           "r.cookingTime AS cookingTime, r.prepTime AS prepTime, r.cookTime AS cookTime, " +
+           "r.status AS status, r.ratingCount AS ratingCount, r.ratingSum AS ratingSum, " +
+           "r.createdAt AS createdAt, u.id AS userId, u.username AS username " +
+           "FROM Recipe r JOIN r.user u " +
+           "WHERE (:status IS NULL OR r.status = :status) " +
+           "AND (:categoryId IS NULL OR EXISTS (SELECT c.id FROM r.categories c WHERE c.id = :categoryId)) " +
+           "AND (:cursorCreatedAt IS NULL OR r.createdAt < :cursorCreatedAt " +
+           "     OR (r.createdAt = :cursorCreatedAt AND r.id < :cursorId)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<RecipeSummary> findSummaryPage(
+            ContentStatus status,
+            Long categoryId,
+            LocalDateTime cursorCreatedAt,
+            Long cursorId,
+            Pageable pageable);
+
+    /**
+     * Atomically adds or removes one rating in the rating aggregates of a recipe.
+     *
+     * <p>
+     * Runs as a single {@code UPDATE}, so concurrent ratings of the same recipe are all
+     * counted. The recipe's {@code version} is not changed.
+     * </p>
+     *
+     * @param recipeId the rated recipe
+     * @param value    the rating value (1 to 5)
+     * @param delta    {@code 1} to add the rating, {@code -1} to remove it
+     * @return number of updated recipes (0 if the recipe does not exist)
+     */
+    @Modifying
+    @Query("UPDATE Recipe r SET r.ratingCount = r.ratingCount + :delta, " +
+           "r.ratingSum = r.ratingSum + :delta * :value, " +
+           "r.rating1 = r.rating1 + CASE WHEN :value = 1 THEN :delta ELSE 0 END, " +
+           "r.rating2 = r.rating2 + CASE WHEN :value = 2 THEN :delta ELSE 0 END, " +
+           "r.rating3 = r.rating3 + CASE WHEN :value = 3 THEN :delta ELSE 0 END, " +
+           "r.rating4 = r.rating4 + CASE WHEN :value = 4 THEN :delta ELSE 0 END, " +
+           "r.rating5 = r.rating5 + CASE WHEN :value = 5 THEN :delta ELSE 0 END " +
+           "WHERE r.id = :recipeId")
+    int addRating(Long recipeId, int value, int delta);
+
+    /**
+     * Atomically replaces one rating value by another in the rating aggregates of a recipe.
+     *
+     * <p>
+     * Same as removing {@code oldValue} and adding {@code newValue} with
+     * {@link #addRating}, but in one {@code UPDATE}; the count does not change.
+     * </p>
+     *
+     * @param recipeId the rated recipe
+     * @param oldValue the previous rating value (1 to 5, or 0 for a rating without value)
+     * @param newValue the new rating value (1 to 5)
+     * @return number of updated recipes (0 if the recipe does not exist)
+     */
+    @Modifying
+    @Query("UPDATE Recipe r SET r.ratingSum = r.ratingSum + :newValue - :oldValue, " +
+           "r.rating1 = r.rating1 + CASE WHEN :newValue = 1 THEN 1 ELSE 0 END - CASE WHEN :oldValue = 1 THEN 1 ELSE 0 END, " +
+           "r.rating2 = r.rating2 + CASE WHEN :newValue = 2 THEN 1 ELSE 0 END - CASE WHEN :oldValue = 2 THEN 1 ELSE 0 END, " +
+           "r.rating3 = r.rating3 + CASE WHEN :newValue = 3 THEN 1 ELSE 0 END - CASE WHEN :oldValue = 3 THEN 1 ELSE 0 END, " +
+           "r.rating4 = r.rating4 + CASE WHEN :newValue = 4 THEN 1 ELSE 0 END - CASE WHEN :oldValue = 4 THEN 1 ELSE 0 END, " +
+           "r.rating5 = r.rating5 + CASE WHEN :newValue = 5 THEN 1 ELSE 0 END - CASE WHEN :oldValue = 5 THEN 1 ELSE 0 END " +
+           "WHERE r.id = :recipeId")
+    int replaceRating(Long recipeId, int oldValue, int newValue);
+
+    /**
+     * Finds recipes whose rating aggregates differ from their ratings.
+     *
+     * @return IDs of the recipes to reconcile
+     */
+    @Query("SELECT r.id FROM Recipe r " +
+           "WHERE r.ratingCount <> (SELECT COUNT(x) FROM Rating x WHERE x.recipe = r) " +
+           "OR r.ratingSum <> (SELECT COALESCE(SUM(x.rating), 0) FROM Rating x WHERE x.recipe = r) " +
+           "OR r.rating1 <> (SELECT COUNT(x) FROM Rating x WHERE x.recipe = r AND x.rating = 1) " +
+           "OR r.rating2 <> (SELECT COUNT(x) FROM Rating x WHERE x.recipe = r AND x.rating = 2) " +
+           "OR r.rating3 <> (SELECT COUNT(x) FROM Rating x WHERE x.recipe = r AND x.rating = 3) " +
+           "OR r.rating4 <> (SELECT COUNT(x) FROM Rating x WHERE x.recipe = r AND x.rating = 4) " +
+           "OR r.rating5 <> (SELECT COUNT(x) FROM Rating x WHERE x.recipe = r AND x.rating = 5)")
+    List<Long> findIdsWithStaleRatingAggregates();
+
+    /**
+     * Recomputes the rating aggregates of recipes from their ratings.
+     *
+     * @param ids the recipes to recompute
+     * @return number of updated recipes
+     */
+    @Modifying
+    @Query("UPDATE Recipe r SET r.ratingCount = (SELECT COUNT(x) FROM Rating x WHERE x.recipe = r), " +
+           "r.ratingSum = (SELECT COALESCE(SUM(x.rating), 0) FROM Rating x WHERE x.recipe = r), " +
+           "r.rating1 = (SELECT COUNT(x) FROM Rating x WHERE x.recipe = r AND x.rating = 1), " +
+           "r.rating2 = (SELECT COUNT(x) FROM Rating x WHERE x.recipe = r AND x.rating = 2), " +
+           "r.rating3 = (SELECT COUNT(x) FROM Rating x WHERE x.recipe = r AND x.rating = 3), " +
+           "r.rating4 = (SELECT COUNT(x) FROM Rating x WHERE x.recipe = r AND x.rating = 4), " +
+           "r.rating5 = (SELECT COUNT(x) FROM Rating x WHERE x.recipe = r AND x.rating = 5) " +
+           "WHERE r.id IN :ids")
+    int recomputeRatingAggregates(Collection<Long> ids);
+
+    /**
+     * Reads the rating aggregates of a recipe.
+     *
+     * @param id the recipe ID
+     * @return the aggregates, or empty if the recipe does not exist
+     */
+    Optional<RecipeRatings> findRatingsById(Long id);
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.cb.backend.repository;
+
+import com.cb.backend.model.ContentStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a <b>Recipe</b> used for list views.
+ *
+ * <p>
+ * Contains only the columns shown on recipe cards. The recipe text ({@code @Lob}),
+ * ingredients and categories are not part of the projection, so queries returning
+ * it never read the CLOB column or the ingredient table.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+public interface RecipeSummary {
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getPhotoUrl();
+
+    Integer getCookingTime();
+
+    Integer getPrepTime();
+
+    Integer getCookTime();
+
+    ContentStatus getStatus();
+
+    Integer getRatingCount();
+
+    Long getRatingSum();
+
+    LocalDateTime getCreatedAt();
+
+    Long getUserId();
+
+    String getUsername();
+}
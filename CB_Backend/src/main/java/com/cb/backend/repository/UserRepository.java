@@ -2,6 +2,7 @@ package com.cb.backend.repository;
 
 import com.cb.backend.model.User;
 import java.util.Collection;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -30,4 +31,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return a collection of users matching the search criteria
      */
 	Collection<User> findByUsernameContainingIgnoreCase(String username);
+
+    /**
+     * Finds a user by username, ignoring case.
+     *
+     * <p>
+     * Generates {@code WHERE UPPER(username) = UPPER(?)}, which is served by the
+     * {@code UX_USERS_USERNAME_UPPER} function-based index
+     * (see {@code migration_username_upper_index.sql}).
+     * </p>
+     *
+     * @param username the username to look up
+     * @return the matching user, if any
+     */
+    Optional<User> findByUsernameIgnoreCase(String username);
 }
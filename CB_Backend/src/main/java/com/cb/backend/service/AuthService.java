@@ -1,15 +1,17 @@
 package com.cb.backend.service;
 
+import com.cb.backend.TooManyRequestsException;
 import com.cb.backend.dto.LoginRequest;
 import com.cb.backend.dto.LoginResponse;
 import com.cb.backend.dto.UserDto;
 import com.cb.backend.mapper.UserMapper;
 import com.cb.backend.model.User;
 import com.cb.backend.repository.UserRepository;
-import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Service class responsible for authentication-related operations.
@@ -24,7 +26,11 @@ import java.util.Optional;
  *
  * <p>
  * This service uses {@link UserRepository} to access user data
- * and {@link BCrypt} for secure password verification.
+ * and {@link PasswordVerifier} for BCrypt password verification on a dedicated
+ * bounded thread pool; {@link #login} returns a future, so the request thread does not
+ * wait for the hashing. Login attempts are throttled by {@link LoginRateLimiter}.
+ * After a successful login, a password hash with an outdated cost factor is
+ * replaced according to {@link PasswordHashingPolicy}.
  * </p>
  *
  * <p>
@@ -38,9 +44,19 @@ import java.util.Optional;
 @Service
 public class AuthService {
     private final UserRepository userRepository;
+    private final PasswordVerifier passwordVerifier;
+    private final LoginRateLimiter rateLimiter;
+    private final PasswordHashingPolicy hashingPolicy;
 
-    public AuthService(UserRepository userRepository) {
+    public AuthService(
+            UserRepository userRepository,
+            PasswordVerifier passwordVerifier,
+            LoginRateLimiter rateLimiter,
+            PasswordHashingPolicy hashingPolicy) {
         this.userRepository = userRepository;
+        this.passwordVerifier = passwordVerifier;
+        this.rateLimiter = rateLimiter;
+        this.hashingPolicy = hashingPolicy;
     }
 
     /**
@@ -51,6 +67,7 @@ public class AuthService {
      * <ul>
      *     <li>Username must not be {@code null} or empty</li>
      *     <li>Password must not be {@code null} or empty</li>
+     *     <li>Failed attempt limits for the username and client address must not be reached</li>
      *     <li>User must exist</li>
      *     <li>Password hash must be present</li>
      *     <li>Provided password must match stored BCrypt hash</li>
@@ -60,55 +77,134 @@ public class AuthService {
      * <p>
      * In case of validation or authentication failure,
      * a {@link LoginResponse} with {@code success = false}
-     * and an appropriate message is returned.
+     * and an appropriate message is returned, and the failure is counted by
+     * {@link LoginRateLimiter}. The attempt is admitted and counted before the user is
+     * looked up; a successful login takes it back.
      * </p>
      *
      * @param request login request containing username and password
-     * @return {@link LoginResponse} describing the authentication result
+     * @param clientAddress IP address of the client, used for throttling
+     * @return future of the {@link LoginResponse} describing the authentication result; it
+     *         fails with {@link TooManyRequestsException} if the attempt is throttled or the
+     *         verification pool is saturated
      */
-    public LoginResponse login(LoginRequest request) {
+    public CompletableFuture<LoginResponse> login(LoginRequest request, String clientAddress) {
         try {
             if (request.getUsername() == null || request.getUsername().trim().isEmpty()) {
-                return new LoginResponse(false, "Имя пользователя обязательно", null);
+                return CompletableFuture.completedFuture(new LoginResponse(false, "Имя пользователя обязательно", null));
             }
 
             if (request.getPassword() == null || request.getPassword().isEmpty()) {
-                return new LoginResponse(false, "Пароль обязателен", null);
+                return CompletableFuture.completedFuture(new LoginResponse(false, "Пароль обязателен", null));
             }
 
-            Optional<User> userOpt = userRepository.findAll().stream()
-                    .filter(u -> u.getUsername() != null && u.getUsername().equalsIgnoreCase(request.getUsername()))
-                    .findFirst();
-
-            if (userOpt.isEmpty()) {
-                return new LoginResponse(false, "Неверное имя пользователя или пароль", null);
-            }
+            rateLimiter.acquire(request.getUsername(), clientAddress);
+            return authenticate(request)
+                    .thenApply(response -> {
+                        if (response.isSuccess()) {
+                            rateLimiter.recordSuccess(request.getUsername(), clientAddress);
+                        }
+                        return response;
+                    })
+                    .exceptionally(ex -> {
+                        Throwable cause = unwrap(ex);
+                        if (cause instanceof TooManyRequestsException tooManyRequests) {
+                            // Пароль не проверялся, попытка не считается неудачной
+                            rateLimiter.release(request.getUsername(), clientAddress);
+                            throw tooManyRequests;
+                        }
+                        cause.printStackTrace();
+                        return new LoginResponse(false, "Ошибка сервера: " + cause.getMessage(), null);
+                    });
+        } catch (TooManyRequestsException e) {
+            return CompletableFuture.failedFuture(e);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return CompletableFuture.completedFuture(new LoginResponse(false, "Ошибка сервера: " + e.getMessage(), null));
+        }
+    }
 
-            User user = userOpt.get();
+    /**
+     * Checks the credentials of a login request.
+     *
+     * <p>
+     * The user is looked up on the calling thread; the password is checked, and an
+     * outdated hash replaced, on the verification pool.
+     * </p>
+     *
+     * @param request login request with non-empty username and password
+     * @return future of the {@link LoginResponse} describing the authentication result
+     */
+    private CompletableFuture<LoginResponse> authenticate(LoginRequest request) {
+        // Поиск по индексу UPPER(username) вместо загрузки всех пользователей
+        Optional<User> userOpt = userRepository.findByUsernameIgnoreCase(request.getUsername());
 
-            // Проверка пароля
-            if (user.getPasswordHash() == null || user.getPasswordHash().isEmpty()) {
-                return new LoginResponse(false, "Пароль не установлен для этого пользователя", null);
-            }
+        if (userOpt.isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    new LoginResponse(false, "Неверное имя пользователя или пароль", null));
+        }
 
-            try {
-                boolean passwordMatches = BCrypt.checkpw(request.getPassword(), user.getPasswordHash());
-                if (!passwordMatches) {
-                    return new LoginResponse(false, "Неверное имя пользователя или пароль", null);
-                }
-            } catch (IllegalArgumentException e) {
-                // Если hash неправильного формата
-                return new LoginResponse(false, "Ошибка проверки пароля", null);
-            }
+        User user = userOpt.get();
 
-            UserDto userDto = UserMapper.toDto(user);
-            return new LoginResponse(true, "Успешный вход", userDto);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return new LoginResponse(false, "Ошибка сервера: " + e.getMessage(), null);
+        // Проверка пароля
+        if (user.getPasswordHash() == null || user.getPasswordHash().isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    new LoginResponse(false, "Пароль не установлен для этого пользователя", null));
         }
+
+        UserDto userDto = UserMapper.toDto(user);
+        return passwordVerifier.matches(request.getPassword(), user.getPasswordHash())
+                .thenCompose(passwordMatches -> {
+                    if (!passwordMatches) {
+                        return CompletableFuture.completedFuture(
+                                new LoginResponse(false, "Неверное имя пользователя или пароль", null));
+                    }
+                    return rehashIfNeeded(user, request.getPassword())
+                            .thenApply(ignored -> new LoginResponse(true, "Успешный вход", userDto));
+                })
+                .exceptionally(ex -> {
+                    // Если hash неправильного формата
+                    if (unwrap(ex) instanceof IllegalArgumentException) {
+                        return new LoginResponse(false, "Ошибка проверки пароля", null);
+                    }
+                    throw ex instanceof CompletionException completion ? completion : new CompletionException(ex);
+                });
     }
     
+    /**
+     * Replaces the password hash of a user if it was created with a different cost factor.
+     *
+     * <p>
+     * Called only after the password has been verified. If the verification pool is
+     * saturated, the upgrade is skipped and retried on the next login.
+     * </p>
+     *
+     * @param user the authenticated user
+     * @param password the verified plain text password
+     * @return future that completes when the new hash is saved or the upgrade is skipped
+     */
+    private CompletableFuture<Void> rehashIfNeeded(User user, String password) {
+        if (!hashingPolicy.needsRehash(user.getPasswordHash())) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return passwordVerifier.hash(password)
+                .thenAccept(hash -> {
+                    user.setPasswordHash(hash);
+                    user.setPasswordSalt(hashingPolicy.saltOf(hash));
+                    userRepository.save(user);
+                })
+                .exceptionally(ex -> {
+                    if (unwrap(ex) instanceof TooManyRequestsException) {
+                        return null; // Обновим хеш при следующем входе
+                    }
+                    throw ex instanceof CompletionException completion ? completion : new CompletionException(ex);
+                });
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
     /**
      * Retrieves the currently authenticated user by ID.
      *
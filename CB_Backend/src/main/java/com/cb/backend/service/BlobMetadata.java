@@ -0,0 +1,23 @@
+package com.cb.backend.service;
+
+import java.time.Instant;
+
+/**
+ * Size and modification time of a file in a {@link BlobStore}.
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+public final class BlobMetadata {
+    private final long size;
+    private final Instant lastModified;
+
+    public BlobMetadata(long size, Instant lastModified) {
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    public long getSize() { return size; }
+
+    public Instant getLastModified() { return lastModified; }
+}
@@ -0,0 +1,103 @@
+package com.cb.backend.service;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@link org.springframework.core.io.Resource} streaming a file from a {@link BlobStore}.
+ *
+ * <p>
+ * Size and modification time come from the {@link BlobMetadata} already read for the
+ * response headers, so they are not requested again. The stream is opened lazily:
+ * bytes skipped before the first read (as Spring does for {@code Range} requests) only move
+ * the start offset, so a ranged response reads just the requested part of the file.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+public class BlobResource extends AbstractResource {
+    private final BlobStore blobStore;
+    private final String key;
+    private final BlobMetadata metadata;
+
+    public BlobResource(BlobStore blobStore, String key, BlobMetadata metadata) {
+        this.blobStore = blobStore;
+        this.key = key;
+        this.metadata = metadata;
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long contentLength() {
+        return metadata.getSize();
+    }
+
+    @Override
+    public long lastModified() {
+        return metadata.getLastModified().toEpochMilli();
+    }
+
+    @Override
+    public String getFilename() {
+        return key.substring(key.lastIndexOf('/') + 1);
+    }
+
+    @Override
+    public String getDescription() {
+        return "Blob [" + key + "]";
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new LazyInputStream();
+    }
+
+    /**
+     * Opens the blob on the first read, at the offset accumulated by preceding skips.
+     */
+    private final class LazyInputStream extends InputStream {
+        private long offset;
+        private InputStream delegate;
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (delegate != null) {
+                return delegate.skip(n);
+            }
+            long skipped = Math.max(0, Math.min(n, metadata.getSize() - offset));
+            offset += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return delegate().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return delegate().read(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate != null) {
+                delegate.close();
+            }
+        }
+
+        private InputStream delegate() {
+            if (delegate == null) {
+                delegate = offset < metadata.getSize() ? blobStore.open(key, offset) : InputStream.nullInputStream();
+            }
+            return delegate;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.cb.backend.service;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage backend for uploaded files.
+ *
+ * <p>
+ * Files are addressed by keys relative to the storage root, with {@code /} as separator
+ * (e.g. {@code recipes/<uuid>-photo.jpg}). Keys with a segment starting with {@code .}
+ * are internal (reference counts, migration log) and are never listed.
+ * Implementations: {@link LocalBlobStore} (filesystem, default) and {@link S3BlobStore}
+ * (S3-compatible object storage shared by all API nodes), selected with {@code file.store}.
+ * </p>
+ *
+ * <p>
+ * All methods throw {@link RuntimeException} on I/O errors.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+public interface BlobStore {
+    /**
+     * Stores content under a key, replacing any existing content. The content is
+     * streamed, it is never fully buffered in memory.
+     *
+     * @param key the key to store the content under
+     * @param content the content, read until the end (not closed)
+     */
+    void put(String key, InputStream content);
+
+    /**
+     * Returns the size and modification time of a stored file.
+     *
+     * @param key the key of the file
+     * @return the metadata, or empty if no file is stored under the key
+     */
+    Optional<BlobMetadata> stat(String key);
+
+    /**
+     * Opens a stored file for reading, starting at the given byte offset.
+     *
+     * @param key the key of the file
+     * @param offset the position of the first byte to read
+     * @return stream of the content from {@code offset} to the end, to be closed by the caller
+     */
+    InputStream open(String key, long offset);
+
+    /**
+     * Deletes a stored file; does nothing if it does not exist.
+     *
+     * @param key the key of the file
+     */
+    void delete(String key);
+
+    /**
+     * Lists the keys of all stored files starting with a prefix, skipping internal keys.
+     *
+     * @param prefix the key prefix, empty for all files
+     * @return matching keys in lexicographic order
+     */
+    List<String> list(String prefix);
+
+    /**
+     * Opens a stored file for reading from the beginning.
+     *
+     * @param key the key of the file
+     * @return stream of the content, to be closed by the caller
+     */
+    default InputStream open(String key) {
+        return open(key, 0);
+    }
+
+    /**
+     * Checks whether a file is stored under a key.
+     *
+     * @param key the key of the file
+     * @return {@code true} if the file exists
+     */
+    default boolean exists(String key) {
+        return stat(key).isPresent();
+    }
+
+    /**
+     * Checks whether a key refers to internal data (any segment starts with {@code .}).
+     *
+     * @param key the key to check
+     * @return {@code true} for internal keys
+     */
+    static boolean isInternal(String key) {
+        return key.startsWith(".") || key.contains("/.");
+    }
+}
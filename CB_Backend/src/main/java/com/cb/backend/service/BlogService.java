@@ -1,12 +1,16 @@
 package com.cb.backend.service;
 
+import com.cb.backend.CacheConfig;
 import com.cb.backend.dto.BlogDto;
 import com.cb.backend.mapper.BlogMapper;
 import com.cb.backend.model.Blog;
+import com.cb.backend.model.EntityType;
 import com.cb.backend.model.User;
 import com.cb.backend.repository.BlogRepository;
 import com.cb.backend.repository.UserRepository;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,6 +25,8 @@ import java.util.stream.Collectors;
  *
  * <p>
  * Handles association with {@link User} for creating and updating blog posts.
+ * Blogs by ID are cached in {@value CacheConfig#BLOGS}; writes are published
+ * with {@link EntityChangePublisher}.
  * </p>
  * 
  * @author Dmytro Babich
@@ -30,10 +36,12 @@ import java.util.stream.Collectors;
 public class BlogService implements CrudService<BlogDto, Long> {
     private final BlogRepository blogRepo;
     private final UserRepository userRepo;
+    private final EntityChangePublisher changePublisher;
     
-    public BlogService(BlogRepository blogRepo, UserRepository userRepo) {
+    public BlogService(BlogRepository blogRepo, UserRepository userRepo, EntityChangePublisher changePublisher) {
         this.blogRepo = blogRepo;
         this.userRepo = userRepo;
+        this.changePublisher = changePublisher;
     }
     
     /**
@@ -71,6 +79,7 @@ public class BlogService implements CrudService<BlogDto, Long> {
      * @return {@link BlogDto} of the found blog, or {@code null} if not found
      */
     @Override
+    @Cacheable(cacheNames = CacheConfig.BLOGS, key = "#id", unless = "#result == null")
     public BlogDto findById(Long id) {
         return blogRepo.findById(id)
                 .map(BlogMapper::toDto)
@@ -104,7 +113,9 @@ public class BlogService implements CrudService<BlogDto, Long> {
 		
         Blog blog = new Blog();
         BlogMapper.updateEntity(blog, dto, user);
-        return BlogMapper.toDto(blogRepo.save(blog));
+        BlogDto created = BlogMapper.toDto(blogRepo.save(blog));
+        changePublisher.publish(EntityType.BLOG, created.getId());
+        return created;
     }
 
     /**
@@ -119,16 +130,22 @@ public class BlogService implements CrudService<BlogDto, Long> {
      * @param dto the {@link BlogDto} containing updated blog data
      * @return {@link BlogDto} of the updated blog
      * @throws RuntimeException if the blog or associated user is not found
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the {@code version} of the DTO is outdated
      */
     @Override
+    @Transactional
     public BlogDto update(Long id, BlogDto dto) {
         User user = userRepo.findById(dto.getUserDto().getId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         Blog blog = blogRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Blog not found"));
+        VersionCheck.check(Blog.class, id, dto.getVersion(), blog.getVersion());
         BlogMapper.updateEntity(blog, dto, user);
-        return BlogMapper.toDto(blogRepo.save(blog));
+        // Flush, so the returned DTO carries the new version
+        BlogDto updated = BlogMapper.toDto(blogRepo.saveAndFlush(blog));
+        changePublisher.publish(EntityType.BLOG, id);
+        return updated;
     }
 
     /**
@@ -139,5 +156,6 @@ public class BlogService implements CrudService<BlogDto, Long> {
     @Override
     public void deleteById(Long id) {
         blogRepo.deleteById(id);
+        changePublisher.publish(EntityType.BLOG, id);
     }
 }
\ No newline at end of file
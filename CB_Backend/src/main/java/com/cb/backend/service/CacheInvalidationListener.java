@@ -0,0 +1,64 @@
+package com.cb.backend.service;
+
+import com.cb.backend.CacheConfig;
+import com.cb.backend.model.EntityType;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached DTOs when the entities they were built from change.
+ *
+ * <p>
+ * A changed recipe, category or blog is evicted by ID. Recipes embed the names of
+ * their categories, products and author, and blogs the author, so changes of those
+ * clear the whole dependent cache; they are rare compared to reads. This includes
+ * creating a user or a product, which has to be published anyway so the entity tags of
+ * the user and product lists change (see {@link EntityVersionRegistry}).
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Component
+public class CacheInvalidationListener implements EntityChangeListener {
+    private final CacheManager cacheManager;
+
+    public CacheInvalidationListener(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void onEntityChange(EntityType type, Long id) {
+        switch (type) {
+            case RECIPE -> evict(CacheConfig.RECIPES, id);
+            case CATEGORY -> {
+                evict(CacheConfig.CATEGORIES, id);
+                clear(CacheConfig.RECIPES);
+            }
+            case BLOG -> evict(CacheConfig.BLOGS, id);
+            case PRODUCT -> clear(CacheConfig.RECIPES);
+            case USER -> {
+                clear(CacheConfig.RECIPES);
+                clear(CacheConfig.BLOGS);
+            }
+            default -> {
+                // Комментарии и оценки не кэшируются
+            }
+        }
+    }
+
+    private void evict(String cacheName, Long id) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(id);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
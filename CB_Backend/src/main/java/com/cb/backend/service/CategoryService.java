@@ -1,10 +1,14 @@
 package com.cb.backend.service;
 
+import com.cb.backend.CacheConfig;
 import com.cb.backend.dto.CategoryDto;
 import com.cb.backend.mapper.CategoryMapper;
 import com.cb.backend.model.Category;
+import com.cb.backend.model.EntityType;
 import com.cb.backend.repository.CategoryRepository;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -15,6 +19,8 @@ import java.util.stream.Collectors;
  * <p>
  * Provides CRUD operations for {@link Category} entities, converting between
  * {@link Category} and {@link CategoryDto} using {@link CategoryMapper}.
+ * Categories by ID are cached in {@value CacheConfig#CATEGORIES}; writes are published
+ * with {@link EntityChangePublisher}.
  * </p>
  *
  * @author Dmytro Babich
@@ -23,9 +29,11 @@ import java.util.stream.Collectors;
 @Service
 public class CategoryService implements CrudService<CategoryDto, Long> {
     private final CategoryRepository categoryRepo;
+    private final EntityChangePublisher changePublisher;
 
-    public CategoryService(CategoryRepository categoryRepo) {
+    public CategoryService(CategoryRepository categoryRepo, EntityChangePublisher changePublisher) {
         this.categoryRepo = categoryRepo;
+        this.changePublisher = changePublisher;
     }
 
     /**
@@ -47,6 +55,7 @@ public class CategoryService implements CrudService<CategoryDto, Long> {
 	 * @return {@link CategoryDto} of the found category, or {@code null} if not found
 	 */
 	@Override
+	@Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "#id", unless = "#result == null")
 	public CategoryDto findById(Long id) {
 		return categoryRepo.findById(id)
 				.map(CategoryMapper::toDto)
@@ -63,7 +72,9 @@ public class CategoryService implements CrudService<CategoryDto, Long> {
 	public CategoryDto create(CategoryDto dto) {
 		Category category = new Category();
 		CategoryMapper.updateEntity(category, dto);
-		return CategoryMapper.toDto(categoryRepo.save(category));
+		CategoryDto created = CategoryMapper.toDto(categoryRepo.save(category));
+		changePublisher.publish(EntityType.CATEGORY, created.getId());
+		return created;
 	}
 
 	/**
@@ -73,13 +84,18 @@ public class CategoryService implements CrudService<CategoryDto, Long> {
 	 * @param dto the {@link CategoryDto} containing updated data
 	 * @return {@link CategoryDto} of the updated category
 	 * @throws RuntimeException if the category is not found
+	 * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the {@code version} of the DTO is outdated
 	 */
 	@Override
+	@Transactional
 	public CategoryDto update(Long id, CategoryDto dto) {
 		Category category = categoryRepo.findById(id)
 				.orElseThrow(() -> new RuntimeException("Category not found"));
+		VersionCheck.check(Category.class, id, dto.getVersion(), category.getVersion());
 		CategoryMapper.updateEntity(category, dto);
-	    return CategoryMapper.toDto(categoryRepo.save(category));
+		CategoryDto updated = CategoryMapper.toDto(categoryRepo.saveAndFlush(category));
+		changePublisher.publish(EntityType.CATEGORY, id);
+	    return updated;
 	}
 
 
@@ -91,5 +107,6 @@ public class CategoryService implements CrudService<CategoryDto, Long> {
 	@Override
 	public void deleteById(Long id) {
 		categoryRepo.deleteById(id);
+		changePublisher.publish(EntityType.CATEGORY, id);
 	}
 }
\ No newline at end of file
@@ -1,15 +1,21 @@
 package com.cb.backend.service;
 
+import com.cb.backend.RecipeProperties;
 import com.cb.backend.dto.CommentDto;
+import com.cb.backend.dto.CursorPageDto;
 import com.cb.backend.mapper.CommentMapper;
 import com.cb.backend.model.Comment;
+import com.cb.backend.model.EntityType;
 import com.cb.backend.model.Recipe;
 import com.cb.backend.model.User;
 import com.cb.backend.repository.CommentRepository;
 import com.cb.backend.repository.RecipeRepository;
 import com.cb.backend.repository.UserRepository;
 
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,6 +30,18 @@ import java.util.stream.Collectors;
  * </p>
  *
  * <p>
+ * The comments of one recipe are listed page by page with keyset pagination
+ * (see {@link #findPageByRecipe}), so a recipe page never loads the comments of other recipes.
+ * </p>
+ *
+ * <p>
+ * Comments form threads: a reply has a parent comment and a materialized path of the IDs
+ * from its top-level comment down to itself. Recipe pages list only top-level comments with
+ * the number of replies below them; the replies of a thread are loaded on demand in thread
+ * order with {@link #findReplies}. Deleting a comment deletes its replies.
+ * </p>
+ *
+ * <p>
  * Throws {@link RuntimeException} if referenced user, recipe, or comment is not found.
  * </p>
  * 
@@ -35,11 +53,20 @@ public class CommentService implements CrudService<CommentDto, Long> {
     private final CommentRepository commentRepo;
     private final RecipeRepository recipeRepo;
     private final UserRepository userRepo;
+    private final EntityChangePublisher changePublisher;
+    private final RecipeProperties properties;
     
-    public CommentService(CommentRepository commentRepo, RecipeRepository recipeRepo, UserRepository userRepo) {
+    public CommentService(
+    		CommentRepository commentRepo,
+    		RecipeRepository recipeRepo,
+    		UserRepository userRepo,
+    		EntityChangePublisher changePublisher,
+    		RecipeProperties properties) {
         this.commentRepo = commentRepo;
         this.recipeRepo = recipeRepo;
         this.userRepo = userRepo;
+        this.changePublisher = changePublisher;
+        this.properties = properties;
     }
 
     /**
@@ -68,23 +95,142 @@ public class CommentService implements CrudService<CommentDto, Long> {
 	}
 
 	/**
-	 * Creates a new comment.
+	 * Retrieves one page of the top-level comments of a recipe using keyset pagination, newest first.
+	 *
+	 * <p>
+	 * Replies are not included; each comment carries its {@code replyCount}, and the replies
+	 * of a thread are loaded on demand with {@link #findReplies}.
+	 * </p>
+	 *
+	 * @param recipeId the recipe whose comments are listed
+	 * @param cursor   continuation token from the previous page, or {@code null} for the first page
+	 * @param size     requested page size, clamped to the configured limits
+	 * @return {@link CursorPageDto} with the comments of the page and the next cursor
+	 * @throws EntityNotFoundException if the recipe does not exist
+	 * @throws RuntimeException if the cursor is malformed
+	 */
+	@Transactional(readOnly = true)
+	public CursorPageDto<CommentDto> findPageByRecipe(Long recipeId, String cursor, Integer size) {
+		int pageSize = resolvePageSize(size);
+		KeysetCursor position = KeysetCursor.decode(cursor);
+
+		// Fetch one extra comment to find out whether there is a next page
+		List<Comment> comments = commentRepo.findPageByRecipeId(
+				recipeId,
+				position != null ? position.getCreatedAt() : null,
+				position != null ? position.getId() : null,
+				PageRequest.of(0, pageSize + 1));
+		if (comments.isEmpty() && position == null && !recipeRepo.existsById(recipeId)) {
+			throw new EntityNotFoundException("Recipe not found with id=" + recipeId);
+		}
+		boolean hasMore = comments.size() > pageSize;
+		if (hasMore) {
+			comments = comments.subList(0, pageSize);
+		}
+
+		String nextCursor = null;
+		if (hasMore) {
+			Comment last = comments.get(comments.size() - 1);
+			nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+		}
+		return new CursorPageDto<>(comments.stream().map(CommentMapper::toDto).toList(), nextCursor);
+	}
+
+	/**
+	 * Retrieves one page of the replies below a comment (on all levels) in thread order.
+	 *
+	 * <p>
+	 * Every reply follows its parent and the earlier replies to the same parent, so a
+	 * thread can be rendered page by page. Each page is read with one bounded query.
+	 * </p>
+	 *
+	 * @param id     the comment whose replies are listed
+	 * @param cursor continuation token from the previous page, or {@code null} for the first page
+	 * @param size   requested page size, clamped to the configured limits
+	 * @return {@link CursorPageDto} with the replies of the page and the next cursor
+	 * @throws EntityNotFoundException if the comment does not exist
+	 * @throws RuntimeException if the cursor is malformed
+	 */
+	@Transactional(readOnly = true)
+	public CursorPageDto<CommentDto> findReplies(Long id, String cursor, Integer size) {
+		Comment comment = commentRepo.findById(id)
+				.orElseThrow(() -> new EntityNotFoundException("Comment not found with id=" + id));
+		if (comment.getReplyCount() == 0) {
+			return new CursorPageDto<>(List.of(), null);
+		}
+		String path = comment.getPath();
+		// Курсор - путь последнего ответа предыдущей страницы внутри этой ветки
+		if (cursor != null && !cursor.isBlank()
+				&& (!cursor.startsWith(path) || !cursor.matches("(\\d{" + Comment.PATH_SEGMENT_DIGITS + "}/)+"))) {
+			throw new RuntimeException("Invalid cursor: " + cursor);
+		}
+		int pageSize = resolvePageSize(size);
+
+		List<Comment> replies = commentRepo.findRepliesPage(
+				path + "%",
+				cursor != null && !cursor.isBlank() ? cursor : path,
+				PageRequest.of(0, pageSize + 1));
+		boolean hasMore = replies.size() > pageSize;
+		if (hasMore) {
+			replies = replies.subList(0, pageSize);
+		}
+		String nextCursor = hasMore ? replies.get(replies.size() - 1).getPath() : null;
+		return new CursorPageDto<>(replies.stream().map(CommentMapper::toDto).toList(), nextCursor);
+	}
+
+	/**
+	 * Creates a new comment, or a reply if {@code parentId} is set.
+	 *
+	 * <p>
+	 * Replies are nested up to {@link Comment#MAX_DEPTH} levels; a reply to a comment on the
+	 * deepest level is added to that comment's parent. The reply counts of all ancestors
+	 * are increased with one update.
+	 * </p>
 	 *
 	 * @param dto the {@link CommentDto} containing comment data
 	 * @return {@link CommentDto} of the created comment
-	 * @throws RuntimeException if the associated recipe or user is not found
+	 * @throws RuntimeException if the associated recipe, user or parent comment is not found,
+	 *         or the parent comment belongs to another recipe
 	 */
 	@Override
+	@Transactional
 	public CommentDto create(CommentDto dto) {
 		Recipe recipe = recipeRepo.findById(dto.getRecipeId())
                 .orElseThrow(() -> new RuntimeException("Recipe not found"));
 		
 		User user = userRepo.findById(dto.getUserDto().getId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
+
+		Comment parent = null;
+		if (dto.getParentId() != null) {
+			parent = commentRepo.findById(dto.getParentId())
+					.orElseThrow(() -> new RuntimeException("Parent comment not found"));
+			if (!parent.getRecipe().getId().equals(recipe.getId())) {
+				throw new RuntimeException("Reply must belong to the recipe of its parent comment");
+			}
+			if (parent.getDepth() >= Comment.MAX_DEPTH) {
+				parent = parent.getParent();
+			}
+		}
 		
 		Comment comment = new Comment();
 		CommentMapper.updateEntity(comment, dto, recipe, user);
-        return CommentMapper.toDto(commentRepo.save(comment));
+		comment.setParent(parent);
+		comment.setDepth(parent != null ? parent.getDepth() + 1 : 0);
+		// ID нужен для пути, поэтому путь записывается после вставки
+		commentRepo.saveAndFlush(comment);
+		String parentPath = "";
+		if (parent != null) {
+			// Комментарии без пути (до миграции) могут быть только верхнего уровня
+			parentPath = parent.getPath() != null ? parent.getPath() : Comment.pathSegment(parent.getId());
+		}
+		comment.setPath(parentPath + Comment.pathSegment(comment.getId()));
+		CommentDto created = CommentMapper.toDto(commentRepo.saveAndFlush(comment));
+		if (parent != null) {
+			commentRepo.addReplies(comment.getAncestorIds(), 1);
+		}
+        changePublisher.publish(EntityType.COMMENT, created.getId());
+        return created;
 	}
 
 
@@ -94,9 +240,12 @@ public class CommentService implements CrudService<CommentDto, Long> {
 	 * @param id  the identifier of the comment to update
 	 * @param dto the {@link CommentDto} containing updated comment data
 	 * @return {@link CommentDto} of the updated comment
-	 * @throws RuntimeException if the comment, associated recipe, or user is not found
+	 * @throws RuntimeException if the comment, associated recipe, or user is not found,
+	 *         or a comment of a thread is moved to another recipe
+	 * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the {@code version} of the DTO is outdated
 	 */
 	@Override
+	@Transactional
 	public CommentDto update(Long id, CommentDto dto) {
 		Recipe recipe = recipeRepo.findById(dto.getRecipeId())
                 .orElseThrow(() -> new RuntimeException("Recipe not found"));
@@ -105,18 +254,50 @@ public class CommentService implements CrudService<CommentDto, Long> {
         
 		Comment comment = commentRepo.findById(id)
 				.orElseThrow(() -> new RuntimeException("Comment not found"));
+		VersionCheck.check(Comment.class, id, dto.getVersion(), comment.getVersion());
+		if (!comment.getRecipe().getId().equals(recipe.getId())
+				&& (comment.getParent() != null || comment.getReplyCount() > 0)) {
+			throw new RuntimeException("Comments of a thread cannot be moved to another recipe");
+		}
 		CommentMapper.updateEntity(comment, dto, recipe, user);
-        return CommentMapper.toDto(commentRepo.save(comment));
+        CommentDto updated = CommentMapper.toDto(commentRepo.saveAndFlush(comment));
+        changePublisher.publish(EntityType.COMMENT, id);
+        return updated;
 	}
 
 
 	/**
-	 * Deletes a comment by its ID.
+	 * Deletes a comment by its ID together with all replies below it.
 	 *
 	 * @param id the identifier of the comment to delete
 	 */
 	@Override
+	@Transactional
 	public void deleteById(Long id) {
-		commentRepo.deleteById(id);
+		Comment comment = commentRepo.findById(id).orElse(null);
+		if (comment == null) {
+			return;
+		}
+		if (comment.getPath() == null) {
+			commentRepo.delete(comment);
+		} else {
+			String pathPrefix = comment.getPath() + "%";
+			if (comment.getReplyCount() > 0) {
+				commentRepo.detachSubtree(pathPrefix);
+			}
+			int deleted = commentRepo.deleteSubtree(pathPrefix);
+			List<Long> ancestorIds = comment.getAncestorIds();
+			if (!ancestorIds.isEmpty()) {
+				commentRepo.addReplies(ancestorIds, -deleted);
+			}
+		}
+		changePublisher.publish(EntityType.COMMENT, id);
+	}
+
+	private int resolvePageSize(Integer size) {
+		if (size == null || size <= 0) {
+			return properties.getDefaultPageSize();
+		}
+		return Math.min(size, properties.getMaxPageSize());
 	}
-}
\ No newline at end of file
+}
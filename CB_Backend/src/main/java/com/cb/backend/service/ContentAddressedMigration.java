@@ -0,0 +1,230 @@
+package com.cb.backend.service;
+
+import com.cb.backend.FileStorageProperties;
+import com.cb.backend.model.EntityType;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Moves existing uploads into content-addressed storage.
+ *
+ * <p>
+ * Runs once on startup when {@code file.migrate-to-content-addressed=true}. Every file in
+ * the {@link BlobStore} (except hidden files, image variants and files already under
+ * {@code sha256/}) is stored with {@link FileStorageService#storeContent}, so duplicates
+ * collapse into one file with a reference count. Then {@code photo_url} in
+ * {@code CB_RECIPES}, {@code CB_BLOGS}, {@code CB_CATEGORY} and {@code CB_USERS} is rewritten
+ * to the new paths in one transaction, the changed rows are published through
+ * {@link EntityChangePublisher} (so every node drops cached copies with the old path), and a
+ * background job regenerates the image variants.
+ * </p>
+ *
+ * <p>
+ * Originals are kept unless {@code file.migration-delete-originals=true} (keep them if code
+ * refers to fixed paths, such as the default avatars). Progress is recorded in
+ * {@code .content-addressed-migration.<n>}: a {@code stored} line with the old and new path
+ * right after a file is stored, and a {@code done} line once its paths are rewritten, its job
+ * is submitted and its original is released. A restart with the flag still on does not store
+ * a logged file again, and repeats the remaining (idempotent) steps for files that are stored
+ * but not done. A blob store cannot append to a file, so the log is split into segments of
+ * {@value #LOG_SEGMENT_SIZE} lines: only the last segment is rewritten, which keeps the
+ * written bytes linear in the number of files.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(prefix = "file", name = "migrate-to-content-addressed", havingValue = "true")
+public class ContentAddressedMigration implements ApplicationRunner {
+    private static final Map<String, EntityType> PHOTO_TABLES = Map.of(
+            "CB_RECIPES", EntityType.RECIPE,
+            "CB_BLOGS", EntityType.BLOG,
+            "CB_CATEGORY", EntityType.CATEGORY,
+            "CB_USERS", EntityType.USER);
+    private static final String LOG_FILE = ".content-addressed-migration";
+    private static final int LOG_SEGMENT_SIZE = 1000;
+    private static final String STORED = "stored";
+    private static final String DONE = "done";
+    private static final Pattern VARIANT_NAME = Pattern.compile(".*_w\\d+\\.jpg$");
+
+    private final FileStorageService storageService;
+    private final BlobStore blobStore;
+    private final ImageProcessingQueue processingQueue;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityChangePublisher changePublisher;
+    private final boolean deleteOriginals;
+
+    public ContentAddressedMigration(
+            FileStorageService storageService,
+            BlobStore blobStore,
+            ImageProcessingQueue processingQueue,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            EntityChangePublisher changePublisher,
+            FileStorageProperties properties) {
+        this.storageService = storageService;
+        this.blobStore = blobStore;
+        this.processingQueue = processingQueue;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.changePublisher = changePublisher;
+        this.deleteOriginals = properties.isMigrationDeleteOriginals();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Map<String, String> moved = migrate();
+        System.out.println("Content-addressed migration: " + moved.size() + " files migrated");
+    }
+
+    /**
+     * Migrates all not yet migrated uploads and finishes files stored by an interrupted run.
+     *
+     * @return map of old relative path to new content-addressed path of the finished files
+     * @throws RuntimeException if the storage cannot be read or a file cannot be stored
+     */
+    public Map<String, String> migrate() {
+        MigrationLog log = new MigrationLog();
+        // Сохраненные, но еще не завершенные файлы (в том числе из прерванного запуска)
+        Map<String, String> pending = new LinkedHashMap<>(log.stored);
+        pending.keySet().removeAll(log.done);
+
+        for (String oldPath : listOriginals()) {
+            if (log.stored.containsKey(oldPath)) {
+                continue;
+            }
+            String newPath;
+            try (InputStream in = blobStore.open(oldPath)) {
+                newPath = storageService.storeContent(in, oldPath.substring(oldPath.lastIndexOf('/') + 1));
+            } catch (IOException ex) {
+                throw new RuntimeException("Could not migrate file " + oldPath, ex);
+            }
+            log.append(STORED + "\t" + oldPath + "\t" + newPath);
+            pending.put(oldPath, newPath);
+        }
+        if (pending.isEmpty()) {
+            return pending;
+        }
+
+        updatePhotoUrls(pending);
+
+        for (Map.Entry<String, String> entry : pending.entrySet()) {
+            String newPath = entry.getValue();
+            int slash = newPath.lastIndexOf('/');
+            processingQueue.submit(newPath.substring(0, slash), newPath.substring(slash + 1));
+            if (deleteOriginals) {
+                storageService.releaseFile(entry.getKey());
+            }
+            log.append(DONE + "\t" + entry.getKey());
+        }
+        return pending;
+    }
+
+    /**
+     * Rewrites {@code photo_url} of all tables with photos in one transaction and publishes
+     * the changed rows. Rows already pointing to the new path are not touched, so this can be
+     * repeated after an interruption.
+     */
+    private void updatePhotoUrls(Map<String, String> moved) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Map.Entry<String, EntityType> table : PHOTO_TABLES.entrySet()) {
+                String select = "SELECT id FROM " + table.getKey() + " WHERE photo_url = ?";
+                String update = "UPDATE " + table.getKey() + " SET photo_url = ? WHERE photo_url = ?";
+                for (Map.Entry<String, String> entry : moved.entrySet()) {
+                    List<Long> ids = jdbcTemplate.queryForList(select, Long.class, entry.getKey());
+                    if (!ids.isEmpty()) {
+                        jdbcTemplate.update(update, entry.getValue(), entry.getKey());
+                        // Рассылается после коммита
+                        ids.forEach(id -> changePublisher.publish(table.getValue(), id));
+                    }
+                }
+            }
+        });
+    }
+
+    private List<String> listOriginals() {
+        return blobStore.list("").stream()
+                .filter(key -> !key.startsWith(FileStorageService.CONTENT_ADDRESSED_FOLDER + "/")
+                        && !VARIANT_NAME.matcher(key).matches())
+                .toList();
+    }
+
+    private static String segmentKey(int segment) {
+        return LOG_FILE + "." + segment;
+    }
+
+    /**
+     * The migration log: {@code stored<TAB>old<TAB>new} and {@code done<TAB>old} lines,
+     * split into segments of {@value #LOG_SEGMENT_SIZE} lines.
+     */
+    private final class MigrationLog {
+        /** Old path to new path of every stored file. */
+        private final Map<String, String> stored = new LinkedHashMap<>();
+        /** Old paths of finished files. */
+        private final Set<String> done = new HashSet<>();
+        private final StringBuilder segmentLog = new StringBuilder();
+        private int segment;
+        private int segmentSize;
+
+        private MigrationLog() {
+            List<String> lines = List.of();
+            while (blobStore.exists(segmentKey(segment))) {
+                lines = read(segmentKey(segment)).lines().toList();
+                for (String line : lines) {
+                    String[] fields = line.split("\t");
+                    if (fields[0].equals(STORED) && fields.length == 3) {
+                        stored.put(fields[1], fields[2]);
+                    } else if (fields[0].equals(DONE) && fields.length == 2) {
+                        done.add(fields[1]);
+                    }
+                }
+                segment++;
+            }
+            // Продолжаем последний сегмент, если он еще не заполнен
+            if (segment > 0 && lines.size() < LOG_SEGMENT_SIZE) {
+                segment--;
+                lines.forEach(line -> segmentLog.append(line).append('\n'));
+                segmentSize = lines.size();
+            }
+        }
+
+        /**
+         * Appends a line; in the blob store only the current segment is rewritten.
+         */
+        private void append(String line) {
+            if (segmentSize == LOG_SEGMENT_SIZE) {
+                segment++;
+                segmentLog.setLength(0);
+                segmentSize = 0;
+            }
+            segmentLog.append(line).append('\n');
+            segmentSize++;
+            blobStore.put(segmentKey(segment), new ByteArrayInputStream(segmentLog.toString().getBytes(StandardCharsets.UTF_8)));
+        }
+
+        private String read(String key) {
+            try (InputStream in = blobStore.open(key)) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException ex) {
+                throw new RuntimeException("Could not read migration log", ex);
+            }
+        }
+    }
+}
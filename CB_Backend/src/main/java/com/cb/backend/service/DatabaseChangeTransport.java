@@ -0,0 +1,151 @@
+package com.cb.backend.service;
+
+import com.cb.backend.CachingProperties;
+import com.cb.backend.model.EntityChange;
+import com.cb.backend.model.EntityType;
+import com.cb.backend.repository.EntityChangeRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EntityChangeTransport} using the {@code CB_ENTITY_CHANGES} table.
+ *
+ * <p>
+ * Every change is appended to the table with the ID of the node that made it. Each node
+ * polls the table every {@code cache.invalidation.poll-millis} for new records and passes
+ * the changes of other nodes to the subscribed listeners. Works with the application
+ * database alone, at the cost of up to one poll interval of staleness on the other nodes.
+ * Records older than {@code cache.invalidation.retention} are deleted periodically.
+ * </p>
+ *
+ * <p>
+ * IDs are taken from a sequence when the record is inserted, not when it is committed, so
+ * a record can become visible after records with higher IDs. Each poll therefore reads
+ * again the last {@code cache.invalidation.poll-overlap} IDs below the highest one seen
+ * and skips the records it has already processed.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(prefix = "cache.invalidation", name = "transport", havingValue = "database", matchIfMissing = true)
+public class DatabaseChangeTransport implements EntityChangeTransport {
+    private final EntityChangeRepository changeRepo;
+    private final TransactionTemplate newTransaction;
+    private final CachingProperties.Invalidation properties;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<EntityChangeListener> listeners = new CopyOnWriteArrayList<>();
+    /** Highest change log record ID that existed when this node started. */
+    private long startId;
+    /** Highest change log record ID that was processed. */
+    private long lastSeenId;
+    /** IDs of the processed records within the overlap window. */
+    private final NavigableSet<Long> processedIds = new TreeSet<>();
+
+    public DatabaseChangeTransport(
+            EntityChangeRepository changeRepo,
+            PlatformTransactionManager transactionManager,
+            CachingProperties properties) {
+        this.changeRepo = changeRepo;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties.getInvalidation();
+    }
+
+    /**
+     * Starts after the newest record: changes made before this node started are not
+     * in its caches anyway.
+     */
+    @PostConstruct
+    void init() {
+        startId = changeRepo.findMaxId();
+        lastSeenId = startId;
+    }
+
+    /**
+     * Appends a change to the change log.
+     *
+     * <p>
+     * The record is written in its own transaction, since the change is sent after the
+     * transaction of the change has committed. Failures are logged and not thrown: the
+     * change itself is already saved, and the other nodes pick it up at the latest when
+     * their cache entries expire.
+     * </p>
+     */
+    @Override
+    public void send(EntityType type, Long id) {
+        EntityChange change = new EntityChange();
+        change.setEntityType(type);
+        change.setEntityId(id);
+        change.setNodeId(nodeId);
+        try {
+            newTransaction.executeWithoutResult(status -> changeRepo.save(change));
+        } catch (RuntimeException ex) {
+            System.err.println("Could not record change of " + type + " " + id + ": " + ex.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(EntityChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Reads the records committed since the last poll and passes the changes made
+     * by other nodes to the listeners.
+     */
+    @Scheduled(fixedDelayString = "${cache.invalidation.poll-millis:1000}")
+    public synchronized void poll() {
+        long fromId = Math.max(startId, lastSeenId - properties.getPollOverlap());
+        List<EntityChange> changes;
+        do {
+            changes = changeRepo.findByIdGreaterThanOrderByIdAsc(fromId, PageRequest.of(0, properties.getBatchSize()));
+            for (EntityChange change : changes) {
+                fromId = change.getId();
+                if (!processedIds.add(change.getId())) {
+                    continue;
+                }
+                if (!nodeId.equals(change.getNodeId())) {
+                    for (EntityChangeListener listener : listeners) {
+                        listener.onEntityChange(change.getEntityType(), change.getEntityId());
+                    }
+                }
+                lastSeenId = Math.max(lastSeenId, change.getId());
+            }
+        } while (changes.size() == properties.getBatchSize());
+        // ID ниже окна больше не перечитываются
+        processedIds.headSet(lastSeenId - properties.getPollOverlap(), true).clear();
+    }
+
+    /**
+     * Deletes change log records older than the retention period.
+     */
+    @Scheduled(fixedDelay = 10, timeUnit = TimeUnit.MINUTES)
+    public void cleanup() {
+        changeRepo.deleteByCreatedAtBefore(LocalDateTime.now().minus(properties.getRetention()));
+    }
+
+    /**
+     * Returns the identifier this node writes into its change log records.
+     *
+     * @return the node ID, random per application start
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+}
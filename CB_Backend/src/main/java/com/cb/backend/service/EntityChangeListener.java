@@ -0,0 +1,25 @@
+package com.cb.backend.service;
+
+import com.cb.backend.model.EntityType;
+
+/**
+ * Receives changes of entities made on this or on another API node.
+ *
+ * <p>
+ * All beans implementing this interface are registered with {@link EntityChangePublisher}.
+ * Changes may be delivered more than once, so handling must be idempotent.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface EntityChangeListener {
+    /**
+     * Called after an entity was created, updated or deleted.
+     *
+     * @param type type of the changed entity
+     * @param id identifier of the changed entity
+     */
+    void onEntityChange(EntityType type, Long id);
+}
@@ -0,0 +1,71 @@
+package com.cb.backend.service;
+
+import com.cb.backend.model.EntityType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Service class <b>EntityChangePublisher</b> broadcasts entity changes to all API nodes.
+ *
+ * <p>
+ * The {@link CrudService} implementations publish every create, update and delete. The
+ * change is sent to the other nodes through the configured {@link EntityChangeTransport},
+ * whose received changes go to the same listeners, and passed to all
+ * {@link EntityChangeListener} beans of this node (e.g. {@link CacheInvalidationListener}).
+ * </p>
+ *
+ * <p>
+ * A change published in a transaction is sent and reaches the local listeners only after
+ * the commit. Otherwise a concurrent reader, which still sees the committed old state,
+ * could rebuild evicted or invalidated data from it right after the listener ran, and
+ * nothing would evict it again; a rolled back change is not sent at all. Outside of a
+ * transaction the change is sent and the listeners are called right away.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Service
+public class EntityChangePublisher {
+    private final List<EntityChangeListener> listeners;
+    private final EntityChangeTransport transport;
+
+    public EntityChangePublisher(List<EntityChangeListener> listeners, EntityChangeTransport transport) {
+        this.listeners = listeners;
+        this.transport = transport;
+        listeners.forEach(transport::subscribe);
+    }
+
+    /**
+     * Publishes a change of an entity; call it after the change is saved (in the
+     * transaction of the change, if there is one).
+     *
+     * @param type type of the changed entity
+     * @param id identifier of the changed entity; nothing is published if {@code null}
+     */
+    public void publish(EntityType type, Long id) {
+        if (id == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcast(type, id);
+                }
+            });
+        } else {
+            broadcast(type, id);
+        }
+    }
+
+    private void broadcast(EntityType type, Long id) {
+        transport.send(type, id);
+        for (EntityChangeListener listener : listeners) {
+            listener.onEntityChange(type, id);
+        }
+    }
+}
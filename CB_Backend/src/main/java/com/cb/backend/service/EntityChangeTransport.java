@@ -0,0 +1,39 @@
+package com.cb.backend.service;
+
+import com.cb.backend.model.EntityType;
+
+/**
+ * Transport of entity changes between API nodes.
+ *
+ * <p>
+ * Implementations, selected with {@code cache.invalidation.transport}:
+ * {@link DatabaseChangeTransport} (default, a polled change log table, needs no extra
+ * services) and {@link LocalChangeTransport} (single node, nothing is sent).
+ * A transport for a message broker only has to implement this interface.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+public interface EntityChangeTransport {
+    /**
+     * Sends a change made on this node to the other nodes.
+     *
+     * <p>
+     * Called after the change is committed, possibly from the completion callback of the
+     * committed transaction; implementations that write to the database have to use a
+     * new transaction.
+     * </p>
+     *
+     * @param type type of the changed entity
+     * @param id identifier of the changed entity
+     */
+    void send(EntityType type, Long id);
+
+    /**
+     * Registers a listener for changes made on other nodes.
+     *
+     * @param listener the listener to call for every received change
+     */
+    void subscribe(EntityChangeListener listener);
+}
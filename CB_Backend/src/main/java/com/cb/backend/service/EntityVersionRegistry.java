@@ -0,0 +1,83 @@
+package com.cb.backend.service;
+
+import com.cb.backend.model.EntityType;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts changes per entity type, so derived data can be keyed by the state it was built from.
+ *
+ * <p>
+ * Every change published through {@link EntityChangePublisher}, on this or another node,
+ * increments the version of its {@link EntityType}. Anything computed from entities of some
+ * types (e.g. a serialized response) stays valid as long as the versions of these types are
+ * unchanged. Versions are node-local and start at zero on every start, so entity tags
+ * built from them (see {@link #getETag(EntityType...)}) also contain a random ID of this
+ * run of the node; a tag of another node or of an earlier run never matches.
+ * </p>
+ *
+ * <p>
+ * Changes made in a transaction arrive after the commit (see {@link EntityChangePublisher}),
+ * so data built under the previous version never outlives it.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Component
+public class EntityVersionRegistry implements EntityChangeListener {
+    private final Map<EntityType, AtomicLong> versions = new EnumMap<>(EntityType.class);
+    private final String bootId = UUID.randomUUID().toString().substring(0, 8);
+
+    public EntityVersionRegistry() {
+        for (EntityType type : EntityType.values()) {
+            versions.put(type, new AtomicLong());
+        }
+    }
+
+    @Override
+    public void onEntityChange(EntityType type, Long id) {
+        versions.get(type).incrementAndGet();
+    }
+
+    /**
+     * Returns the current version of an entity type.
+     *
+     * @param type the entity type
+     * @return number of changes of this type seen by this node
+     */
+    public long getVersion(EntityType type) {
+        return versions.get(type).get();
+    }
+
+    /**
+     * Returns a key identifying the current versions of several entity types.
+     *
+     * @param types the entity types, in a fixed order
+     * @return the versions separated by dots, e.g. {@code "12.0.3"}
+     */
+    public String getVersionKey(EntityType... types) {
+        StringBuilder key = new StringBuilder();
+        for (EntityType type : types) {
+            if (!key.isEmpty()) {
+                key.append('.');
+            }
+            key.append(getVersion(type));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns a weak entity tag for data built from entities of several types.
+     *
+     * @param types the entity types, in a fixed order
+     * @return the tag, e.g. {@code W/"1a2b3c4d-12.0.3"}
+     */
+    public String getETag(EntityType... types) {
+        return "W/\"" + bootId + "-" + getVersionKey(types) + "\"";
+    }
+}
@@ -1,75 +1,317 @@
 package com.cb.backend.service;
 
 import com.cb.backend.FileStorageProperties;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 /**
- * Service class <b>FileStorageService</b> handles storing and loading files
- * on the server filesystem.
+ * Service class <b>FileStorageService</b> handles storing and loading uploaded files.
  *
  * <p>
+ * Files are kept in a {@link BlobStore} (the upload directory, or an S3-compatible bucket
+ * with {@code file.store=s3}) under keys relative to the storage root.
  * Supports subfolders and generates unique filenames using UUIDs to prevent collisions.
+ * Resized variants of uploaded images are generated in the background by
+ * {@link ImageProcessingQueue} and resolved here with {@link #resolveKey(String, String, Integer)}.
  * Throws {@link RuntimeException} in case of invalid paths or I/O errors.
  * </p>
+ *
+ * <p>
+ * With {@code file.content-addressed=true} files are stored by the SHA-256 of their content
+ * under {@code sha256/ab/cd/<hash>.<ext>}, so identical uploads share one file. The number
+ * of uploads referencing a file is kept in {@code CB_FILE_REFERENCES} (see
+ * {@link com.cb.backend.model.FileReference}); {@link #releaseFile(String)} deletes the file
+ * only when the last reference is released. The count is changed with an atomic
+ * {@code UPDATE}, whose row lock serializes changes of one file across all nodes sharing
+ * the store. New content is uploaded before the count is changed, outside of the
+ * transaction: the key is the hash, so uploading the same content again is harmless. Files
+ * are deleted in the transaction that removes the last reference.
+ * </p>
  * 
  * @author Dmytro Babich
  * @since 1.0
  */
 @Service
 public class FileStorageService {
-    private final Path rootLocation ;
+    /**
+     * Top-level folder of content-addressed files.
+     */
+    public static final String CONTENT_ADDRESSED_FOLDER = "sha256";
 
-    public FileStorageService(FileStorageProperties properties) {
-        this.rootLocation = Paths.get(properties.getUploadDir())
-                .toAbsolutePath().normalize();
-        try {
-            Files.createDirectories(this.rootLocation );
-        } catch (Exception ex) {
-            throw new RuntimeException("Could not create upload directory", ex);
-        }
+    private static final String TEMP_DIR = ".tmp";
+
+    private static final String ADD_REFS_SQL =
+            "UPDATE CB_FILE_REFERENCES SET ref_count = ref_count + ? WHERE file_key = ?";
+    private static final String SELECT_REFS_SQL =
+            "SELECT ref_count FROM CB_FILE_REFERENCES WHERE file_key = ?";
+    private static final String INSERT_REFS_SQL =
+            "INSERT INTO CB_FILE_REFERENCES (file_key, ref_count) VALUES (?, ?)";
+    private static final String DELETE_REFS_SQL =
+            "DELETE FROM CB_FILE_REFERENCES WHERE file_key = ?";
+
+    private final BlobStore blobStore;
+    private final ImageVariantService imageVariants;
+    private final boolean contentAddressed;
+    /** Node-local directory for content being hashed before it is stored. */
+    private final Path tempDir;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public FileStorageService(
+            FileStorageProperties properties,
+            BlobStore blobStore,
+            ImageVariantService imageVariants,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate) {
+        this.blobStore = blobStore;
+        this.imageVariants = imageVariants;
+        this.contentAddressed = properties.isContentAddressed();
+        this.tempDir = Paths.get(properties.getUploadDir())
+                .toAbsolutePath().normalize().resolve(TEMP_DIR);
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
     }
 
     /**
      * Stores a file in the specified subfolder.
      *
+     * <p>
+     * In content-addressed mode the subfolder is ignored and the file is stored
+     * (or referenced, if the same content already exists) under {@code sha256/}.
+     * </p>
+     *
      * @param file the {@link MultipartFile} to store
-     * @param subFolder the subfolder within the root upload directory
-     * @return the stored file name
+     * @param subFolder the subfolder within the storage root
+     * @return the key (relative path) of the stored file
      * @throws RuntimeException if the file cannot be stored or contains invalid path sequences
      */
     public String storeFile(MultipartFile file, String subFolder) {
         String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
+        if (contentAddressed) {
+            try (InputStream in = file.getInputStream()) {
+                return storeContent(in, originalFileName);
+            } catch (IOException ex) {
+                throw new RuntimeException("Could not store file " + originalFileName, ex);
+            }
+        }
+
         String fileName = UUID.randomUUID() + "-" + originalFileName;
 
-        try {
-            if(fileName.contains("..")) {
-                throw new RuntimeException("Filename contains invalid path sequence " + fileName);
-            }
-            Path folderLocation = this.rootLocation.resolve(subFolder);
-            Files.createDirectories(folderLocation);
-            Path targetLocation = folderLocation.resolve(fileName);
-            Files.copy(file.getInputStream(), targetLocation);
-            return fileName;
+        if(fileName.contains("..")) {
+            throw new RuntimeException("Filename contains invalid path sequence " + fileName);
+        }
+        String key = resolveKey(subFolder, fileName);
+        try (InputStream in = file.getInputStream()) {
+            blobStore.put(key, in);
+            return key;
         } catch (IOException ex) {
             throw new RuntimeException("Could not store file " + fileName, ex);
         }
     }
 
     /**
-     * Loads a file path from the specified subfolder and file name.
+     * Stores content under its SHA-256 hash and adds one reference to it.
+     *
+     * <p>
+     * The stream is hashed while it is written to a node-local temporary file, so the
+     * content is read only once. If a file with the same hash already exists, the temporary
+     * file is discarded and only the reference count is increased. The upload happens
+     * before the short transaction that changes the count, so no connection or row lock is
+     * held during it. If the file was deleted by a concurrent release of its last reference
+     * in the meantime, it is uploaded again after the count is committed.
+     * </p>
+     *
+     * @param content the content to store
+     * @param originalFileName the original file name, used for the extension
+     * @return the key (relative path) of the stored file
+     * @throws RuntimeException if the content cannot be stored
+     */
+    public String storeContent(InputStream content, String originalFileName) {
+        try {
+            Files.createDirectories(tempDir);
+            Path temp = Files.createTempFile(tempDir, "upload", ".tmp");
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                try (DigestInputStream in = new DigestInputStream(content, digest)) {
+                    Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+                }
+                String hash = HexFormat.of().formatHex(digest.digest());
+                String key = contentAddressedKey(hash, extensionOf(originalFileName));
+
+                if (!blobStore.exists(key)) {
+                    putContent(key, temp);
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    try {
+                        addReference(key);
+                    } catch (DuplicateKeyException e) {
+                        // Первая ссылка пришла одновременно с другим узлом, теперь строка существует
+                        addReference(key);
+                    }
+                });
+                // Пока есть ссылка, файл никто не удалит; восстанавливаем его после параллельного удаления
+                if (!blobStore.exists(key)) {
+                    putContent(key, temp);
+                }
+                return key;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | NoSuchAlgorithmException ex) {
+            throw new RuntimeException("Could not store file " + originalFileName, ex);
+        }
+    }
+
+    /**
+     * Releases one reference to a stored file.
+     *
+     * <p>
+     * Content-addressed files are deleted (together with their image variants) when the
+     * last reference is released. Other files are deleted immediately.
+     * </p>
+     *
+     * @param relativePath the key (relative path) of the file
+     * @return {@code true} if the file was physically deleted
+     * @throws RuntimeException if the path is invalid or the file cannot be deleted
+     */
+    public boolean releaseFile(String relativePath) {
+        int slash = relativePath.lastIndexOf('/');
+        if (slash <= 0) {
+            throw new RuntimeException("Invalid file path: " + relativePath);
+        }
+        String key = resolveKey(relativePath.substring(0, slash), relativePath.substring(slash + 1));
+        if (!blobStore.exists(key)) {
+            return false;
+        }
+
+        if (key.startsWith(CONTENT_ADDRESSED_FOLDER + "/")) {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> releaseReference(key)));
+        }
+        deleteWithVariants(key);
+        return true;
+    }
+
+    /**
+     * Returns the number of references to a content-addressed file.
      *
-     * @param subFolder the subfolder within the root upload directory
-     * @param fileName the file name to load
-     * @return {@link Path} to the requested file
+     * @param relativePath the key (relative path) of the file
+     * @return the reference count, or 0 if the file does not exist
      */
-    public Path loadFile(String subFolder, String fileName) {
-    	return this.rootLocation.resolve(subFolder).resolve(fileName).normalize();
+    public int getReferenceCount(String relativePath) {
+        int slash = relativePath.lastIndexOf('/');
+        if (slash <= 0) {
+            return 0;
+        }
+        String key = resolveKey(relativePath.substring(0, slash), relativePath.substring(slash + 1));
+        List<Integer> refs = jdbcTemplate.queryForList(SELECT_REFS_SQL, Integer.class, key);
+        return refs.isEmpty() ? 0 : refs.get(0);
+    }
+
+    /**
+     * Builds the key of a file from the specified subfolder and file name.
+     *
+     * @param subFolder the subfolder within the storage root
+     * @param fileName the file name
+     * @return the key of the file
+     * @throws RuntimeException if the key would point outside the storage root or is hidden
+     */
+    public String resolveKey(String subFolder, String fileName) {
+    	String key = subFolder + "/" + fileName;
+    	// Скрытые файлы и каталоги (например, .jobs или .tmp) не отдаются наружу
+    	if (key.startsWith("/") || key.contains("..") || key.contains("\\") || BlobStore.isInternal(key)) {
+    		throw new RuntimeException("Cannot read file outside upload directory: " + key);
+    	}
+    	return key;
+    }
+
+    /**
+     * Builds the key of the file to serve for a requested display width.
+     *
+     * @param subFolder the subfolder within the storage root
+     * @param fileName the file name of the original
+     * @param width the requested width in pixels, or {@code null} for the original
+     * @return key of the best matching image variant, or of the original file
+     * @throws RuntimeException if the key would point outside the storage root
+     */
+    public String resolveKey(String subFolder, String fileName, Integer width) {
+    	return imageVariants.resolveVariant(resolveKey(subFolder, fileName), width);
+    }
+
+    private void deleteWithVariants(String key) {
+        imageVariants.deleteVariants(key);
+        blobStore.delete(key);
+    }
+
+    /**
+     * Adds one reference to a content-addressed file, creating its row with the first one.
+     *
+     * @throws DuplicateKeyException if another node created the row at the same time
+     */
+    private void addReference(String key) {
+        if (jdbcTemplate.update(ADD_REFS_SQL, 1, key) == 0) {
+            jdbcTemplate.update(INSERT_REFS_SQL, key, 1);
+        }
+    }
+
+    /**
+     * Releases one reference to a content-addressed file and deletes the file with the
+     * last one; a file without references is deleted right away. Must run in a
+     * transaction: the {@code UPDATE} locks the row until the file is deleted.
+     *
+     * @return {@code true} if the file was deleted
+     */
+    private boolean releaseReference(String key) {
+        if (jdbcTemplate.update(ADD_REFS_SQL, -1, key) > 0) {
+            int refs = jdbcTemplate.queryForObject(SELECT_REFS_SQL, Integer.class, key);
+            if (refs > 0) {
+                return false;
+            }
+            jdbcTemplate.update(DELETE_REFS_SQL, key);
+        }
+        deleteWithVariants(key);
+        return true;
+    }
+
+    private void putContent(String key, Path content) {
+        try (InputStream in = Files.newInputStream(content)) {
+            blobStore.put(key, in);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + key, ex);
+        }
+    }
+
+    private static String contentAddressedKey(String hash, String extension) {
+        return CONTENT_ADDRESSED_FOLDER + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/"
+                + hash + (extension.isEmpty() ? "" : "." + extension);
+    }
+
+    /**
+     * Returns the lower-cased extension of a file name, or an empty string if it has
+     * none or it contains anything but letters and digits.
+     */
+    private static String extensionOf(String fileName) {
+        String extension = StringUtils.getFilenameExtension(fileName);
+        if (extension == null) {
+            return "";
+        }
+        extension = extension.toLowerCase(Locale.ROOT);
+        return extension.matches("[a-z0-9]{1,10}") ? extension : "";
     }
 }
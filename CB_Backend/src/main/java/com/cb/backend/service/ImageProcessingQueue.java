@@ -0,0 +1,300 @@
+package com.cb.backend.service;
+
+import com.cb.backend.FileStorageProperties;
+import com.cb.backend.dto.ImageJobDto;
+import com.cb.backend.model.ImageJobStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Service class <b>ImageProcessingQueue</b> generates image variants in the background.
+ *
+ * <p>
+ * Every uploaded file gets a job that is persisted as a JSON file in the {@code .jobs}
+ * directory of the upload root, so no job is lost on restart. Jobs are processed by
+ * {@code file.image-workers} virtual-thread workers with a backlog of at most
+ * {@code file.image-queue-capacity} jobs. If the backlog is full, the job simply stays
+ * {@link ImageJobStatus#PENDING} on disk and is picked up by the periodic sweep.
+ * Jobs are node-local: with a shared {@link BlobStore} each node processes its own uploads.
+ * </p>
+ *
+ * <p>
+ * The sweep also retries failed jobs (up to {@code file.image-max-attempts}), recovers jobs
+ * interrupted by a restart and deletes finished (done or finally failed) jobs older than
+ * {@code file.image-job-retention}. A job fails on any error, including
+ * {@link OutOfMemoryError}; a job that has used up its attempts without finishing (e.g.
+ * because it took the node down) is marked {@link ImageJobStatus#FAILED} instead of being
+ * queued again.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Service
+public class ImageProcessingQueue {
+    private static final String JOB_DIR = ".jobs";
+    private static final String JOB_EXTENSION = ".json";
+
+    private final FileStorageService storageService;
+    private final ImageVariantService imageVariants;
+    private final ObjectMapper objectMapper;
+    private final FileStorageProperties properties;
+    private final Path jobDir;
+    private final ThreadPoolExecutor workers;
+    /** IDs of jobs that are queued or running, to avoid enqueuing a job twice. */
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public ImageProcessingQueue(
+            FileStorageService storageService,
+            ImageVariantService imageVariants,
+            ObjectMapper objectMapper,
+            FileStorageProperties properties) {
+        this.storageService = storageService;
+        this.imageVariants = imageVariants;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.jobDir = Paths.get(properties.getUploadDir()).toAbsolutePath().normalize().resolve(JOB_DIR);
+        this.workers = new ThreadPoolExecutor(
+                properties.getImageWorkers(),
+                properties.getImageWorkers(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getImageQueueCapacity()),
+                Thread.ofVirtual().name("image-worker-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        try {
+            Files.createDirectories(jobDir);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not create image job directory", ex);
+        }
+    }
+
+    /**
+     * Creates a processing job for a stored file and queues it.
+     *
+     * @param folder the subfolder of the stored file
+     * @param fileName the stored file name
+     * @return the created job
+     * @throws RuntimeException if the job cannot be persisted
+     */
+    public ImageJobDto submit(String folder, String fileName) {
+        ImageJobDto job = new ImageJobDto();
+        job.setId(UUID.randomUUID().toString());
+        job.setFolder(folder);
+        job.setFileName(fileName);
+        job.setStatus(ImageJobStatus.PENDING.name());
+        job.setCreatedAt(LocalDateTime.now());
+        job.setUpdatedAt(job.getCreatedAt());
+        save(job);
+        enqueue(job.getId());
+        return job;
+    }
+
+    /**
+     * Finds a job by its ID.
+     *
+     * @param id the job ID
+     * @return the job, or {@code null} if it does not exist
+     */
+    public ImageJobDto findById(String id) {
+        try {
+            UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        Path file = jobFile(id);
+        return Files.isRegularFile(file) ? read(file) : null;
+    }
+
+    /**
+     * Counts the persisted jobs by status and reports the current backlog.
+     *
+     * @return map of status name to job count, plus {@code queued} (jobs waiting for a worker)
+     */
+    public Map<String, Integer> getStats() {
+        Map<ImageJobStatus, Integer> counts = new EnumMap<>(ImageJobStatus.class);
+        for (ImageJobStatus status : ImageJobStatus.values()) {
+            counts.put(status, 0);
+        }
+        for (ImageJobDto job : readAll()) {
+            counts.merge(ImageJobStatus.valueOf(job.getStatus()), 1, Integer::sum);
+        }
+        Map<String, Integer> stats = new LinkedHashMap<>();
+        counts.forEach((status, count) -> stats.put(status.name(), count));
+        stats.put("queued", workers.getQueue().size());
+        return stats;
+    }
+
+    /**
+     * Resets jobs that were running when the application stopped and queues pending jobs.
+     */
+    @PostConstruct
+    void recover() {
+        for (ImageJobDto job : readAll()) {
+            if (ImageJobStatus.PROCESSING.name().equals(job.getStatus())) {
+                if (job.getAttempts() >= properties.getImageMaxAttempts()) {
+                    fail(job, "Interrupted after " + job.getAttempts() + " attempts");
+                } else {
+                    job.setStatus(ImageJobStatus.PENDING.name());
+                    save(job);
+                }
+            }
+        }
+        sweep();
+    }
+
+    /**
+     * Queues pending and retryable failed jobs and removes expired finished jobs.
+     */
+    @Scheduled(fixedDelayString = "${file.image-job-sweep-millis:30000}")
+    public void sweep() {
+        LocalDateTime expiry = LocalDateTime.now().minus(properties.getImageJobRetention());
+        for (ImageJobDto job : readAll()) {
+            ImageJobStatus status = ImageJobStatus.valueOf(job.getStatus());
+            boolean attemptsLeft = job.getAttempts() < properties.getImageMaxAttempts();
+            if (status == ImageJobStatus.PENDING && !attemptsLeft && !inFlight.contains(job.getId())) {
+                fail(job, "Interrupted after " + job.getAttempts() + " attempts");
+            } else if (status == ImageJobStatus.PENDING || status == ImageJobStatus.FAILED && attemptsLeft) {
+                if (!enqueue(job.getId())) {
+                    return; // Очередь заполнена, продолжим при следующем проходе
+                }
+            } else if (status != ImageJobStatus.PROCESSING && job.getUpdatedAt().isBefore(expiry)) {
+                try {
+                    Files.deleteIfExists(jobFile(job.getId()));
+                } catch (IOException ex) {
+                    System.err.println("Could not delete image job " + job.getId() + ": " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Hands a job to the workers unless it is already queued or running.
+     *
+     * @return {@code false} if the backlog is full
+     */
+    private boolean enqueue(String id) {
+        if (!inFlight.add(id)) {
+            return true;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    process(id);
+                } finally {
+                    inFlight.remove(id);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(id);
+            return false;
+        }
+    }
+
+    private void process(String id) {
+        ImageJobDto job = findById(id);
+        if (job == null || ImageJobStatus.DONE.name().equals(job.getStatus())) {
+            return;
+        }
+        job.setStatus(ImageJobStatus.PROCESSING.name());
+        job.setAttempts(job.getAttempts() + 1);
+        job.setUpdatedAt(LocalDateTime.now());
+        save(job);
+
+        try {
+            String original = storageService.resolveKey(job.getFolder(), job.getFileName());
+            job.setVariants(imageVariants.generateVariants(original));
+            job.setStatus(ImageJobStatus.DONE.name());
+            job.setError(null);
+        } catch (Throwable ex) {
+            // Ошибки вроде OutOfMemoryError тоже завершают задание, иначе оно навсегда останется PROCESSING
+            System.err.println("Image job " + id + " failed: " + ex);
+            job.setStatus(ImageJobStatus.FAILED.name());
+            job.setError(ex.getMessage() != null ? ex.getMessage() : ex.getClass().getName());
+        }
+        job.setUpdatedAt(LocalDateTime.now());
+        save(job);
+    }
+
+    private void fail(ImageJobDto job, String error) {
+        System.err.println("Image job " + job.getId() + " failed: " + error);
+        job.setStatus(ImageJobStatus.FAILED.name());
+        job.setError(error);
+        job.setUpdatedAt(LocalDateTime.now());
+        save(job);
+    }
+
+    private Path jobFile(String id) {
+        return jobDir.resolve(id + JOB_EXTENSION);
+    }
+
+    /**
+     * Writes a job atomically (temporary file + move), so readers never see a partial file.
+     */
+    private void save(ImageJobDto job) {
+        try {
+            Path temp = Files.createTempFile(jobDir, job.getId(), ".tmp");
+            try {
+                objectMapper.writeValue(temp.toFile(), job);
+                Files.move(temp, jobFile(job.getId()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not save image job " + job.getId(), ex);
+        }
+    }
+
+    private ImageJobDto read(Path file) {
+        try {
+            return objectMapper.readValue(file.toFile(), ImageJobDto.class);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not read image job " + file.getFileName(), ex);
+        }
+    }
+
+    private List<ImageJobDto> readAll() {
+        List<ImageJobDto> jobs = new ArrayList<>();
+        try (Stream<Path> files = Files.list(jobDir)) {
+            files.filter(file -> file.getFileName().toString().endsWith(JOB_EXTENSION))
+                    .forEach(file -> {
+                        try {
+                            jobs.add(read(file));
+                        } catch (RuntimeException ex) {
+                            System.err.println(ex.getMessage());
+                        }
+                    });
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not list image jobs", ex);
+        }
+        return jobs;
+    }
+}
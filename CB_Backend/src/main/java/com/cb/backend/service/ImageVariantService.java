@@ -0,0 +1,229 @@
+package com.cb.backend.service;
+
+import com.cb.backend.FileStorageProperties;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Service class <b>ImageVariantService</b> generates resized variants of uploaded images.
+ *
+ * <p>
+ * For every configured width ({@code file.image-variant-widths}, by default 160 for
+ * thumbnails, 480 for cards and 1280 for hero images) that is smaller than the original,
+ * a JPEG variant is stored next to the original in the {@link BlobStore} as
+ * {@code <name>.<ext>_w<width>.jpg}. The key keeps the extension of the original, so
+ * content-addressed files with the same hash but different extensions (e.g.
+ * {@code <hash>.png} and {@code <hash>.jpg}) never share variants. Files that cannot be
+ * decoded as images are left alone.
+ * </p>
+ *
+ * <p>
+ * The dimensions are read from the image header before the pixels are decoded. Images
+ * with more than {@code file.image-max-pixels} pixels are rejected without decoding, so a
+ * small upload declaring huge dimensions cannot exhaust the heap; images no wider than
+ * the smallest variant are not decoded at all.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Service
+public class ImageVariantService {
+    private static final String VARIANT_SUFFIX = "_w";
+    private static final String VARIANT_EXTENSION = ".jpg";
+
+    private final BlobStore blobStore;
+    private final List<Integer> widths;
+    private final float quality;
+    private final long maxPixels;
+
+    public ImageVariantService(FileStorageProperties properties, BlobStore blobStore) {
+        this.blobStore = blobStore;
+        this.widths = properties.getImageVariantWidths().stream().sorted().distinct().toList();
+        this.quality = properties.getImageVariantQuality();
+        this.maxPixels = properties.getImageMaxPixels();
+    }
+
+    /**
+     * Generates the resized variants of an image.
+     *
+     * @param original key of the original image
+     * @return widths of the generated variants (empty if the file is not an image or
+     *         not wider than the smallest variant)
+     * @throws RuntimeException if the original cannot be read, has more pixels than allowed
+     *         or a variant cannot be written
+     */
+    public List<Integer> generateVariants(String original) {
+        List<Integer> generated = new ArrayList<>();
+        BufferedImage image;
+        try (InputStream in = blobStore.open(original);
+             ImageInputStream imageIn = ImageIO.createImageInputStream(in)) {
+            image = imageIn != null ? decode(original, imageIn) : null;
+        } catch (IOException e) {
+            return generated;
+        }
+        if (image == null) {
+            return generated;
+        }
+
+        for (int width : widths) {
+            if (width >= image.getWidth()) {
+                break;
+            }
+            String target = variantKey(original, width);
+            try {
+                // Варианты небольшие, поэтому кодируем в память и сохраняем одним запросом
+                ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+                writeJpeg(resize(image, width), jpeg);
+                blobStore.put(target, new ByteArrayInputStream(jpeg.toByteArray()));
+            } catch (IOException e) {
+                throw new RuntimeException("Could not write image variant " + target, e);
+            }
+            generated.add(width);
+        }
+        return generated;
+    }
+
+    /**
+     * Decodes the first image of a file after checking its dimensions.
+     *
+     * @return the image, or {@code null} if the file is not an image or needs no variants
+     */
+    private BufferedImage decode(String original, ImageInputStream in) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(in, true, true);
+            // Размеры читаются из заголовка, пиксели еще не декодированы
+            long width = reader.getWidth(0);
+            long height = reader.getHeight(0);
+            if (width * height > maxPixels) {
+                throw new RuntimeException("Image " + original + " is too large: " + width + "x" + height);
+            }
+            if (widths.isEmpty() || width <= widths.get(0)) {
+                return null;
+            }
+            return reader.read(0);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * Resolves the file to serve for a requested display width.
+     *
+     * <p>
+     * Picks the smallest configured variant that is at least as wide as requested
+     * (or the widest one if the request exceeds all of them). Falls back to the
+     * original if that variant does not exist, e.g. because the original is smaller,
+     * not an image or not processed yet; such responses must not be cached as final.
+     * </p>
+     *
+     * @param original key of the original file
+     * @param requestedWidth the requested width in pixels, or {@code null} for the original
+     * @return key of the variant, or {@code original}
+     */
+    public String resolveVariant(String original, Integer requestedWidth) {
+        if (requestedWidth == null || requestedWidth <= 0 || widths.isEmpty()) {
+            return original;
+        }
+        int width = widths.stream()
+                .filter(w -> w >= requestedWidth)
+                .findFirst()
+                .orElse(widths.get(widths.size() - 1));
+        String variant = variantKey(original, width);
+        return blobStore.exists(variant) ? variant : original;
+    }
+
+    /**
+     * Deletes all variants of an image.
+     *
+     * @param original key of the original image
+     * @throws RuntimeException if a variant cannot be deleted
+     */
+    public void deleteVariants(String original) {
+        for (int width : widths) {
+            blobStore.delete(variantKey(original, width));
+        }
+    }
+
+    /**
+     * Returns the key of a variant of the given width.
+     *
+     * @param original key of the original file
+     * @param width variant width in pixels
+     * @return key of the variant next to the original, including the original's extension
+     */
+    public String variantKey(String original, int width) {
+        return original + VARIANT_SUFFIX + width + VARIANT_EXTENSION;
+    }
+
+    /**
+     * Scales an image to the given width, keeping the aspect ratio.
+     *
+     * <p>
+     * Large reductions are done in steps of at most one half, which gives much smoother
+     * results than a single bilinear pass. The result has no alpha channel (JPEG), so
+     * transparent areas become white.
+     * </p>
+     */
+    private static BufferedImage resize(BufferedImage source, int targetWidth) {
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = width == targetWidth ? targetHeight : Math.max(targetHeight, height / 2);
+
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (width > targetWidth);
+        return current;
+    }
+
+    private void writeJpeg(BufferedImage image, ByteArrayOutputStream target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.cb.backend.service;
 
 import com.cb.backend.dto.IngredientDto;
 import com.cb.backend.mapper.IngredientMapper;
+import com.cb.backend.model.EntityType;
 import com.cb.backend.model.Ingredient;
 import com.cb.backend.model.Product;
 import com.cb.backend.model.Recipe;
@@ -21,6 +22,7 @@ import java.util.stream.Collectors;
  * Provides CRUD operations for {@link Ingredient} entities, converting between
  * {@link Ingredient} and {@link IngredientDto} using {@link IngredientMapper}.
  * Handles associations with {@link Recipe} and {@link Product}.
+ * Ingredients are part of their recipe, so writes are published as changes of the recipe.
  * </p>
  *
  * <p>
@@ -35,14 +37,17 @@ public class IngredientService implements CrudService<IngredientDto, RecipeIngre
 	private final IngredientRepository ingredientRepo;
     private final ProductRepository productRepo;
     private final RecipeRepository recipeRepo;
+    private final EntityChangePublisher changePublisher;
 
     public IngredientService(
     		IngredientRepository ingredientRepo,
     		ProductRepository productRepo,
-            RecipeRepository recipeRepo) {
+            RecipeRepository recipeRepo,
+            EntityChangePublisher changePublisher) {
         this.ingredientRepo = ingredientRepo;
         this.productRepo = productRepo;
         this.recipeRepo = recipeRepo;
+        this.changePublisher = changePublisher;
     }
     
     /**
@@ -86,7 +91,9 @@ public class IngredientService implements CrudService<IngredientDto, RecipeIngre
                 .orElseThrow(() -> new RuntimeException("Product not found: " + dto.getProductId()));
 
         Ingredient ingredient = IngredientMapper.fromDto(dto, recipe, product);
-        return IngredientMapper.toDto(ingredientRepo.save(ingredient));
+        IngredientDto created = IngredientMapper.toDto(ingredientRepo.save(ingredient));
+        changePublisher.publish(EntityType.RECIPE, recipe.getId());
+        return created;
     }
 
     /**
@@ -106,7 +113,9 @@ public class IngredientService implements CrudService<IngredientDto, RecipeIngre
                 .orElseThrow(() -> new RuntimeException("Product not found: " + dto.getProductId()));
 
         IngredientMapper.updateEntity(ingredient, dto, product);
-        return IngredientMapper.toDto(ingredientRepo.save(ingredient));
+        IngredientDto updated = IngredientMapper.toDto(ingredientRepo.save(ingredient));
+        changePublisher.publish(EntityType.RECIPE, id.getRecipeId());
+        return updated;
     }
 
     /**
@@ -117,5 +126,6 @@ public class IngredientService implements CrudService<IngredientDto, RecipeIngre
     @Override
     public void deleteById(RecipeIngredientKey id) {
         ingredientRepo.deleteById(id);
+        changePublisher.publish(EntityType.RECIPE, id.getRecipeId());
     }
 }
\ No newline at end of file
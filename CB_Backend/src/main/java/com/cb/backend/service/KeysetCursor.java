@@ -0,0 +1,72 @@
+package com.cb.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last item of a keyset paginated page.
+ *
+ * <p>
+ * Lists are ordered by {@code createdAt} descending and then by {@code id} descending,
+ * so the pair {@code (createdAt, id)} uniquely identifies where the next page starts.
+ * {@code createdAt} is {@code NOT NULL} in every paginated table (see
+ * {@code migration_created_at_not_null.sql}).
+ * The cursor is exchanged with clients as an opaque URL-safe Base64 token.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+public final class KeysetCursor {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public KeysetCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * Encodes this cursor as an opaque continuation token.
+     *
+     * @return URL-safe token representing the cursor
+     */
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a continuation token previously produced by {@link #encode()}.
+     *
+     * @param token the token sent by the client, may be {@code null} or blank for the first page
+     * @return the decoded cursor, or {@code null} if no token was given
+     * @throws RuntimeException if the token is malformed
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Missing separator");
+            }
+            return new KeysetCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor: " + token);
+        }
+    }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public Long getId() { return id; }
+}
@@ -0,0 +1,116 @@
+package com.cb.backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link BlobStore} keeping files in a directory of the local filesystem.
+ *
+ * <p>
+ * Keys map directly to paths below the root directory. Writes go to a temporary file
+ * that is moved into place atomically, so readers never see a partially written file.
+ * Ranged reads seek in the file instead of skipping bytes.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+public class LocalBlobStore implements BlobStore {
+    private final Path root;
+
+    public LocalBlobStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.root);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not create upload directory", ex);
+        }
+    }
+
+    @Override
+    public void put(String key, InputStream content) {
+        Path target = resolve(key);
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), ".upload", ".tmp");
+            try {
+                Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + key, ex);
+        }
+    }
+
+    @Override
+    public Optional<BlobMetadata> stat(String key) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(resolve(key), BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return Optional.empty();
+            }
+            return Optional.of(new BlobMetadata(attributes.size(), attributes.lastModifiedTime().toInstant()));
+        } catch (NoSuchFileException ex) {
+            return Optional.empty();
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not read file " + key, ex);
+        }
+    }
+
+    @Override
+    public InputStream open(String key, long offset) {
+        try {
+            SeekableByteChannel channel = Files.newByteChannel(resolve(key));
+            channel.position(offset);
+            return Channels.newInputStream(channel);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not read file " + key, ex);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not delete file " + key, ex);
+        }
+    }
+
+    @Override
+    public List<String> list(String prefix) {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .map(file -> root.relativize(file).toString().replace('\\', '/'))
+                    .filter(key -> key.startsWith(prefix) && !BlobStore.isInternal(key))
+                    .sorted()
+                    .toList();
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not list upload directory", ex);
+        }
+    }
+
+    /**
+     * Resolves a key to a path, rejecting keys that point outside the root directory.
+     */
+    private Path resolve(String key) {
+        Path file = root.resolve(key).normalize();
+        if (!file.startsWith(root) || file.equals(root)) {
+            throw new RuntimeException("Invalid file key: " + key);
+        }
+        return file;
+    }
+}
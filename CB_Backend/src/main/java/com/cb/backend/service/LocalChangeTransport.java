@@ -0,0 +1,25 @@
+package com.cb.backend.service;
+
+import com.cb.backend.model.EntityType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link EntityChangeTransport} for a single API node: changes are only applied locally.
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(prefix = "cache.invalidation", name = "transport", havingValue = "none")
+public class LocalChangeTransport implements EntityChangeTransport {
+    @Override
+    public void send(EntityType type, Long id) {
+        // Других узлов нет
+    }
+
+    @Override
+    public void subscribe(EntityChangeListener listener) {
+        // Других узлов нет
+    }
+}
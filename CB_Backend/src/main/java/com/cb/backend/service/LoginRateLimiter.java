@@ -0,0 +1,194 @@
+package com.cb.backend.service;
+
+import com.cb.backend.AuthProperties;
+import com.cb.backend.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Limits failed login attempts per username and per client IP address.
+ *
+ * <p>
+ * Uses fixed windows of {@code auth.attempt-window-seconds}, starting with the first counted
+ * attempt. Only failed logins count, against both the username (case-insensitive) and the
+ * client address; successful logins are never throttled by their own number. Once either
+ * limit is reached, further attempts are rejected with {@link TooManyRequestsException}
+ * until the window ends, before any database lookup or password hashing takes place.
+ * </p>
+ *
+ * <p>
+ * The limit check and the count are one atomic step: {@link #acquire} counts every
+ * admitted attempt as failed right away, in the same {@code compute} of the counter that
+ * checks the limit, so concurrent attempts cannot get past it together. A successful
+ * login takes its attempt back with {@link #recordSuccess}, an attempt that was not
+ * checked at all with {@link #release}.
+ * </p>
+ *
+ * <p>
+ * To keep others from locking a user out by failing logins under their name, the username
+ * limit does not apply to addresses the user logged in from successfully within
+ * {@code auth.known-address-days}; those are only subject to the address limit. The client
+ * address is the one reported by the servlet container, which takes it from
+ * {@code X-Forwarded-For} of trusted proxies (see {@code server.forward-headers-strategy}).
+ * </p>
+ *
+ * <p>
+ * Counters and known addresses are kept in bounded Caffeine caches that drop entries
+ * when they expire, so memory stays bounded without scanning.
+ * </p>
+ *
+ * @author Artem Borisenko
+ * @since 1.0
+ */
+@Component
+public class LoginRateLimiter {
+    /**
+     * Maximum number of tracked keys per cache; the least used ones are dropped first.
+     */
+    private static final int MAX_TRACKED_KEYS = 100_000;
+
+    private final AuthProperties properties;
+    private final Cache<String, Window> windows;
+    /** Username and address pairs with a successful login. */
+    private final Cache<String, Boolean> knownAddresses;
+
+    public LoginRateLimiter(AuthProperties properties) {
+        this.properties = properties;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_KEYS)
+                .expireAfterWrite(Duration.ofSeconds(properties.getAttemptWindowSeconds()))
+                .build();
+        this.knownAddresses = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_KEYS)
+                .expireAfterWrite(Duration.ofDays(properties.getKnownAddressDays()))
+                .build();
+    }
+
+    /**
+     * Admits a login attempt and counts it as failed until {@link #recordSuccess} or
+     * {@link #release} is called for it.
+     *
+     * @param username the username being logged in, may be {@code null}
+     * @param clientAddress the client IP address, may be {@code null}
+     * @throws TooManyRequestsException if the username or the address reached its limit;
+     *         the attempt is then not counted
+     */
+    public void acquire(String username, String clientAddress) {
+        long now = System.currentTimeMillis();
+        if (clientAddress != null) {
+            acquire(addressKey(clientAddress), properties.getMaxAttemptsPerIp(), now);
+        }
+        if (username != null && !username.isBlank()) {
+            // Для известного адреса имя пользователя считается, но не ограничивается
+            int limit = clientAddress != null && knownAddresses.getIfPresent(knownKey(username, clientAddress)) != null
+                    ? Integer.MAX_VALUE
+                    : properties.getMaxAttemptsPerUsername();
+            try {
+                acquire(usernameKey(username), limit, now);
+            } catch (TooManyRequestsException e) {
+                if (clientAddress != null) {
+                    decrement(addressKey(clientAddress), now);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Takes back an admitted attempt after a successful login and remembers the address,
+     * so the username limit no longer applies to it.
+     *
+     * @param username the logged in username
+     * @param clientAddress the client IP address, may be {@code null}
+     */
+    public void recordSuccess(String username, String clientAddress) {
+        release(username, clientAddress);
+        if (clientAddress != null) {
+            knownAddresses.put(knownKey(username, clientAddress), Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Takes back an admitted attempt whose password could not be checked, e.g. because
+     * the verification pool was saturated.
+     *
+     * @param username the username being logged in, may be {@code null}
+     * @param clientAddress the client IP address, may be {@code null}
+     */
+    public void release(String username, String clientAddress) {
+        long now = System.currentTimeMillis();
+        if (clientAddress != null) {
+            decrement(addressKey(clientAddress), now);
+        }
+        if (username != null && !username.isBlank()) {
+            decrement(usernameKey(username), now);
+        }
+    }
+
+    /**
+     * Counts an attempt against a key unless its limit is reached, in one atomic step.
+     */
+    private void acquire(String key, int limit, long now) {
+        long windowMillis = properties.getAttemptWindowSeconds() * 1000;
+        long[] retryAfter = new long[1];
+        windows.asMap().compute(key, (k, current) -> {
+            if (current == null || current.isExpired(now)) {
+                return new Window(now + windowMillis);
+            }
+            if (current.attempts >= limit) {
+                retryAfter[0] = Math.max(1, (current.resetAt - now + 999) / 1000);
+                return current;
+            }
+            return current.add(1);
+        });
+        if (retryAfter[0] > 0) {
+            throw new TooManyRequestsException("Слишком много попыток входа, попробуйте позже", retryAfter[0]);
+        }
+    }
+
+    private void decrement(String key, long now) {
+        windows.asMap().computeIfPresent(key, (k, current) ->
+                current.isExpired(now) || current.attempts <= 0 ? current : current.add(-1));
+    }
+
+    private static String addressKey(String clientAddress) {
+        return "ip:" + clientAddress;
+    }
+
+    private static String usernameKey(String username) {
+        return "user:" + username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String knownKey(String username, String clientAddress) {
+        return username.trim().toLowerCase(Locale.ROOT) + "@" + clientAddress;
+    }
+
+    /**
+     * Failed attempt counter of one key within the current window.
+     */
+    private static final class Window {
+        private final long resetAt;
+        private final int attempts;
+
+        private Window(long resetAt) {
+            this(resetAt, 1);
+        }
+
+        private Window(long resetAt, int attempts) {
+            this.resetAt = resetAt;
+            this.attempts = attempts;
+        }
+
+        private Window add(int delta) {
+            return new Window(resetAt, attempts + delta);
+        }
+
+        private boolean isExpired(long now) {
+            return now >= resetAt;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.cb.backend.service;
+
+import com.cb.backend.AuthProperties;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+/**
+ * Policy for hashing user passwords with BCrypt.
+ *
+ * <p>
+ * Holds the BCrypt cost factor used for new hashes. The cost is either taken from
+ * {@code auth.bcrypt-cost} or, when {@code auth.calibrate-bcrypt-cost} is enabled,
+ * measured once at startup: the highest cost between {@code auth.min-bcrypt-cost} and
+ * {@code auth.max-bcrypt-cost} whose hashing time on this host stays within
+ * {@code auth.target-verify-millis}.
+ * </p>
+ *
+ * <p>
+ * Hashes created with a different cost are detected by {@link #needsRehash(String)}, so
+ * they can be upgraded (or downgraded) transparently on the next successful login.
+ * </p>
+ *
+ * @author Artem Borisenko
+ * @since 1.0
+ */
+@Component
+public class PasswordHashingPolicy {
+    /**
+     * Length of the {@code $2a$NN$} prefix plus the 22 characters of encoded salt.
+     */
+    private static final int SALT_LENGTH = 29;
+
+    private final int cost;
+
+    public PasswordHashingPolicy(AuthProperties properties) {
+        this.cost = properties.isCalibrateBcryptCost()
+                ? calibrate(properties.getMinBcryptCost(), properties.getMaxBcryptCost(), properties.getTargetVerifyMillis())
+                : properties.getBcryptCost();
+        System.out.println("BCrypt cost factor: " + cost);
+    }
+
+    /**
+     * Hashes a password with the current cost factor.
+     *
+     * @param password the plain text password
+     * @return the BCrypt hash, including the cost and the salt
+     */
+    public String hash(String password) {
+        return BCrypt.hashpw(password, BCrypt.gensalt(cost));
+    }
+
+    /**
+     * Extracts the salt part of a BCrypt hash.
+     *
+     * @param hash a BCrypt hash
+     * @return the {@code $2a$NN$salt} prefix of the hash
+     */
+    public String saltOf(String hash) {
+        return hash.substring(0, SALT_LENGTH);
+    }
+
+    /**
+     * Checks whether a stored hash was created with a different cost factor.
+     *
+     * @param hash a stored BCrypt hash
+     * @return {@code true} if the hash should be replaced by one with the current cost
+     */
+    public boolean needsRehash(String hash) {
+        Integer hashCost = costOf(hash);
+        return hashCost != null && hashCost != cost;
+    }
+
+    /**
+     * Returns the cost factor used for new hashes.
+     *
+     * @return BCrypt log2 rounds
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Reads the cost factor from a hash in the {@code $2a$NN$...} format.
+     *
+     * @param hash a BCrypt hash
+     * @return the cost factor, or {@code null} if the hash has an unknown format
+     */
+    private static Integer costOf(String hash) {
+        if (hash == null || hash.length() < SALT_LENGTH || hash.charAt(0) != '$') {
+            return null;
+        }
+        int costStart = hash.indexOf('$', 1) + 1;
+        if (costStart <= 0 || costStart + 2 > hash.length()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(hash.substring(costStart, costStart + 2));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Finds the highest cost whose hashing time stays within the target.
+     *
+     * <p>
+     * Each additional cost step doubles the work, so the time is measured once at the
+     * minimum cost and extrapolated from there.
+     * </p>
+     */
+    private static int calibrate(int minCost, int maxCost, long targetMillis) {
+        String salt = BCrypt.gensalt(minCost);
+        BCrypt.hashpw("calibration", salt); // warm-up
+        long start = System.nanoTime();
+        BCrypt.hashpw("calibration", salt);
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        int cost = minCost;
+        while (cost < maxCost && millis * 2 <= targetMillis) {
+            millis *= 2;
+            cost++;
+        }
+        System.out.println("BCrypt calibration: cost " + cost + " takes about " + Math.round(millis) + " ms");
+        return cost;
+    }
+}
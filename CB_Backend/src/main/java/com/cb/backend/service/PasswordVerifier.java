@@ -0,0 +1,140 @@
+package com.cb.backend.service;
+
+import com.cb.backend.AuthProperties;
+import com.cb.backend.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifies and hashes passwords with BCrypt on a dedicated bounded thread pool.
+ *
+ * <p>
+ * BCrypt is deliberately CPU-expensive. Running it on the servlet request threads lets a
+ * burst of logins occupy all of them and starve other requests. Here the hashing runs
+ * on at most {@code auth.verifier-threads} threads with a queue of
+ * {@code auth.verifier-queue-capacity} pending checks. When the queue is full, or a check
+ * does not finish within {@code auth.verify-timeout-millis}, the login is rejected at once
+ * with {@link TooManyRequestsException}. New hashes are created with the cost factor of
+ * {@link PasswordHashingPolicy}.
+ * </p>
+ *
+ * <p>
+ * Results are returned as {@link CompletableFuture}s that complete on the pool (or, on a
+ * timeout, on the timer thread), so the request thread does not wait for the hashing:
+ * the login endpoint returns the future and the servlet thread is released meanwhile.
+ * </p>
+ *
+ * @author Artem Borisenko
+ * @since 1.0
+ */
+@Service
+public class PasswordVerifier {
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final PasswordHashingPolicy hashingPolicy;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    public PasswordVerifier(AuthProperties properties, PasswordHashingPolicy hashingPolicy) {
+        this.hashingPolicy = hashingPolicy;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                properties.getVerifierThreads(),
+                properties.getVerifierThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getVerifierQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-verifier-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = properties.getVerifyTimeoutMillis();
+    }
+
+    /**
+     * Checks a plain text password against a BCrypt hash.
+     *
+     * @param password the plain text password
+     * @param passwordHash the stored BCrypt hash
+     * @return future of {@code true} if the password matches the hash; it fails with
+     *         {@link IllegalArgumentException} if the hash is not a valid BCrypt hash, or with
+     *         {@link TooManyRequestsException} if the verification pool is saturated
+     */
+    public CompletableFuture<Boolean> matches(String password, String passwordHash) {
+        return runBounded(() -> BCrypt.checkpw(password, passwordHash));
+    }
+
+    /**
+     * Hashes a password according to {@link PasswordHashingPolicy}.
+     *
+     * @param password the plain text password
+     * @return future of the new BCrypt hash; it fails with {@link TooManyRequestsException}
+     *         if the verification pool is saturated
+     */
+    public CompletableFuture<String> hash(String password) {
+        return runBounded(() -> hashingPolicy.hash(password));
+    }
+
+    /**
+     * Runs a hashing task on the pool without waiting for its result.
+     */
+    private <T> CompletableFuture<T> runBounded(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running;
+        try {
+            running = executor.submit(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(tooManyRequests());
+        }
+
+        return result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).handle((value, ex) -> {
+            if (ex == null) {
+                return value;
+            }
+            if (ex instanceof TimeoutException) {
+                running.cancel(true);
+                throw tooManyRequests();
+            }
+            if (ex instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Password verification failed", ex);
+        });
+    }
+
+    private static TooManyRequestsException tooManyRequests() {
+        return new TooManyRequestsException("Слишком много попыток входа, попробуйте позже", RETRY_AFTER_SECONDS);
+    }
+
+    /**
+     * Returns the number of password checks waiting for a free verifier thread.
+     *
+     * @return current queue length
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -2,10 +2,21 @@ package com.cb.backend.service;
 
 import com.cb.backend.dto.ProductDto;
 import com.cb.backend.mapper.ProductMapper;
+import com.cb.backend.model.EntityType;
 import com.cb.backend.model.Product;
 import com.cb.backend.repository.ProductRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -18,6 +29,7 @@ import java.util.stream.Collectors;
  * </p>
  *
  * <p>
+ * Supports resolving many products by name at once with {@link #resolveByNames(Collection)}.
  * Throws {@link RuntimeException} if the product is not found when updating.
  * </p>
  * 
@@ -26,10 +38,23 @@ import java.util.stream.Collectors;
  */
 @Service
 public class ProductService implements CrudService<ProductDto, Long> {
+	/**
+	 * Maximum number of names in one {@code IN (...)} lookup
+	 * (Oracle does not accept more than 1000 expressions in a list).
+	 */
+	private static final int LOOKUP_BATCH_SIZE = 1000;
+
     private final ProductRepository productRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityChangePublisher changePublisher;
     
-    public ProductService(ProductRepository productRepo) {
+    public ProductService(
+    		ProductRepository productRepo,
+    		JdbcTemplate jdbcTemplate,
+    		EntityChangePublisher changePublisher) {
         this.productRepo = productRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.changePublisher = changePublisher;
     }
 
     /**
@@ -67,7 +92,9 @@ public class ProductService implements CrudService<ProductDto, Long> {
 	public ProductDto create(ProductDto dto) {
         Product product = new Product();
         ProductMapper.updateEntity(product, dto);
-        return ProductMapper.toDto(productRepo.save(product));
+        ProductDto created = ProductMapper.toDto(productRepo.save(product));
+        changePublisher.publish(EntityType.PRODUCT, created.getId());
+        return created;
 	}
 
 	/**
@@ -83,7 +110,9 @@ public class ProductService implements CrudService<ProductDto, Long> {
 		Product product = productRepo.findById(id)
 	            .orElseThrow(() -> new RuntimeException("Product not found"));
 		ProductMapper.updateEntity(product, dto);
-	    return ProductMapper.toDto(productRepo.save(product));
+		ProductDto updated = ProductMapper.toDto(productRepo.save(product));
+		changePublisher.publish(EntityType.PRODUCT, id);
+	    return updated;
 	}
 
 	/**
@@ -93,6 +122,107 @@ public class ProductService implements CrudService<ProductDto, Long> {
 	 */
 	@Override
 	public void deleteById(Long id) {
-		productRepo.deleteById(id);		
+		productRepo.deleteById(id);
+		changePublisher.publish(EntityType.PRODUCT, id);
+	}
+
+	/**
+	 * Resolves products for a collection of product names, creating the missing ones.
+	 *
+	 * <p>
+	 * Names are trimmed and compared case-insensitively. Existing products are fetched
+	 * with one {@code IN (...)} query on the lower-cased name, missing products are
+	 * inserted with a single JDBC batch and then read back, so the number of round-trips
+	 * does not depend on the number of names. Every inserted product is published as
+	 * a change, like one created with {@link #create(ProductDto)}.
+	 * </p>
+	 *
+	 * @param names product names as entered by the user
+	 * @return map from normalized name (see {@link #normalizeName(String)}) to {@link Product}
+	 * @throws RuntimeException if any name is {@code null} or blank
+	 */
+	@Transactional
+	public Map<String, Product> resolveByNames(Collection<String> names) {
+		// Normalized name -> name to store if the product has to be created
+		Map<String, String> requested = new LinkedHashMap<>();
+		for (String name : names) {
+			if (name == null || name.isBlank()) {
+				throw new RuntimeException("Ingredient product name is required");
+			}
+			requested.putIfAbsent(normalizeName(name), name.trim());
+		}
+
+		Map<String, Product> resolved = findByNormalizedNames(requested.keySet());
+
+		List<String> missing = requested.entrySet().stream()
+				.filter(e -> !resolved.containsKey(e.getKey()))
+				.map(Map.Entry::getValue)
+				.toList();
+		if (!missing.isEmpty()) {
+			insertNames(missing);
+			Map<String, Product> inserted = findByNormalizedNames(missing.stream().map(ProductService::normalizeName).toList());
+			// Продукты, созданные параллельным запросом, опубликует он сам, лишнее событие безвредно
+			inserted.values().forEach(product -> changePublisher.publish(EntityType.PRODUCT, product.getId()));
+			resolved.putAll(inserted);
+		}
+		return resolved;
+	}
+
+	/**
+	 * Normalizes a product name for case-insensitive comparison.
+	 *
+	 * @param name the product name
+	 * @return trimmed, lower-cased name
+	 */
+	public static String normalizeName(String name) {
+		return name.trim().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Loads products by normalized names in chunks of {@value #LOOKUP_BATCH_SIZE}.
+	 *
+	 * @param normalizedNames trimmed, lower-cased product names
+	 * @return map from normalized name to product (the oldest product wins on duplicates)
+	 */
+	private Map<String, Product> findByNormalizedNames(Collection<String> normalizedNames) {
+		List<String> all = new ArrayList<>(normalizedNames);
+		List<Product> products = new ArrayList<>();
+		for (int from = 0; from < all.size(); from += LOOKUP_BATCH_SIZE) {
+			products.addAll(productRepo.findAllByLowerCaseNameIn(
+					all.subList(from, Math.min(from + LOOKUP_BATCH_SIZE, all.size()))));
+		}
+		products.sort(Comparator.comparing(Product::getId));
+
+		Map<String, Product> result = new HashMap<>();
+		for (Product product : products) {
+			result.putIfAbsent(normalizeName(product.getName()), product);
+		}
+		return result;
+	}
+
+	/**
+	 * Inserts new products with one JDBC batch.
+	 *
+	 * <p>
+	 * If a concurrent request has created one of the products in the meantime, the
+	 * batch fails on the unique constraint and the names are inserted one by one,
+	 * skipping those that already exist.
+	 * </p>
+	 *
+	 * @param names product names to insert
+	 */
+	private void insertNames(List<String> names) {
+		String sql = "INSERT INTO CB_PRODUCT (name) VALUES (?)";
+		try {
+			jdbcTemplate.batchUpdate(sql, names, names.size(), (ps, name) -> ps.setString(1, name));
+		} catch (DataIntegrityViolationException e) {
+			for (String name : names) {
+				try {
+					jdbcTemplate.update(sql, name);
+				} catch (DataIntegrityViolationException ignored) {
+					// Уже создан другим запросом
+				}
+			}
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,334 @@
+package com.cb.backend.service;
+
+import com.cb.backend.RecipeProperties;
+import com.cb.backend.dto.RecipeDto;
+import com.cb.backend.model.ContentStatus;
+import com.cb.backend.model.EntityType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Service class <b>PublicRecipeFeed</b> keeps the list of published recipes as ready-to-send JSON.
+ *
+ * <p>
+ * The feed holds every published recipe, newest first, serialized once into a JSON byte
+ * array together with its MD5 digest. From these the whole list and the pages of
+ * {@code recipes.feed-page-size} recipes are assembled by copying bytes, each with an
+ * {@code ETag} computed from the digests of its recipes (so it is the same on every node).
+ * Requests are answered from this snapshot without touching the database or the JSON
+ * serializer.
+ * </p>
+ *
+ * <p>
+ * The feed listens to entity changes of this and other nodes (see
+ * {@link EntityChangePublisher}). A changed recipe is only marked, and only once its
+ * transaction has committed: a read running concurrently with the change still sees the
+ * old state and must not consume the mark. Before the next read the marked recipes are
+ * reloaded and re-serialized, added if they are published and removed otherwise.
+ * Bursts of changes are thus applied together. Changes of categories, products and users,
+ * whose names are part of the recipe JSON, rebuild the whole feed.
+ * </p>
+ *
+ * <p>
+ * The whole list and the pages are assembled only when they are requested, and a page
+ * whose recipes did not change is taken over from the previous snapshot. A rating change,
+ * which keeps the recipe in its place, thus costs one re-serialized recipe and one page;
+ * the whole list is copied again only if it is requested.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Service
+public class PublicRecipeFeed implements EntityChangeListener {
+    /** Newest first, like the paginated recipe listings. */
+    private static final Comparator<FeedKey> ORDER = Comparator
+            .comparing(FeedKey::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(FeedKey::getId, Comparator.reverseOrder());
+
+    private final RecipeService recipeService;
+    private final ObjectMapper objectMapper;
+    private final int pageSize;
+
+    /** Recipes changed since the snapshot was built. */
+    private final Set<Long> changedIds = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuildAll = true;
+    private volatile Snapshot snapshot;
+
+    // Guarded by this
+    private final NavigableMap<FeedKey, FeedEntry> entries = new TreeMap<>(ORDER);
+    private final Map<Long, FeedKey> keysById = new HashMap<>();
+
+    /**
+     * {@link RecipeService} is injected lazily: it publishes its changes through
+     * {@link EntityChangePublisher}, which in turn notifies this feed.
+     */
+    public PublicRecipeFeed(@Lazy RecipeService recipeService, ObjectMapper objectMapper, RecipeProperties properties) {
+        this.recipeService = recipeService;
+        this.objectMapper = objectMapper;
+        this.pageSize = Math.max(1, properties.getFeedPageSize());
+    }
+
+    @Override
+    public void onEntityChange(EntityType type, Long id) {
+        switch (type) {
+            case RECIPE -> changedIds.add(id);
+            case CATEGORY, PRODUCT, USER -> rebuildAll = true;
+            default -> {
+                // Комментарии и оценки не входят в ленту
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the whole feed before the next read, e.g. after recipes were changed
+     * directly in the database.
+     */
+    public void invalidate() {
+        rebuildAll = true;
+    }
+
+    /**
+     * Returns all published recipes as a JSON array, newest first.
+     *
+     * @return the serialized list with its ETag
+     */
+    public JsonBuffer getAll() {
+        return current().getAll();
+    }
+
+    /**
+     * Returns one page of published recipes as a JSON object with {@code page},
+     * {@code hasMore} and {@code items}.
+     *
+     * @param page zero-based page number; pages past the end are empty
+     * @return the serialized page with its ETag
+     * @throws RuntimeException if the page number is negative
+     */
+    public JsonBuffer getPage(int page) {
+        if (page < 0) {
+            throw new RuntimeException("Page must not be negative: " + page);
+        }
+        return current().getPage(page);
+    }
+
+    /**
+     * Returns the snapshot, applying pending changes first.
+     */
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && !rebuildAll && changedIds.isEmpty()) {
+            return current;
+        }
+        synchronized (this) {
+            if (rebuildAll || snapshot == null) {
+                // Флаги сбрасываются до загрузки, чтобы не потерять изменения во время нее
+                rebuildAll = false;
+                changedIds.clear();
+                entries.clear();
+                keysById.clear();
+                recipeService.findAllByStatus(ContentStatus.PUBLISHED).forEach(this::put);
+            } else if (!changedIds.isEmpty()) {
+                List<Long> ids = new ArrayList<>(changedIds);
+                changedIds.removeAll(ids);
+                ids.forEach(this::remove);
+                recipeService.findPublishedByIds(ids).forEach(this::put);
+            } else {
+                return snapshot;
+            }
+            snapshot = new Snapshot(new ArrayList<>(entries.values()), pageSize, snapshot);
+            return snapshot;
+        }
+    }
+
+    private void put(RecipeDto recipe) {
+        FeedKey key = new FeedKey(recipe.getCreatedAt(), recipe.getId());
+        try {
+            entries.put(key, new FeedEntry(objectMapper.writeValueAsBytes(recipe)));
+        } catch (JsonProcessingException ex) {
+            throw new RuntimeException("Could not serialize recipe " + recipe.getId(), ex);
+        }
+        keysById.put(recipe.getId(), key);
+    }
+
+    private void remove(Long id) {
+        FeedKey key = keysById.remove(id);
+        if (key != null) {
+            entries.remove(key);
+        }
+    }
+
+    private static JsonBuffer buildPage(List<FeedEntry> items, int page, boolean hasMore) {
+        String prefix = "{\"page\":" + page + ",\"hasMore\":" + hasMore + ",\"items\":";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(prefix.getBytes(StandardCharsets.UTF_8));
+        writeArray(out, items);
+        out.write('}');
+        return new JsonBuffer(out.toByteArray(), eTagOf(prefix, items));
+    }
+
+    private static void writeArray(ByteArrayOutputStream out, List<FeedEntry> items) {
+        out.write('[');
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(items.get(i).json);
+        }
+        out.write(']');
+    }
+
+    /**
+     * Computes the entity tag of a list of recipes from their digests instead of their
+     * JSON, which is much shorter.
+     */
+    private static String eTagOf(String prefix, List<FeedEntry> items) {
+        ByteArrayOutputStream digests = new ByteArrayOutputStream(prefix.length() + items.size() * 16);
+        digests.writeBytes(prefix.getBytes(StandardCharsets.UTF_8));
+        items.forEach(item -> digests.writeBytes(item.digest));
+        return "\"" + DigestUtils.md5DigestAsHex(digests.toByteArray()) + "\"";
+    }
+
+    /**
+     * Serialized JSON with its entity tag.
+     */
+    public static final class JsonBuffer {
+        private final byte[] bytes;
+        private final String eTag;
+
+        JsonBuffer(byte[] bytes, String eTag) {
+            this.bytes = bytes;
+            this.eTag = eTag;
+        }
+
+        /**
+         * @return the JSON bytes (UTF-8); must not be modified
+         */
+        public byte[] getBytes() { return bytes; }
+
+        /**
+         * @return strong ETag of the content, quoted
+         */
+        public String getETag() { return eTag; }
+    }
+
+    /**
+     * Serialized recipe with the MD5 digest of its JSON. A recipe that is not changed keeps
+     * its entry, so unchanged pages can be recognized by identity.
+     */
+    private static final class FeedEntry {
+        private final byte[] json;
+        private final byte[] digest;
+
+        FeedEntry(byte[] json) {
+            this.json = json;
+            this.digest = DigestUtils.md5Digest(json);
+        }
+    }
+
+    /**
+     * Position of a recipe in the feed.
+     */
+    private static final class FeedKey {
+        private final LocalDateTime createdAt;
+        private final Long id;
+
+        FeedKey(LocalDateTime createdAt, Long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        LocalDateTime getCreatedAt() { return createdAt; }
+
+        Long getId() { return id; }
+    }
+
+    /**
+     * Serialized state of the feed. The list of recipes is immutable; the whole list and
+     * the pages are built on first use.
+     */
+    private static final class Snapshot {
+        private final List<FeedEntry> items;
+        private final int pageSize;
+        private final AtomicReferenceArray<JsonBuffer> pages;
+        private volatile JsonBuffer all;
+
+        /**
+         * @param previous the snapshot this one replaces, whose built pages with the
+         *        same recipes are taken over; may be {@code null}
+         */
+        Snapshot(List<FeedEntry> items, int pageSize, Snapshot previous) {
+            this.items = items;
+            this.pageSize = pageSize;
+            this.pages = new AtomicReferenceArray<>(Math.max(1, (items.size() + pageSize - 1) / pageSize));
+            if (previous != null && previous.pageSize == pageSize) {
+                for (int page = 0; page < Math.min(pages.length(), previous.pages.length()); page++) {
+                    JsonBuffer built = previous.pages.get(page);
+                    if (built != null && previous.hasSamePage(this, page)) {
+                        pages.set(page, built);
+                    }
+                }
+            }
+        }
+
+        JsonBuffer getAll() {
+            JsonBuffer current = all;
+            if (current == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                writeArray(out, items);
+                current = new JsonBuffer(out.toByteArray(), eTagOf("", items));
+                all = current;
+            }
+            return current;
+        }
+
+        JsonBuffer getPage(int page) {
+            if (page >= pages.length()) {
+                return buildPage(List.of(), page, false);
+            }
+            JsonBuffer current = pages.get(page);
+            if (current == null) {
+                int from = page * pageSize;
+                int to = Math.min(from + pageSize, items.size());
+                current = buildPage(items.subList(from, to), page, to < items.size());
+                pages.set(page, current);
+            }
+            return current;
+        }
+
+        /**
+         * Checks whether a page holds the same recipe entries in both snapshots.
+         */
+        private boolean hasSamePage(Snapshot other, int page) {
+            int from = page * pageSize;
+            int to = Math.min(from + pageSize, items.size());
+            int otherTo = Math.min(from + pageSize, other.items.size());
+            if (to != otherTo || (to < items.size()) != (otherTo < other.items.size())) {
+                return false;
+            }
+            for (int i = from; i < to; i++) {
+                if (items.get(i) != other.items.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
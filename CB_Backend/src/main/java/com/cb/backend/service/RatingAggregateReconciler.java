@@ -0,0 +1,58 @@
+package com.cb.backend.service;
+
+import com.cb.backend.model.EntityType;
+import com.cb.backend.repository.RecipeRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Recomputes the rating aggregates of recipes from their ratings.
+ *
+ * <p>
+ * {@link RatingService} keeps the aggregates of a recipe in step with its ratings. Ratings
+ * inserted, changed or deleted in the database directly (imports, manual fixes, deleted
+ * users) are not seen by it; this job finds the recipes whose aggregates differ from
+ * {@code CB_RATINGS} and recomputes them, by default every night
+ * ({@code recipes.rating-reconcile-cron}).
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Component
+public class RatingAggregateReconciler {
+    /** Keeps the IN list below Oracle's limit of 1000 expressions. */
+    private static final int BATCH_SIZE = 500;
+
+    private final RecipeRepository recipeRepo;
+    private final EntityChangePublisher changePublisher;
+
+    public RatingAggregateReconciler(RecipeRepository recipeRepo, EntityChangePublisher changePublisher) {
+        this.recipeRepo = recipeRepo;
+        this.changePublisher = changePublisher;
+    }
+
+    /**
+     * Recomputes the aggregates of all recipes whose aggregates are out of date.
+     *
+     * @return number of corrected recipes
+     */
+    @Scheduled(cron = "${recipes.rating-reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public int reconcile() {
+        List<Long> ids = recipeRepo.findIdsWithStaleRatingAggregates();
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            recipeRepo.recomputeRatingAggregates(ids.subList(from, Math.min(from + BATCH_SIZE, ids.size())));
+        }
+        for (Long id : ids) {
+            changePublisher.publish(EntityType.RECIPE, id);
+        }
+        if (!ids.isEmpty()) {
+            System.out.println("Reconciled rating aggregates of " + ids.size() + " recipes");
+        }
+        return ids.size();
+    }
+}
@@ -1,7 +1,10 @@
 package com.cb.backend.service;
 
 import com.cb.backend.dto.RatingDto;
+import com.cb.backend.dto.RatingSummaryDto;
 import com.cb.backend.mapper.RatingMapper;
+import com.cb.backend.mapper.RecipeMapper;
+import com.cb.backend.model.EntityType;
 import com.cb.backend.model.Rating;
 import com.cb.backend.model.Recipe;
 import com.cb.backend.model.User;
@@ -9,7 +12,15 @@ import com.cb.backend.repository.RatingRepository;
 import com.cb.backend.repository.RecipeRepository;
 import com.cb.backend.repository.UserRepository;
 
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.PreparedStatement;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,6 +35,19 @@ import java.util.stream.Collectors;
  * </p>
  *
  * <p>
+ * A user has one rating per recipe: {@link #create} inserts it or replaces the previous
+ * value, so rating a recipe again does not add a second rating.
+ * </p>
+ *
+ * <p>
+ * Every change of a rating updates the rating aggregates of its recipe (count, sum and
+ * histogram, see {@link RecipeRepository#addRating}) in the same transaction and is
+ * published as a change of the recipe, whose DTO contains them. Drift, e.g. from ratings
+ * changed directly in the database, is corrected by {@link RatingAggregateReconciler}.
+ * The rating summary of a recipe ({@link #getSummary}) is read from these aggregates.
+ * </p>
+ *
+ * <p>
  * Throws {@link RuntimeException} if referenced user, recipe, or rating is not found.
  * </p>
  * 
@@ -32,14 +56,47 @@ import java.util.stream.Collectors;
  */
 @Service
 public class RatingService implements CrudService<RatingDto, Long> {
+	private static final String SELECT_FOR_UPDATE_SQL =
+			"SELECT id, rating FROM CB_RATINGS WHERE user_id = ? AND recipe_id = ? FOR UPDATE";
+
+	private static final String INSERT_SQL =
+			"INSERT INTO CB_RATINGS (user_id, recipe_id, rating) VALUES (?, ?, ?)";
+
+	private static final String UPDATE_VALUE_SQL =
+			"UPDATE CB_RATINGS SET rating = ? WHERE id = ?";
+
+	// Oracle и H2 понимают один и тот же MERGE (DUAL есть в обеих базах); используется RatingWriteBuffer
+	static final String UPSERT_SQL =
+			"MERGE INTO CB_RATINGS r " +
+			"USING (SELECT CAST(? AS NUMBER(19)) AS user_id, CAST(? AS NUMBER(19)) AS recipe_id, " +
+			"       CAST(? AS NUMBER(10)) AS rating FROM DUAL) s " +
+			"ON (r.user_id = s.user_id AND r.recipe_id = s.recipe_id) " +
+			"WHEN MATCHED THEN UPDATE SET r.rating = s.rating " +
+			"WHEN NOT MATCHED THEN INSERT (user_id, recipe_id, rating) VALUES (s.user_id, s.recipe_id, s.rating)";
+
     private final RatingRepository ratingRepo;
     private final UserRepository userRepo;
     private final RecipeRepository recipeRepo;
+    private final EntityChangePublisher changePublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RatingWriteBuffer writeBuffer;
     
-    public RatingService(RatingRepository ratingRepo, UserRepository userRepo, RecipeRepository recipeRepo) {
+    public RatingService(
+    		RatingRepository ratingRepo,
+    		UserRepository userRepo,
+    		RecipeRepository recipeRepo,
+    		EntityChangePublisher changePublisher,
+    		JdbcTemplate jdbcTemplate,
+    		TransactionTemplate transactionTemplate,
+    		RatingWriteBuffer writeBuffer) {
         this.ratingRepo = ratingRepo;
         this.userRepo = userRepo;
         this.recipeRepo = recipeRepo;
+        this.changePublisher = changePublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.writeBuffer = writeBuffer;
     }
 
     /**
@@ -68,23 +125,73 @@ public class RatingService implements CrudService<RatingDto, Long> {
 	}
 
 	/**
-	 * Creates a new rating.
+	 * Retrieves the rating summary of a recipe.
+	 *
+	 * @param recipeId the identifier of the recipe
+	 * @return {@link RatingSummaryDto} with the number, average and histogram of the ratings
+	 * @throws EntityNotFoundException if the recipe does not exist
+	 */
+	public RatingSummaryDto getSummary(Long recipeId) {
+		return recipeRepo.findRatingsById(recipeId)
+				.map(ratings -> RecipeMapper.toRatingSummaryDto(recipeId, ratings))
+				.orElseThrow(() -> new EntityNotFoundException("Recipe not found with id=" + recipeId));
+	}
+
+	/**
+	 * Rates a recipe: creates the rating of the user for the recipe, or replaces its value
+	 * if the user has already rated the recipe.
+	 *
+	 * <p>
+	 * A rating costs three statements. First the previous rating of the user for the recipe
+	 * is read and locked with {@code SELECT ... FOR UPDATE}, since the recipe aggregates are
+	 * only adjusted by the difference. Then the rating row is written with an {@code INSERT}
+	 * (returning the generated ID) or an {@code UPDATE} by ID, and finally the aggregates are
+	 * updated ({@link RecipeRepository#addRating} or {@link RecipeRepository#replaceRating}).
+	 * Repeating the same value costs only the {@code SELECT}. User and recipe are not loaded;
+	 * unknown IDs are rejected by the foreign keys.
+	 * </p>
+	 *
+	 * <p>
+	 * The row is not written with a single {@code MERGE}: the aggregates need the previous
+	 * value, and a {@code MERGE} cannot return it on Oracle. Two first ratings of the same
+	 * pair racing each other are resolved by the unique key: the loser retries and takes
+	 * the update path.
+	 * </p>
+	 *
+	 * <p>
+	 * With the write-behind buffer enabled ({@code recipes.rating-buffer.enabled}) the rating
+	 * is only logged and queued in {@link RatingWriteBuffer}; the returned DTO then has no ID
+	 * and unknown users or recipes are dropped when the buffer is flushed.
+	 * </p>
 	 *
 	 * @param dto the {@link RatingDto} containing rating data
-	 * @return {@link RatingDto} of the created rating
-	 * @throws RuntimeException if the associated user or recipe is not found
+	 * @return {@link RatingDto} of the created or updated rating
+	 * @throws RuntimeException if the value is out of range or the user or recipe does not exist
+	 * @throws com.cb.backend.TooManyRequestsException if the write-behind buffer is full
 	 */
 	@Override
 	public RatingDto create(RatingDto dto) {
-		User user = userRepo.findById(dto.getUserId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-		
-		Recipe recipe = recipeRepo.findById(dto.getRecipeId())
-                .orElseThrow(() -> new RuntimeException("Recipe not found"));
-		
-        Rating rating = new Rating();
-        RatingMapper.updateEntity(rating, dto, recipe, user);
-        return RatingMapper.toDto(ratingRepo.save(rating));
+		validateValue(dto.getRating());
+		if (dto.getUserId() == null || dto.getRecipeId() == null) {
+			throw new RuntimeException("User and recipe are required");
+		}
+		if (writeBuffer.isEnabled()) {
+			writeBuffer.submit(dto.getUserId(), dto.getRecipeId(), dto.getRating());
+			RatingDto accepted = new RatingDto();
+			accepted.setRating(dto.getRating());
+			accepted.setUserId(dto.getUserId());
+			accepted.setRecipeId(dto.getRecipeId());
+			return accepted;
+		}
+		// Транзакция открывается только для прямой записи, не для буфера
+		return transactionTemplate.execute(status -> {
+			try {
+				return upsert(dto.getUserId(), dto.getRecipeId(), dto.getRating());
+			} catch (DuplicateKeyException e) {
+				// Первая оценка пришла одновременно с другой, теперь строка существует
+				return upsert(dto.getUserId(), dto.getRecipeId(), dto.getRating());
+			}
+		});
 	}
 
 	/**
@@ -93,20 +200,36 @@ public class RatingService implements CrudService<RatingDto, Long> {
 	 * @param id  the identifier of the rating to update
 	 * @param dto the {@link RatingDto} containing updated rating data
 	 * @return {@link RatingDto} of the updated rating
-	 * @throws RuntimeException if the rating, associated user, or recipe is not found
+	 * @throws RuntimeException if the rating, associated user, or recipe is not found, the value
+	 *         is out of range or the user has already rated the other recipe
 	 */
 	@Override
+	@Transactional
 	public RatingDto update(Long id, RatingDto dto) {
-        User user = userRepo.findById(dto.getUserId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-		Recipe recipe = recipeRepo.findById(dto.getRecipeId())
-                .orElseThrow(() -> new RuntimeException("Recipe not found"));
-		
+		validateValue(dto.getRating());
         Rating rating = ratingRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Rating not found"));
+        Long oldRecipeId = rating.getRecipe().getId();
+        // Оценки без значения (старые данные) учтены только в количестве
+        int oldValue = rating.getRating() != null ? rating.getRating() : 0;
+        // Пользователь и рецепт не загружаются, их наличие проверяют внешние ключи
+        User user = userRepo.getReferenceById(dto.getUserId());
+        Recipe recipe = recipeRepo.getReferenceById(dto.getRecipeId());
         RatingMapper.updateEntity(rating, dto, recipe, user);
-        return RatingMapper.toDto(ratingRepo.save(rating));
+        RatingDto updated = RatingMapper.toDto(ratingRepo.saveAndFlush(rating));
+        if (oldRecipeId.equals(dto.getRecipeId())) {
+            if (oldValue != rating.getRating()) {
+                recipeRepo.replaceRating(oldRecipeId, oldValue, rating.getRating());
+                changePublisher.publish(EntityType.RECIPE, oldRecipeId);
+            }
+        } else {
+            recipeRepo.addRating(oldRecipeId, oldValue, -1);
+            recipeRepo.addRating(dto.getRecipeId(), rating.getRating(), 1);
+            changePublisher.publish(EntityType.RECIPE, oldRecipeId);
+            changePublisher.publish(EntityType.RECIPE, dto.getRecipeId());
+        }
+        changePublisher.publish(EntityType.RATING, id);
+        return updated;
 	}
 
 	/**
@@ -115,7 +238,64 @@ public class RatingService implements CrudService<RatingDto, Long> {
 	 * @param id the identifier of the rating to delete
 	 */
 	@Override
+	@Transactional
 	public void deleteById(Long id) {
-		ratingRepo.deleteById(id);				
+		Rating rating = ratingRepo.findById(id).orElse(null);
+		if (rating == null) {
+			return;
+		}
+		Long recipeId = rating.getRecipe().getId();
+		ratingRepo.delete(rating);
+		recipeRepo.addRating(recipeId, rating.getRating() != null ? rating.getRating() : 0, -1);
+		changePublisher.publish(EntityType.RATING, id);
+		changePublisher.publish(EntityType.RECIPE, recipeId);
+	}
+
+	private RatingDto upsert(Long userId, Long recipeId, int value) {
+		// Текущая оценка блокируется до конца транзакции
+		List<Rating> previous = jdbcTemplate.query(SELECT_FOR_UPDATE_SQL, (rs, rowNum) -> {
+			Rating rating = new Rating();
+			rating.setId(rs.getLong("id"));
+			rating.setRating(rs.getObject("rating", Integer.class));
+			return rating;
+		}, userId, recipeId);
+
+		Long id;
+		if (previous.isEmpty()) {
+			// Параллельная первая оценка той же пары даст DuplicateKeyException, см. create
+			KeyHolder keyHolder = new GeneratedKeyHolder();
+			jdbcTemplate.update(con -> {
+				PreparedStatement ps = con.prepareStatement(INSERT_SQL, new String[] {"id"});
+				ps.setLong(1, userId);
+				ps.setLong(2, recipeId);
+				ps.setInt(3, value);
+				return ps;
+			}, keyHolder);
+			id = keyHolder.getKey().longValue();
+			recipeRepo.addRating(recipeId, value, 1);
+			changePublisher.publish(EntityType.RECIPE, recipeId);
+		} else {
+			id = previous.get(0).getId();
+			int oldValue = previous.get(0).getRating() != null ? previous.get(0).getRating() : 0;
+			if (oldValue != value) {
+				jdbcTemplate.update(UPDATE_VALUE_SQL, value, id);
+				recipeRepo.replaceRating(recipeId, oldValue, value);
+				changePublisher.publish(EntityType.RECIPE, recipeId);
+			}
+		}
+		changePublisher.publish(EntityType.RATING, id);
+
+		RatingDto result = new RatingDto();
+		result.setId(id);
+		result.setRating(value);
+		result.setUserId(userId);
+		result.setRecipeId(recipeId);
+		return result;
+	}
+
+	private static void validateValue(Integer value) {
+		if (value == null || value < Rating.MIN_VALUE || value > Rating.MAX_VALUE) {
+			throw new RuntimeException("Rating must be between " + Rating.MIN_VALUE + " and " + Rating.MAX_VALUE);
+		}
 	}
 }
\ No newline at end of file
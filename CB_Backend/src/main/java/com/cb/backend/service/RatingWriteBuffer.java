@@ -0,0 +1,454 @@
+package com.cb.backend.service;
+
+import com.cb.backend.RecipeProperties;
+import com.cb.backend.TooManyRequestsException;
+import com.cb.backend.model.EntityType;
+import com.cb.backend.repository.RecipeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Service class <b>RatingWriteBuffer</b> writes ratings to the database in the background.
+ *
+ * <p>
+ * With {@code recipes.rating-buffer.enabled=true} {@link RatingService#create} only hands the
+ * rating to this buffer and returns. Ratings are kept per {@code (user, recipe)}, so a user
+ * rating a recipe several times before the next flush results in one write with the last
+ * value. The buffer is flushed every {@code recipes.rating-buffer.flush-millis} and as soon
+ * as it holds {@code recipes.rating-buffer.flush-size} ratings: the ratings are upserted
+ * with one JDBC batch and the aggregates of the affected recipes are recomputed once per
+ * flush. At most {@code recipes.rating-buffer.capacity} ratings are pending; beyond that
+ * new ratings are rejected with {@link TooManyRequestsException}.
+ * </p>
+ *
+ * <p>
+ * Every accepted rating is first appended to a log file in {@code recipes.rating-buffer.log-dir}
+ * and forced to disk before {@link #submit} returns, unless
+ * {@code recipes.rating-buffer.sync-log=false}. Forcing uses group commit: records are
+ * appended under the buffer lock, but the lock is not held while forcing; one waiting
+ * thread forces the log for all records appended so far and releases the others, so
+ * concurrent ratings share one fsync. Each flush starts a new log segment (the old one is
+ * forced when it is closed); the segments are deleted once their ratings are committed. On
+ * startup the remaining segments are read back into the buffer, so accepted ratings survive
+ * a crash. The log is node-local: every node writes and recovers its own ratings.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+@Service
+public class RatingWriteBuffer {
+    private static final String SEGMENT_PREFIX = "ratings-";
+    private static final String SEGMENT_EXTENSION = ".log";
+    /** Keeps the IN list of the aggregate update below Oracle's limit of 1000 expressions. */
+    private static final int RECIPE_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RecipeRepository recipeRepo;
+    private final EntityChangePublisher changePublisher;
+    private final RecipeProperties.RatingBuffer properties;
+    private final Path logDir;
+    /** Runs the flushes triggered by the number of pending ratings. */
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("rating-flush").factory());
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    /** Serializes flushes, so segments are deleted in order. */
+    private final Object flushLock = new Object();
+    /** Coordinates the threads waiting for their records to be forced to disk. */
+    private final Object syncLock = new Object();
+
+    // Guarded by this
+    private Map<RatingKey, Integer> pending = new LinkedHashMap<>();
+    private FileChannel log;
+    private long segment;
+    /** Sequence number of the last appended record. */
+    private long appended;
+
+    // Guarded by syncLock
+    /** Sequence number up to which all records are on disk. */
+    private long synced;
+    private boolean syncing;
+
+    public RatingWriteBuffer(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            RecipeRepository recipeRepo,
+            EntityChangePublisher changePublisher,
+            RecipeProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.recipeRepo = recipeRepo;
+        this.changePublisher = changePublisher;
+        this.properties = properties.getRatingBuffer();
+        this.logDir = Paths.get(this.properties.getLogDir()).toAbsolutePath().normalize();
+    }
+
+    /**
+     * @return {@code true} if ratings are written through this buffer
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Accepts a rating for a later write.
+     *
+     * @param userId   the rating user
+     * @param recipeId the rated recipe
+     * @param value    the rating value, already validated
+     * @throws TooManyRequestsException if the buffer is full
+     * @throws RuntimeException if the rating cannot be written to the log; the rating may
+     *         still be written, so the request can safely be repeated
+     */
+    public void submit(Long userId, Long recipeId, int value) {
+        RatingKey key = new RatingKey(userId, recipeId);
+        int size;
+        long sequence;
+        synchronized (this) {
+            if (pending.size() >= properties.getCapacity() && !pending.containsKey(key)) {
+                throw new TooManyRequestsException("Too many pending ratings, try again later", 1);
+            }
+            append(userId + " " + recipeId + " " + value + "\n");
+            pending.put(key, value);
+            size = pending.size();
+            sequence = ++appended;
+        }
+        if (properties.isSyncLog()) {
+            awaitSynced(sequence);
+        }
+        if (size >= properties.getFlushSize() && flushQueued.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushQueued.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * @return number of ratings waiting to be written
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Writes all pending ratings to the database.
+     *
+     * <p>
+     * If the write fails, the ratings stay pending (unless they were rated again in the
+     * meantime) and their log segments are kept. Ratings rejected by the database, e.g.
+     * for a deleted user or recipe, are dropped.
+     * </p>
+     *
+     * @return number of written ratings
+     */
+    @Scheduled(fixedDelayString = "${recipes.rating-buffer.flush-millis:500}")
+    public int flush() {
+        synchronized (flushLock) {
+            Map<RatingKey, Integer> batch;
+            long closedSegment;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return 0;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                closedSegment = segment;
+                // Новые оценки пишутся в следующий сегмент
+                closeLog();
+            }
+
+            try {
+                int written = write(batch);
+                deleteSegmentsUpTo(closedSegment);
+                return written;
+            } catch (RuntimeException ex) {
+                System.err.println("Could not write " + batch.size() + " buffered ratings: " + ex.getMessage());
+                synchronized (this) {
+                    batch.forEach(pending::putIfAbsent);
+                }
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Reads the log segments left by the previous run back into the buffer.
+     * Called once on startup, before the first rating is accepted.
+     */
+    @PostConstruct
+    public void recover() {
+        if (!Files.isDirectory(logDir)) {
+            return;
+        }
+        List<Path> segments = listSegments();
+        synchronized (this) {
+            for (Path file : segments) {
+                try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+                    lines.forEach(this::replay);
+                } catch (IOException ex) {
+                    throw new RuntimeException("Could not read rating log " + file, ex);
+                }
+                segment = Math.max(segment, segmentNumber(file));
+            }
+        }
+        if (!segments.isEmpty()) {
+            System.out.println("Recovered " + getPendingCount() + " buffered ratings from " + segments.size() + " log segments");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdownNow();
+        flush();
+        synchronized (this) {
+            closeLog();
+        }
+    }
+
+    /**
+     * Upserts the ratings and recomputes the aggregates of their recipes in one transaction,
+     * falling back to one transaction per rating if the batch is rejected.
+     */
+    private int write(Map<RatingKey, Integer> batch) {
+        List<Map.Entry<RatingKey, Integer>> entries = new ArrayList<>(batch.entrySet());
+        int written;
+        try {
+            transactionTemplate.executeWithoutResult(status -> upsert(entries));
+            written = entries.size();
+        } catch (DataIntegrityViolationException ex) {
+            // Неизвестный пользователь или рецепт: пишем по одной и пропускаем такие оценки
+            written = 0;
+            for (Map.Entry<RatingKey, Integer> entry : entries) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> upsert(List.of(entry)));
+                    written++;
+                } catch (DataIntegrityViolationException rejected) {
+                    System.err.println("Dropped buffered rating " + entry.getKey() + ": " + rejected.getMessage());
+                }
+            }
+        }
+        entries.stream()
+                .map(entry -> entry.getKey().recipeId)
+                .distinct()
+                .forEach(recipeId -> changePublisher.publish(EntityType.RECIPE, recipeId));
+        return written;
+    }
+
+    private void upsert(Collection<Map.Entry<RatingKey, Integer>> entries) {
+        jdbcTemplate.batchUpdate(RatingService.UPSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getKey().userId);
+            ps.setLong(2, entry.getKey().recipeId);
+            ps.setInt(3, entry.getValue());
+        });
+        List<Long> recipeIds = entries.stream()
+                .map(entry -> entry.getKey().recipeId)
+                .distinct()
+                .toList();
+        for (int from = 0; from < recipeIds.size(); from += RECIPE_BATCH_SIZE) {
+            recipeRepo.recomputeRatingAggregates(recipeIds.subList(from, Math.min(from + RECIPE_BATCH_SIZE, recipeIds.size())));
+        }
+    }
+
+    /**
+     * Appends one record to the current log segment, opening a new segment if needed.
+     */
+    private void append(String record) {
+        try {
+            if (log == null) {
+                Files.createDirectories(logDir);
+                segment++;
+                log = FileChannel.open(segmentFile(segment),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(record.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not write rating log", ex);
+        }
+    }
+
+    /**
+     * Waits until the record with the given sequence number is on disk.
+     *
+     * <p>
+     * If no other thread is forcing the log, the caller does it for all records appended
+     * so far; otherwise it waits for that thread and checks again.
+     * </p>
+     */
+    private void awaitSynced(long sequence) {
+        synchronized (syncLock) {
+            while (synced < sequence && syncing) {
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while writing rating log", ex);
+                }
+            }
+            if (synced >= sequence) {
+                return;
+            }
+            syncing = true;
+        }
+
+        long target;
+        FileChannel channel;
+        synchronized (this) {
+            target = appended;
+            channel = log;
+        }
+        IOException failure = null;
+        try {
+            if (channel != null) {
+                channel.force(false);
+            }
+        } catch (ClosedChannelException ex) {
+            // Сегмент закрыт при сбросе и уже записан на диск в closeLog
+        } catch (IOException ex) {
+            failure = ex;
+        }
+        synchronized (syncLock) {
+            syncing = false;
+            if (failure == null) {
+                synced = Math.max(synced, target);
+            }
+            syncLock.notifyAll();
+        }
+        if (failure != null) {
+            throw new RuntimeException("Could not write rating log", failure);
+        }
+    }
+
+    private void closeLog() {
+        if (log == null) {
+            return;
+        }
+        try {
+            if (properties.isSyncLog()) {
+                log.force(false);
+            }
+            log.close();
+        } catch (IOException ex) {
+            System.err.println("Could not close rating log: " + ex.getMessage());
+        }
+        log = null;
+    }
+
+    private void replay(String line) {
+        String[] parts = line.trim().split(" ");
+        if (parts.length != 3) {
+            return; // Оборванная последняя запись
+        }
+        try {
+            pending.put(new RatingKey(Long.valueOf(parts[0]), Long.valueOf(parts[1])), Integer.valueOf(parts[2]));
+        } catch (NumberFormatException ignored) {
+            // Оборванная последняя запись
+        }
+    }
+
+    private void deleteSegmentsUpTo(long last) {
+        for (Path file : listSegments()) {
+            if (segmentNumber(file) <= last) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ex) {
+                    System.err.println("Could not delete rating log " + file + ": " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the log segments, oldest first
+     */
+    private List<Path> listSegments() {
+        if (!Files.isDirectory(logDir)) {
+            return List.of();
+        }
+        Set<Path> segments = new TreeSet<>((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)));
+        try (Stream<Path> files = Files.list(logDir)) {
+            files.filter(file -> segmentNumber(file) > 0).forEach(segments::add);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not list rating log", ex);
+        }
+        return new ArrayList<>(segments);
+    }
+
+    private Path segmentFile(long number) {
+        return logDir.resolve(SEGMENT_PREFIX + number + SEGMENT_EXTENSION);
+    }
+
+    /**
+     * @return the number of a log segment, or 0 if the file is not one
+     */
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_EXTENSION)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_EXTENSION.length()));
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * Rating of one user for one recipe.
+     */
+    private static final class RatingKey {
+        private final Long userId;
+        private final Long recipeId;
+
+        RatingKey(Long userId, Long recipeId) {
+            this.userId = userId;
+            this.recipeId = recipeId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RatingKey other && userId.equals(other.userId) && recipeId.equals(other.recipeId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, recipeId);
+        }
+
+        @Override
+        public String toString() {
+            return "user " + userId + ", recipe " + recipeId;
+        }
+    }
+}
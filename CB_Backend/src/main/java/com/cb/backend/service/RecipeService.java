@@ -1,9 +1,15 @@
 package com.cb.backend.service;
 
+import com.cb.backend.CacheConfig;
+import com.cb.backend.RecipeProperties;
+import com.cb.backend.dto.CursorPageDto;
 import com.cb.backend.dto.IngredientDto;
 import com.cb.backend.dto.RecipeDto;
+import com.cb.backend.dto.RecipeSummaryDto;
 import com.cb.backend.mapper.RecipeMapper;
 import com.cb.backend.model.Category;
+import com.cb.backend.model.ContentStatus;
+import com.cb.backend.model.EntityType;
 import com.cb.backend.model.Ingredient;
 import com.cb.backend.model.Product;
 import com.cb.backend.model.Recipe;
@@ -11,14 +17,25 @@ import com.cb.backend.model.RecipeIngredientKey;
 import com.cb.backend.model.User;
 import com.cb.backend.repository.CategoryRepository;
 import com.cb.backend.repository.IngredientRepository;
-import com.cb.backend.repository.ProductRepository;
 import com.cb.backend.repository.RecipeRepository;
+import com.cb.backend.repository.RecipeSummary;
 import com.cb.backend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +50,10 @@ import java.util.stream.Collectors;
  *
  * <p>
  * Automatically creates products for ingredients if they do not exist.
+ * The duration of each step of recipe creation is recorded in the
+ * {@value #CREATE_TIMER} timer, tagged with the step name.
+ * Recipes by ID are cached in {@value CacheConfig#RECIPES} (see {@link CacheConfig});
+ * writes are published with {@link EntityChangePublisher}, which evicts the entry on all nodes.
  * Throws {@link RuntimeException} if referenced user, category, or recipe is not found.
  * </p>
  * 
@@ -41,23 +62,43 @@ import java.util.stream.Collectors;
  */
 @Service
 public class RecipeService implements CrudService<RecipeDto, Long> {
+	/**
+	 * Maximum number of recipe IDs in one ingredient {@code IN (...)} query
+	 * (Oracle does not accept more than 1000 expressions in a list).
+	 */
+	private static final int INGREDIENT_BATCH_SIZE = 1000;
+
+	/**
+	 * Name of the timer that records the steps of {@link #create(RecipeDto)}.
+	 */
+	public static final String CREATE_TIMER = "recipes.create";
+
     private final RecipeRepository recipeRepo;
     private final UserRepository userRepo;
     private final CategoryRepository categoryRepo;
-    private final ProductRepository productRepo;
+    private final ProductService productService;
     private final IngredientRepository ingredientRepo;
+    private final RecipeProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final EntityChangePublisher changePublisher;
 
     public RecipeService(
     		RecipeRepository recipeRepo,
     		UserRepository userRepo,
     		CategoryRepository categoryRepo,
-    		ProductRepository productRepo,
-    		IngredientRepository ingredientRepo) {
+    		ProductService productService,
+    		IngredientRepository ingredientRepo,
+    		RecipeProperties properties,
+    		MeterRegistry meterRegistry,
+    		EntityChangePublisher changePublisher) {
         this.recipeRepo = recipeRepo;
         this.userRepo = userRepo;
         this.categoryRepo = categoryRepo;
-        this.productRepo = productRepo;
+        this.productService = productService;
         this.ingredientRepo = ingredientRepo;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.changePublisher = changePublisher;
     }
 
     /**
@@ -82,41 +123,170 @@ public class RecipeService implements CrudService<RecipeDto, Long> {
 		// Убираем дубликаты, которые могут появиться из-за JOIN FETCH
 		// Используем LinkedHashSet для сохранения порядка
 		java.util.LinkedHashSet<Recipe> uniqueRecipes = new java.util.LinkedHashSet<>(recipes);
-		// Инициализируем ингредиенты отдельно, чтобы избежать MultipleBagFetchException
-		for (Recipe recipe : uniqueRecipes) {
-			recipe.getIngredients().size(); // Инициализация lazy коллекции
+		// Загружаем ингредиенты отдельно, чтобы избежать MultipleBagFetchException
+		return toDtosWithIngredients(uniqueRecipes);
+	}
+
+	/**
+	 * Retrieves one page of recipes using keyset pagination, newest first.
+	 *
+	 * <p>
+	 * Only the requested page is read from the database: the page IDs are selected by
+	 * seeking past the cursor position, then the page rows are loaded with their
+	 * categories and author. The cost of a request therefore does not depend on the
+	 * total number of recipes or on how deep the client has scrolled.
+	 * </p>
+	 *
+	 * @param status the content status to filter by, or {@code null} for all statuses
+	 * @param cursor continuation token from the previous page, or {@code null} for the first page
+	 * @param size   requested page size, clamped to the configured limits
+	 * @return {@link CursorPageDto} with the recipes of the page and the next cursor
+	 * @throws RuntimeException if the cursor is malformed
+	 */
+	@Transactional(readOnly = true)
+	public CursorPageDto<RecipeDto> findPage(ContentStatus status, String cursor, Integer size) {
+		int pageSize = resolvePageSize(size);
+		KeysetCursor position = KeysetCursor.decode(cursor);
+
+		// Fetch one extra ID to find out whether there is a next page
+		List<Long> ids = recipeRepo.findPageIds(
+				status,
+				position != null ? position.getCreatedAt() : null,
+				position != null ? position.getId() : null,
+				PageRequest.of(0, pageSize + 1));
+		boolean hasMore = ids.size() > pageSize;
+		if (hasMore) {
+			ids = ids.subList(0, pageSize);
 		}
-		return uniqueRecipes.stream()
-				.map(RecipeMapper::toDto)
-				.collect(Collectors.toList());
+		if (ids.isEmpty()) {
+			return new CursorPageDto<>(List.of(), null);
+		}
+
+		Map<Long, Recipe> recipesById = recipeRepo.findAllWithCategoriesByIdIn(ids).stream()
+				.collect(Collectors.toMap(Recipe::getId, Function.identity()));
+		List<Recipe> recipes = ids.stream()
+				.map(recipesById::get)
+				.filter(Objects::nonNull)
+				.toList();
+
+		String nextCursor = null;
+		if (hasMore && !recipes.isEmpty()) {
+			Recipe last = recipes.get(recipes.size() - 1);
+			nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+		}
+		return new CursorPageDto<>(toDtosWithIngredients(recipes), nextCursor);
+	}
+
+	/**
+	 * Retrieves one page of recipe summaries using keyset pagination, newest first.
+	 *
+	 * <p>
+	 * Intended for card grids and other list views. Only the summary columns are
+	 * selected, so the recipe text, ingredients and categories are never loaded.
+	 * </p>
+	 *
+	 * @param status     the content status to filter by, or {@code null} for all statuses
+	 * @param categoryId the category to filter by, or {@code null} for all categories
+	 * @param cursor     continuation token from the previous page, or {@code null} for the first page
+	 * @param size       requested page size, clamped to the configured limits
+	 * @return {@link CursorPageDto} with the summaries of the page and the next cursor
+	 * @throws RuntimeException if the cursor is malformed
+	 */
+	@Transactional(readOnly = true)
+	public CursorPageDto<RecipeSummaryDto> findSummaryPage(
+			ContentStatus status, Long categoryId, String cursor, Integer size) {
+		int pageSize = resolvePageSize(size);
+		KeysetCursor position = KeysetCursor.decode(cursor);
+
+		List<RecipeSummary> summaries = recipeRepo.findSummaryPage(
+				status,
+				categoryId,
+				position != null ? position.getCreatedAt() : null,
+				position != null ? position.getId() : null,
+				PageRequest.of(0, pageSize + 1));
+		boolean hasMore = summaries.size() > pageSize;
+		if (hasMore) {
+			summaries = summaries.subList(0, pageSize);
+		}
+
+		String nextCursor = null;
+		if (hasMore) {
+			RecipeSummary last = summaries.get(summaries.size() - 1);
+			nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+		}
+		return new CursorPageDto<>(
+				summaries.stream().map(RecipeMapper::toSummaryDto).collect(Collectors.toList()),
+				nextCursor);
 	}
 
 	/**
 	 * Finds a recipe by its ID.
 	 *
+	 * <p>
+	 * The result is cached, so repeated views of a recipe are served from memory.
+	 * The returned DTO is shared and must not be modified.
+	 * </p>
+	 *
 	 * @param id the identifier of the recipe
 	 * @return {@link RecipeDto} of the found recipe, or {@code null} if not found
 	 */
 	@Override
 	@Transactional(readOnly = true)
+	@Cacheable(cacheNames = CacheConfig.RECIPES, key = "#id", unless = "#result == null")
 	public RecipeDto findById(Long id) {
 		return recipeRepo.findByIdWithCategories(id)
-				.map(recipe -> {
-					recipe.getIngredients().size(); // Инициализация lazy коллекции
-					return RecipeMapper.toDto(recipe);
-				})
+				.map(recipe -> toDtosWithIngredients(List.of(recipe)).get(0))
 				.orElse(null);
 	}
 
+	/**
+	 * Finds the published recipes among the given IDs, bypassing the cache.
+	 *
+	 * <p>
+	 * Used by {@link PublicRecipeFeed} to update single entries of the feed.
+	 * </p>
+	 *
+	 * @param ids identifiers of the recipes
+	 * @return {@link RecipeDto} of those recipes that exist and are published, in no particular order
+	 */
+	@Transactional(readOnly = true)
+	public List<RecipeDto> findPublishedByIds(Collection<Long> ids) {
+		List<Long> idList = List.copyOf(ids);
+		List<Recipe> recipes = new ArrayList<>();
+		for (int from = 0; from < idList.size(); from += INGREDIENT_BATCH_SIZE) {
+			List<Long> batch = idList.subList(from, Math.min(from + INGREDIENT_BATCH_SIZE, idList.size()));
+			for (Recipe recipe : recipeRepo.findAllWithCategoriesByIdIn(batch)) {
+				if (recipe.getStatus() == ContentStatus.PUBLISHED) {
+					recipes.add(recipe);
+				}
+			}
+		}
+		return toDtosWithIngredients(recipes);
+	}
+
 	/**
 	 * Creates a new recipe along with its ingredients.
 	 *
+	 * <p>
+	 * Runs in one transaction. The ingredients are flushed within the {@code ingredients}
+	 * step, so its timing covers the inserts. If {@code recipes.verify-writes} is enabled,
+	 * the stored ingredients are then counted and a mismatch fails the request and rolls
+	 * back the whole recipe.
+	 * </p>
+	 *
 	 * @param dto the {@link RecipeDto} containing recipe data
 	 * @return {@link RecipeDto} of the created recipe
 	 * @throws RuntimeException if the associated user or any category/product is not found
 	 */
 	@Override
+	@Transactional
 	public RecipeDto create(RecipeDto dto) {
+		RecipeDto created = timed("total", () -> doCreate(dto));
+		changePublisher.publish(EntityType.RECIPE, created.getId());
+		return created;
+	}
+
+	private RecipeDto doCreate(RecipeDto dto) {
         try {
             System.out.println("Creating recipe with DTO: " + dto);
             
@@ -147,13 +317,14 @@ public class RecipeService implements CrudService<RecipeDto, Long> {
                         })
                         .toList();
 
-            Recipe recipe = new Recipe();
-            RecipeMapper.updateEntity(recipe, dto, user, categories, new ArrayList<>());
+            Recipe newRecipe = new Recipe();
+            RecipeMapper.updateEntity(newRecipe, dto, user, categories, new ArrayList<>());
             // Сохраняем рецепт сначала, чтобы получить ID
-            recipe = recipeRepo.save(recipe);
+            Recipe savedRecipe = timed("recipe", () -> recipeRepo.save(newRecipe));
 
             // Теперь создаем ингредиенты с привязкой к сохраненному рецепту
-            List<Ingredient> ingredients = createIngredientsForRecipe(dto, recipe);
+            List<Ingredient> ingredients = timed("products", () -> createIngredientsForRecipe(dto, savedRecipe));
+            Recipe recipe = savedRecipe;
             if (!ingredients.isEmpty()) {
                 try {
                     System.out.println("Adding " + ingredients.size() + " ingredients to recipe ID: " + recipe.getId());
@@ -162,16 +333,13 @@ public class RecipeService implements CrudService<RecipeDto, Long> {
                     for (Ingredient ingredient : ingredients) {
                         recipe.getIngredients().add(ingredient);
                     }
-                    // Сохраняем рецепт - ингредиенты сохранятся каскадно
-                    recipe = recipeRepo.save(recipe);
+                    // Сохраняем рецепт - ингредиенты сохранятся каскадно; flush, чтобы шаг включал вставки
+                    recipe = timed("ingredients", () -> recipeRepo.saveAndFlush(savedRecipe));
                     System.out.println("Successfully saved recipe with ingredients");
-                    
-                    // Проверяем, что ингредиенты действительно сохранились
-                    final Long recipeId = recipe.getId(); // Сохраняем ID в final переменную для использования в лямбде
-                    List<Ingredient> savedIngredients = ingredientRepo.findAll().stream()
-                        .filter(ing -> ing.getId().getRecipeId().equals(recipeId))
-                        .toList();
-                    System.out.println("Verified: " + savedIngredients.size() + " ingredients found in database for recipe ID: " + recipeId);
+
+                    if (properties.isVerifyWrites()) {
+                        timed("verify", () -> verifyIngredientCount(savedRecipe.getId(), ingredients.size()));
+                    }
                 } catch (Exception e) {
                     System.err.println("Error saving ingredients for recipe ID " + recipe.getId() + ": " + e.getMessage());
                     e.printStackTrace();
@@ -197,15 +365,24 @@ public class RecipeService implements CrudService<RecipeDto, Long> {
 	/**
 	 * Updates an existing recipe and its ingredients.
 	 *
+	 * <p>
+	 * Runs in one transaction, so a concurrent update of the same recipe fails on its
+	 * {@code version} instead of mixing both ingredient lists. The version is incremented
+	 * even if only the ingredients changed.
+	 * </p>
+	 *
 	 * @param id the identifier of the recipe to update
 	 * @param dto the {@link RecipeDto} containing updated recipe data
 	 * @return {@link RecipeDto} of the updated recipe
 	 * @throws RuntimeException if the recipe, user, or any category/product is not found
+	 * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the {@code version} of the DTO is outdated
 	 */
 	@Override
+	@Transactional
 	public RecipeDto update(Long id, RecipeDto dto) {
 		Recipe recipe = recipeRepo.findById(id)
 	            .orElseThrow(() -> new RuntimeException("Recipe not found"));
+		VersionCheck.check(Recipe.class, id, dto.getVersion(), recipe.getVersion());
 
 	    var user = userRepo.findById(dto.getUserDto().getId())
 	            .orElseThrow(() -> new RuntimeException("User not found"));
@@ -218,17 +395,22 @@ public class RecipeService implements CrudService<RecipeDto, Long> {
 	                .toList();
 
 	    RecipeMapper.updateEntity(recipe, dto, user, categories, new ArrayList<>());
+	    // Ингредиенты — часть рецепта: версия растет и при замене только их
+	    recipe.setUpdatedAt(LocalDateTime.now());
         recipeRepo.save(recipe);
 
         ingredientRepo.deleteAll(recipe.getIngredients());
         recipe.getIngredients().clear();
-        recipeRepo.save(recipe);
+        // Удаление выполняется до вставки строк с теми же ключами
+        ingredientRepo.flush();
 
         List<Ingredient> ingredients = createIngredientsForRecipe(dto, recipe);
         ingredientRepo.saveAll(ingredients);
         recipe.getIngredients().addAll(ingredients);
 
-        return RecipeMapper.toDto(recipeRepo.save(recipe));
+        RecipeDto updated = RecipeMapper.toDto(recipeRepo.saveAndFlush(recipe));
+        changePublisher.publish(EntityType.RECIPE, id);
+        return updated;
 	}
 
 	/**
@@ -239,6 +421,7 @@ public class RecipeService implements CrudService<RecipeDto, Long> {
 	@Override
 	public void deleteById(Long id) {
 		recipeRepo.deleteById(id);
+		changePublisher.publish(EntityType.RECIPE, id);
 	}
 	
 	/**
@@ -248,7 +431,8 @@ public class RecipeService implements CrudService<RecipeDto, Long> {
 	 * For each ingredient in the DTO:
 	 * <ul>
 	 *     <li>Validates that the product name is not null or blank.</li>
-	 *     <li>Finds an existing {@link Product} by name (case-insensitive) or creates a new one if it does not exist.</li>
+	 *     <li>Resolves all {@link Product}s by name (case-insensitive) in one batch via
+	 *         {@link ProductService#resolveByNames(Collection)}, creating the missing ones.</li>
 	 *     <li>Creates a new {@link Ingredient} linking the {@link Recipe} and the {@link Product} with the specified quantity.</li>
 	 * </ul>
 	 * </p>
@@ -267,28 +451,20 @@ public class RecipeService implements CrudService<RecipeDto, Long> {
                 throw new RuntimeException("Recipe must be saved before creating ingredients");
             }
             
+            // Все продукты одним запросом вместо запроса на каждый ингредиент
+            Map<String, Product> products = productService.resolveByNames(dto.getIngredientsDto().stream()
+                    .map(IngredientDto::getProductName)
+                    .toList());
+
             for (IngredientDto ingredientDto : dto.getIngredientsDto()) {
-                if (ingredientDto.getProductName() == null || ingredientDto.getProductName().isBlank()) {
-                    throw new RuntimeException("Ingredient product name is required");
-                }
+                Product product = products.get(ProductService.normalizeName(ingredientDto.getProductName()));
 
-                Product product = productRepo
-                        .findByNameIgnoreCase(ingredientDto.getProductName().trim())
-                        .orElseGet(() -> {
-                            Product newProduct = new Product();
-                            newProduct.setName(ingredientDto.getProductName().trim());
-                            Product saved = productRepo.save(newProduct);
-                            System.out.println("Created new product: " + saved.getId() + " - " + saved.getName());
-                            return saved;
-                        });
-
-                if (product.getId() == null) {
-                    throw new RuntimeException("Product ID is null after save for: " + ingredientDto.getProductName());
+                if (product == null || product.getId() == null) {
+                    throw new RuntimeException("Product could not be resolved for: " + ingredientDto.getProductName());
                 }
 
                 // Создаем ключ с ID рецепта и продукта
                 RecipeIngredientKey key = new RecipeIngredientKey(recipe.getId(), product.getId());
-                System.out.println("Creating ingredient with key: recipeId=" + recipe.getId() + ", productId=" + product.getId());
                 
                 Ingredient ingredient = new Ingredient();
                 ingredient.setId(key);
@@ -312,4 +488,80 @@ public class RecipeService implements CrudService<RecipeDto, Long> {
 
         return ingredients;
     }
+
+	/**
+	 * Converts recipes to DTOs, loading the ingredients of all of them in batches.
+	 *
+	 * <p>
+	 * Instead of initializing the lazy ingredient collection of every recipe (one query
+	 * per recipe plus one per product), ingredients and their products are fetched with
+	 * one {@code IN (...)} query per {@value #INGREDIENT_BATCH_SIZE} recipes and grouped
+	 * by recipe ID.
+	 * </p>
+	 *
+	 * @param recipes recipes to convert, with categories and user already loaded
+	 * @return list of {@link RecipeDto} in the iteration order of {@code recipes}
+	 */
+	private List<RecipeDto> toDtosWithIngredients(Collection<Recipe> recipes) {
+		if (recipes.isEmpty()) {
+			return new ArrayList<>();
+		}
+		List<Long> recipeIds = recipes.stream().map(Recipe::getId).toList();
+		Map<Long, List<Ingredient>> ingredientsByRecipe = new HashMap<>();
+		for (int from = 0; from < recipeIds.size(); from += INGREDIENT_BATCH_SIZE) {
+			List<Long> batch = recipeIds.subList(from, Math.min(from + INGREDIENT_BATCH_SIZE, recipeIds.size()));
+			for (Ingredient ingredient : ingredientRepo.findAllWithProductByRecipeIdIn(batch)) {
+				ingredientsByRecipe
+						.computeIfAbsent(ingredient.getId().getRecipeId(), k -> new ArrayList<>())
+						.add(ingredient);
+			}
+		}
+		return recipes.stream()
+				.map(recipe -> RecipeMapper.toDto(recipe, ingredientsByRecipe.getOrDefault(recipe.getId(), List.of())))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Checks that the expected number of ingredients is stored for a recipe.
+	 *
+	 * @param recipeId identifier of the recipe
+	 * @param expected number of ingredients that were saved
+	 * @return the stored number of ingredients
+	 * @throws RuntimeException if the stored number differs from {@code expected}
+	 */
+	private long verifyIngredientCount(Long recipeId, int expected) {
+		long stored = ingredientRepo.countByIdRecipeId(recipeId);
+		if (stored != expected) {
+			throw new RuntimeException("Expected " + expected + " ingredients for recipe ID "
+					+ recipeId + " but found " + stored);
+		}
+		return stored;
+	}
+
+	/**
+	 * Runs one step of a recipe write and records its duration.
+	 *
+	 * @param step name of the step, used as the {@code step} tag of {@value #CREATE_TIMER}
+	 * @param action the step to run
+	 * @return result of the step
+	 */
+	private <T> T timed(String step, Supplier<T> action) {
+		return Timer.builder(CREATE_TIMER)
+				.tag("step", step)
+				.register(meterRegistry)
+				.record(action);
+	}
+
+	/**
+	 * Clamps the requested page size to the configured limits.
+	 *
+	 * @param size requested page size, may be {@code null}
+	 * @return page size between 1 and {@link RecipeProperties#getMaxPageSize()}
+	 */
+	private int resolvePageSize(Integer size) {
+		if (size == null || size <= 0) {
+			return properties.getDefaultPageSize();
+		}
+		return Math.min(size, properties.getMaxPageSize());
+	}
 }
\ No newline at end of file
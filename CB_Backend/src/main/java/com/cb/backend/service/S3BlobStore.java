@@ -0,0 +1,171 @@
+package com.cb.backend.service;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link BlobStore} keeping files in an S3-compatible bucket (AWS S3, MinIO, Ceph, ...).
+ *
+ * <p>
+ * Files up to one part size are written with a single {@code PutObject}; larger files are
+ * streamed as a multipart upload, holding at most one part in memory. Ranged reads use
+ * {@code GetObject} with an HTTP {@code Range}, so serving a part of a file does not
+ * download the whole object. An optional key prefix allows sharing a bucket.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+public class S3BlobStore implements BlobStore, AutoCloseable {
+    /**
+     * Smallest part size accepted by S3 for all parts but the last.
+     */
+    public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final S3Client client;
+    private final String bucket;
+    private final String keyPrefix;
+    private final int partSize;
+
+    public S3BlobStore(S3Client client, String bucket, String keyPrefix, int partSize) {
+        this.client = client;
+        this.bucket = bucket;
+        String prefix = keyPrefix == null ? "" : keyPrefix;
+        this.keyPrefix = prefix.isEmpty() || prefix.endsWith("/") ? prefix : prefix + "/";
+        this.partSize = Math.max(MIN_PART_SIZE, partSize);
+    }
+
+    @Override
+    public void put(String key, InputStream content) {
+        String objectKey = objectKey(key);
+        try {
+            byte[] part = content.readNBytes(partSize);
+            if (part.length < partSize) {
+                client.putObject(PutObjectRequest.builder().bucket(bucket).key(objectKey).build(),
+                        RequestBody.fromBytes(part));
+                return;
+            }
+            putMultipart(objectKey, part, content);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + key, ex);
+        }
+    }
+
+    @Override
+    public Optional<BlobMetadata> stat(String key) {
+        try {
+            HeadObjectResponse head = client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucket).key(objectKey(key)).build());
+            return Optional.of(new BlobMetadata(head.contentLength(), head.lastModified()));
+        } catch (NoSuchKeyException ex) {
+            return Optional.empty();
+        } catch (S3Exception ex) {
+            if (ex.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new RuntimeException("Could not read file " + key, ex);
+        }
+    }
+
+    @Override
+    public InputStream open(String key, long offset) {
+        GetObjectRequest.Builder request = GetObjectRequest.builder().bucket(bucket).key(objectKey(key));
+        if (offset > 0) {
+            request.range("bytes=" + offset + "-");
+        }
+        try {
+            return client.getObject(request.build());
+        } catch (S3Exception ex) {
+            throw new RuntimeException("Could not read file " + key, ex);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(objectKey(key)).build());
+        } catch (S3Exception ex) {
+            throw new RuntimeException("Could not delete file " + key, ex);
+        }
+    }
+
+    @Override
+    public List<String> list(String prefix) {
+        ListObjectsV2Request request = ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(keyPrefix + prefix)
+                .build();
+        try {
+            return client.listObjectsV2Paginator(request).contents().stream()
+                    .map(S3Object::key)
+                    .map(objectKey -> objectKey.substring(keyPrefix.length()))
+                    .filter(key -> !BlobStore.isInternal(key))
+                    .sorted()
+                    .toList();
+        } catch (S3Exception ex) {
+            throw new RuntimeException("Could not list files with prefix " + prefix, ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+
+    /**
+     * Streams content as a multipart upload; aborts the upload if anything fails.
+     */
+    private void putMultipart(String objectKey, byte[] firstPart, InputStream content) throws IOException {
+        String uploadId = client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket).key(objectKey).build()).uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            byte[] part = firstPart;
+            int partNumber = 1;
+            while (part.length > 0) {
+                String eTag = client.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucket).key(objectKey).uploadId(uploadId).partNumber(partNumber).build(),
+                        RequestBody.fromBytes(part)).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+                partNumber++;
+                part = content.readNBytes(partSize);
+            }
+            client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket).key(objectKey).uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        } catch (IOException | RuntimeException ex) {
+            client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket).key(objectKey).uploadId(uploadId).build());
+            throw ex;
+        }
+    }
+
+    private String objectKey(String key) {
+        if (key.contains("..") || key.startsWith("/")) {
+            throw new RuntimeException("Invalid file key: " + key);
+        }
+        return keyPrefix + key;
+    }
+}
@@ -2,6 +2,7 @@ package com.cb.backend.service;
 
 import com.cb.backend.dto.UserDto;
 import com.cb.backend.mapper.UserMapper;
+import com.cb.backend.model.EntityType;
 import com.cb.backend.model.User;
 import com.cb.backend.repository.UserRepository;
 import org.springframework.stereotype.Service;
@@ -19,6 +20,7 @@ import java.util.stream.Collectors;
  *
  * <p>
  * Supports searching users by username with {@link #searchUsersByUsername(String)}.
+ * Passwords are hashed according to {@link PasswordHashingPolicy}.
  * Throws {@link RuntimeException} if the user is not found when updating.
  * </p>
  * 
@@ -28,9 +30,16 @@ import java.util.stream.Collectors;
 @Service
 public class UserService implements CrudService<UserDto, Long> {
     private final UserRepository userRepo;
+    private final PasswordHashingPolicy hashingPolicy;
+    private final EntityChangePublisher changePublisher;
 
-    public UserService(UserRepository userRepo) {
+    public UserService(
+            UserRepository userRepo,
+            PasswordHashingPolicy hashingPolicy,
+            EntityChangePublisher changePublisher) {
         this.userRepo = userRepo;
+        this.hashingPolicy = hashingPolicy;
+        this.changePublisher = changePublisher;
     }
 
     /**
@@ -67,8 +76,10 @@ public class UserService implements CrudService<UserDto, Long> {
     @Override
     public UserDto create(UserDto dto) {
         User user = new User();
-        UserMapper.updateEntity(user, dto);
-        return UserMapper.toDto(userRepo.save(user));
+        UserMapper.updateEntity(user, dto, hashingPolicy);
+        UserDto created = UserMapper.toDto(userRepo.save(user));
+        changePublisher.publish(EntityType.USER, created.getId());
+        return created;
     }
     
     /**
@@ -83,8 +94,10 @@ public class UserService implements CrudService<UserDto, Long> {
     public UserDto update(Long id, UserDto dto) {
         User user = userRepo.findById(id)
             .orElseThrow(() -> new RuntimeException("User not found"));
-        UserMapper.updateEntity(user, dto);
-        return UserMapper.toDto(userRepo.save(user));
+        UserMapper.updateEntity(user, dto, hashingPolicy);
+        UserDto updated = UserMapper.toDto(userRepo.save(user));
+        changePublisher.publish(EntityType.USER, id);
+        return updated;
     }
     
     /**
@@ -95,6 +108,7 @@ public class UserService implements CrudService<UserDto, Long> {
     @Override
     public void deleteById(Long id) {
     	userRepo.deleteById(id);
+    	changePublisher.publish(EntityType.USER, id);
     }
 
     /**
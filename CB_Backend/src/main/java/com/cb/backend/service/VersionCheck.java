@@ -0,0 +1,37 @@
+package com.cb.backend.service;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+/**
+ * Checks the version sent by a client against the stored entity before an update.
+ *
+ * <p>
+ * The {@code @Version} column of an entity protects a read-modify-write within one
+ * transaction. A client that edits a DTO for a while sends the version it has read back
+ * with the update; if the entity was changed in the meantime the update is rejected with
+ * {@link ObjectOptimisticLockingFailureException}, answered with 409 Conflict. Clients that
+ * send no version are not checked.
+ * </p>
+ *
+ * @author Dmytro Babich
+ * @since 1.0
+ */
+final class VersionCheck {
+    private VersionCheck() {
+    }
+
+    /**
+     * Rejects an update based on an outdated version.
+     *
+     * @param entityClass the class of the updated entity
+     * @param id the identifier of the updated entity
+     * @param expected the version the client has read, or {@code null} to skip the check
+     * @param actual the current version of the entity
+     * @throws ObjectOptimisticLockingFailureException if the versions differ
+     */
+    static void check(Class<?> entityClass, Object id, Long expected, Long actual) {
+        if (expected != null && !expected.equals(actual)) {
+            throw new ObjectOptimisticLockingFailureException(entityClass, id);
+        }
+    }
+}
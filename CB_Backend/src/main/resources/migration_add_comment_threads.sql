@@ -0,0 +1,27 @@
+-- Migration: Threaded comments in CB_COMMENTS
+-- A reply references its parent comment; thread_path holds the zero-padded IDs (12 digits
+-- followed by '/') from the top-level comment down to the comment itself, depth its level
+-- and reply_count the number of replies below it. Existing comments become top-level.
+
+ALTER TABLE CB_COMMENTS ADD (
+    parent_id   NUMBER(19),
+    thread_path VARCHAR2(255 CHAR),
+    depth       NUMBER(10) DEFAULT 0 NOT NULL,
+    reply_count NUMBER(10) DEFAULT 0 NOT NULL
+);
+
+-- Longer comment texts
+ALTER TABLE CB_COMMENTS MODIFY (text VARCHAR2(2000 CHAR));
+
+ALTER TABLE CB_COMMENTS ADD CONSTRAINT FK_COMMENTS_PARENT
+    FOREIGN KEY (parent_id) REFERENCES CB_COMMENTS (id);
+
+UPDATE CB_COMMENTS SET thread_path = LPAD(id, 12, '0') || '/' WHERE thread_path IS NULL;
+
+-- Top-level comments of a recipe replace the index on all comments of a recipe
+DROP INDEX IDX_COMMENTS_RECIPE_CREATED;
+CREATE INDEX IDX_COMMENTS_RECIPE_THREADS ON CB_COMMENTS (recipe_id, depth, created_at, id);
+CREATE INDEX IDX_COMMENTS_THREAD_PATH ON CB_COMMENTS (thread_path);
+CREATE INDEX IDX_COMMENTS_PARENT ON CB_COMMENTS (parent_id);
+
+COMMIT;
@@ -0,0 +1,23 @@
+-- Migration: Add rating aggregates (count, sum, histogram) to CB_RECIPES
+-- and fill them from the existing ratings in CB_RATINGS.
+
+ALTER TABLE CB_RECIPES ADD (
+    rating_count NUMBER(10) DEFAULT 0 NOT NULL,
+    rating_sum   NUMBER(19) DEFAULT 0 NOT NULL,
+    rating_1     NUMBER(10) DEFAULT 0 NOT NULL,
+    rating_2     NUMBER(10) DEFAULT 0 NOT NULL,
+    rating_3     NUMBER(10) DEFAULT 0 NOT NULL,
+    rating_4     NUMBER(10) DEFAULT 0 NOT NULL,
+    rating_5     NUMBER(10) DEFAULT 0 NOT NULL
+);
+
+UPDATE CB_RECIPES r SET
+    rating_count = (SELECT COUNT(*) FROM CB_RATINGS x WHERE x.recipe_id = r.id),
+    rating_sum   = (SELECT NVL(SUM(x.rating), 0) FROM CB_RATINGS x WHERE x.recipe_id = r.id),
+    rating_1     = (SELECT COUNT(*) FROM CB_RATINGS x WHERE x.recipe_id = r.id AND x.rating = 1),
+    rating_2     = (SELECT COUNT(*) FROM CB_RATINGS x WHERE x.recipe_id = r.id AND x.rating = 2),
+    rating_3     = (SELECT COUNT(*) FROM CB_RATINGS x WHERE x.recipe_id = r.id AND x.rating = 3),
+    rating_4     = (SELECT COUNT(*) FROM CB_RATINGS x WHERE x.recipe_id = r.id AND x.rating = 4),
+    rating_5     = (SELECT COUNT(*) FROM CB_RATINGS x WHERE x.recipe_id = r.id AND x.rating = 5);
+
+COMMIT;
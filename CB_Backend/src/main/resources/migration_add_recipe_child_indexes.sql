@@ -0,0 +1,9 @@
+-- Migration: Indexes for the comments and ratings of one recipe
+-- GET /api/recipes/{id}/comments seeks by (recipe_id, created_at, id), newest first.
+-- The rating aggregates are reconciled per recipe and value (see RatingAggregateReconciler).
+
+CREATE INDEX IDX_COMMENTS_RECIPE_CREATED ON CB_COMMENTS (recipe_id, created_at, id);
+
+CREATE INDEX IDX_RATINGS_RECIPE_VALUE ON CB_RATINGS (recipe_id, rating);
+
+COMMIT;
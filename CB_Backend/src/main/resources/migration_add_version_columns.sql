@@ -0,0 +1,21 @@
+-- Migration: Add version columns for optimistic locking
+-- to CB_RECIPES, CB_BLOGS, CB_COMMENTS and CB_CATEGORY tables.
+-- Existing rows start at version 0.
+
+ALTER TABLE CB_RECIPES ADD (
+    version NUMBER(19) DEFAULT 0 NOT NULL
+);
+
+ALTER TABLE CB_BLOGS ADD (
+    version NUMBER(19) DEFAULT 0 NOT NULL
+);
+
+ALTER TABLE CB_COMMENTS ADD (
+    version NUMBER(19) DEFAULT 0 NOT NULL
+);
+
+ALTER TABLE CB_CATEGORY ADD (
+    version NUMBER(19) DEFAULT 0 NOT NULL
+);
+
+COMMIT;
@@ -0,0 +1,21 @@
+-- Migration: created_at is required for recipes and comments
+-- Lists are paginated by (created_at, id). Rows without created_at sorted first in
+-- Oracle's DESC order and produced a cursor ("null|<id>") that could not be decoded, so
+-- they are backfilled (with the last update, or the epoch if unknown) and the column
+-- is made NOT NULL. New rows always get it from @PrePersist.
+
+-- Check rows without creation time (informational)
+SELECT 'CB_RECIPES' AS table_name, COUNT(*) AS cnt FROM CB_RECIPES WHERE created_at IS NULL
+UNION ALL
+SELECT 'CB_COMMENTS', COUNT(*) FROM CB_COMMENTS WHERE created_at IS NULL;
+
+UPDATE CB_RECIPES SET created_at = NVL(updated_at, TIMESTAMP '1970-01-01 00:00:00')
+WHERE created_at IS NULL;
+
+UPDATE CB_COMMENTS SET created_at = NVL(updated_at, TIMESTAMP '1970-01-01 00:00:00')
+WHERE created_at IS NULL;
+
+ALTER TABLE CB_RECIPES MODIFY (created_at NOT NULL);
+ALTER TABLE CB_COMMENTS MODIFY (created_at NOT NULL);
+
+COMMIT;
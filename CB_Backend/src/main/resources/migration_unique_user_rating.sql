@@ -0,0 +1,27 @@
+-- Migration: One rating per user and recipe in CB_RATINGS
+-- Ratings are now upserted (MERGE) on (user_id, recipe_id). Earlier versions inserted
+-- a new row on every rating, so duplicates are removed first, keeping the newest one.
+
+-- Check duplicates (informational)
+SELECT user_id, recipe_id, COUNT(*) AS cnt
+FROM CB_RATINGS
+GROUP BY user_id, recipe_id
+HAVING COUNT(*) > 1;
+
+DELETE FROM CB_RATINGS
+WHERE id NOT IN (SELECT MAX(id) FROM CB_RATINGS GROUP BY user_id, recipe_id);
+
+ALTER TABLE CB_RATINGS ADD CONSTRAINT UX_RATINGS_USER_RECIPE UNIQUE (user_id, recipe_id);
+
+-- Recompute the rating aggregates of the recipes that had duplicates
+UPDATE CB_RECIPES r SET
+    rating_count = (SELECT COUNT(*) FROM CB_RATINGS x WHERE x.recipe_id = r.id),
+    rating_sum   = (SELECT NVL(SUM(x.rating), 0) FROM CB_RATINGS x WHERE x.recipe_id = r.id),
+    rating_1     = (SELECT COUNT(*) FROM CB_RATINGS x WHERE x.recipe_id = r.id AND x.rating = 1),
+    rating_2     = (SELECT COUNT(*) FROM CB_RATINGS x WHERE x.recipe_id = r.id AND x.rating = 2),
+    rating_3     = (SELECT COUNT(*) FROM CB_RATINGS x WHERE x.recipe_id = r.id AND x.rating = 3),
+    rating_4     = (SELECT COUNT(*) FROM CB_RATINGS x WHERE x.recipe_id = r.id AND x.rating = 4),
+    rating_5     = (SELECT COUNT(*) FROM CB_RATINGS x WHERE x.recipe_id = r.id AND x.rating = 5)
+WHERE r.rating_count <> (SELECT COUNT(*) FROM CB_RATINGS x WHERE x.recipe_id = r.id);
+
+COMMIT;
@@ -0,0 +1,14 @@
+-- Migration: Case-insensitive unique index on CB_USERS.username
+-- Login looks users up with UPPER(username) = UPPER(?), this index serves that
+-- lookup and prevents usernames that differ only in case.
+
+-- Check for usernames that differ only in case (must be resolved before creating the index)
+SELECT UPPER(username) AS username_upper, COUNT(*) AS cnt
+FROM CB_USERS
+GROUP BY UPPER(username)
+HAVING COUNT(*) > 1;
+
+-- Function-based unique index
+CREATE UNIQUE INDEX UX_USERS_USERNAME_UPPER ON CB_USERS (UPPER(username));
+
+COMMIT;
@@ -0,0 +1,204 @@
+package com.cb.backend.tests;
+
+import com.cb.backend.AuthProperties;
+import com.cb.backend.TooManyRequestsException;
+import com.cb.backend.model.Role;
+import com.cb.backend.model.User;
+import com.cb.backend.repository.UserRepository;
+import com.cb.backend.service.LoginRateLimiter;
+import com.cb.backend.service.PasswordHashingPolicy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthIntegrationTest {
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepo;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private AuthProperties authProperties;
+    @Autowired
+    private PasswordHashingPolicy hashingPolicy;
+
+    @BeforeEach
+    void setUp() {
+        userRepo.deleteAll();
+        userRepo.save(createUser("LoginUser", BCrypt.hashpw(PASSWORD, BCrypt.gensalt(4))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepo.deleteAll();
+    }
+
+    @Test
+    void testLoginIgnoresUsernameCase() throws Exception {
+        login("loginuser", PASSWORD)
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.user.username").value("LoginUser"));
+
+        login("LOGINUSER", "wrong")
+                .andExpect(jsonPath("$.success").value(false));
+
+        login("nobody", PASSWORD)
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void testLoginCostIsIndependentOfUserCount() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        login("loginuser", PASSWORD).andExpect(jsonPath("$.success").value(true));
+        long fewUsersQueries = statistics.getPrepareStatementCount();
+        long fewUsersEntities = statistics.getEntityLoadCount();
+
+        List<User> others = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            others.add(createUser("user" + i, "hash"));
+        }
+        userRepo.saveAll(others);
+
+        statistics.clear();
+        login("loginuser", PASSWORD).andExpect(jsonPath("$.success").value(true));
+        long manyUsersQueries = statistics.getPrepareStatementCount();
+        long manyUsersEntities = statistics.getEntityLoadCount();
+
+        assertThat(manyUsersQueries).isEqualTo(fewUsersQueries).isEqualTo(1);
+        assertThat(manyUsersEntities).isEqualTo(fewUsersEntities).isEqualTo(1);
+    }
+
+    @Test
+    void testLoginRehashesPasswordWithOutdatedCost() throws Exception {
+        String outdatedHash = BCrypt.hashpw(PASSWORD, BCrypt.gensalt(hashingPolicy.getCost() + 1));
+        User user = userRepo.save(createUser("OldHashUser", outdatedHash));
+        assertThat(hashingPolicy.needsRehash(outdatedHash)).isTrue();
+
+        login("oldhashuser", PASSWORD).andExpect(jsonPath("$.success").value(true));
+
+        User updated = userRepo.findById(user.getId()).orElseThrow();
+        assertThat(updated.getPasswordHash()).isNotEqualTo(outdatedHash);
+        assertThat(hashingPolicy.needsRehash(updated.getPasswordHash())).isFalse();
+        assertThat(updated.getPasswordHash()).startsWith(updated.getPasswordSalt());
+        assertThat(BCrypt.checkpw(PASSWORD, updated.getPasswordHash())).isTrue();
+
+        login("oldhashuser", PASSWORD).andExpect(jsonPath("$.success").value(true));
+    }
+
+    @Test
+    void testLoginIsThrottledPerUsername() throws Exception {
+        for (int i = 0; i < authProperties.getMaxAttemptsPerUsername(); i++) {
+            login("Throttled", "wrong", "10.0.0." + i).andExpect(status().isOk());
+        }
+
+        login("throttled", "wrong", "10.0.1.1")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void testOnlyFailedLoginsAreCountedAndKnownAddressesAreNotLockedOut() throws Exception {
+        userRepo.save(createUser("Owner", BCrypt.hashpw(PASSWORD, BCrypt.gensalt(hashingPolicy.getCost()))));
+        for (int i = 0; i <= authProperties.getMaxAttemptsPerUsername(); i++) {
+            login("owner", PASSWORD, "10.0.3.1").andExpect(jsonPath("$.success").value(true));
+        }
+
+        for (int i = 0; i < authProperties.getMaxAttemptsPerUsername(); i++) {
+            login("owner", "wrong", "10.0.4." + i).andExpect(status().isOk());
+        }
+
+        login("owner", PASSWORD, "10.0.5.1")
+                .andExpect(status().isTooManyRequests());
+        login("owner", PASSWORD, "10.0.3.1")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+    }
+
+    @Test
+    void testConcurrentAttemptsCannotExceedLimit() {
+        LoginRateLimiter limiter = new LoginRateLimiter(authProperties);
+        int limit = authProperties.getMaxAttemptsPerUsername();
+        AtomicInteger admitted = new AtomicInteger();
+
+        List<CompletableFuture<Void>> attempts = new ArrayList<>();
+        for (int i = 0; i < limit * 4; i++) {
+            attempts.add(CompletableFuture.runAsync(() -> {
+                try {
+                    limiter.acquire("racer", null);
+                    admitted.incrementAndGet();
+                } catch (TooManyRequestsException e) {
+                    // Отклонено лимитом
+                }
+            }));
+        }
+        attempts.forEach(CompletableFuture::join);
+
+        assertThat(admitted).hasValue(limit);
+    }
+
+    @Test
+    void testLoginIsThrottledPerClientAddress() throws Exception {
+        for (int i = 0; i < authProperties.getMaxAttemptsPerIp(); i++) {
+            login("someone" + i, "wrong", "10.0.2.1").andExpect(status().isOk());
+        }
+
+        login("someone-else", "wrong", "10.0.2.1")
+                .andExpect(status().isTooManyRequests());
+        login("someone-else", "wrong", "10.0.2.2")
+                .andExpect(status().isOk());
+    }
+
+    private ResultActions login(String username, String password) throws Exception {
+        return login(username, password, "127.0.0.1").andExpect(status().isOk());
+    }
+
+    private ResultActions login(String username, String password, String clientAddress) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"" + username + "\", \"password\": \"" + password + "\"}")
+                        .with(request -> {
+                            request.setRemoteAddr(clientAddress);
+                            return request;
+                        }))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private User createUser(String username, String passwordHash) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username.toLowerCase() + "@test.com");
+        user.setPasswordHash(passwordHash);
+        user.setRole(Role.USER);
+        user.onCreate();
+        return user;
+    }
+}
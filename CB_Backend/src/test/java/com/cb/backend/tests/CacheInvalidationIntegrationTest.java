@@ -0,0 +1,215 @@
+package com.cb.backend.tests;
+
+import com.cb.backend.CacheConfig;
+import com.cb.backend.CachingProperties;
+import com.cb.backend.dto.CategoryDto;
+import com.cb.backend.dto.UserDto;
+import com.cb.backend.model.Category;
+import com.cb.backend.model.EntityChange;
+import com.cb.backend.model.EntityType;
+import com.cb.backend.model.Product;
+import com.cb.backend.repository.CategoryRepository;
+import com.cb.backend.repository.EntityChangeRepository;
+import com.cb.backend.service.CategoryService;
+import com.cb.backend.service.DatabaseChangeTransport;
+import com.cb.backend.service.EntityVersionRegistry;
+import com.cb.backend.service.ProductService;
+import com.cb.backend.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CacheInvalidationIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private CategoryRepository categoryRepo;
+    @Autowired
+    private EntityChangeRepository changeRepo;
+    @Autowired
+    private DatabaseChangeTransport transport;
+    @Autowired
+    private CachingProperties cachingProperties;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private EntityVersionRegistry versionRegistry;
+
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.CATEGORIES).clear();
+        transport.poll();
+        changeRepo.deleteAll();
+        categoryRepo.deleteAll();
+
+        category = new Category();
+        category.setName("Soups");
+        category = categoryRepo.save(category);
+    }
+
+    @AfterEach
+    void tearDown() {
+        changeRepo.deleteAll();
+        categoryRepo.deleteAll();
+    }
+
+    @Test
+    void testChangesAreBroadcastToOtherNodes() throws Exception {
+        DatabaseChangeTransport otherNode = new DatabaseChangeTransport(changeRepo, transactionManager, cachingProperties);
+        List<String> received = new ArrayList<>();
+        otherNode.subscribe((type, id) -> received.add(type + ":" + id));
+
+        mockMvc.perform(put("/api/categories/" + category.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Stews\"}"))
+                .andExpect(status().isOk());
+
+        assertThat(changeRepo.findAll()).singleElement()
+                .satisfies(change -> assertThat(change.getNodeId()).isEqualTo(transport.getNodeId()));
+        otherNode.poll();
+        assertThat(received).containsExactly("CATEGORY:" + category.getId());
+
+        otherNode.poll();
+        assertThat(received).hasSize(1);
+    }
+
+    @Test
+    void testChangeCommittedOutOfIdOrderIsStillDelivered() {
+        DatabaseChangeTransport otherNode = new DatabaseChangeTransport(changeRepo, transactionManager, cachingProperties);
+        List<Long> received = new ArrayList<>();
+        otherNode.subscribe((type, id) -> received.add(id));
+
+        EntityChange late = saveChange(1L);
+        saveChange(2L);
+        // Запись с меньшим ID еще не закоммичена, когда другой узел читает журнал
+        changeRepo.delete(late);
+        otherNode.poll();
+        assertThat(received).containsExactly(2L);
+
+        jdbcTemplate.update("INSERT INTO CB_ENTITY_CHANGES (id, entity_type, entity_id, node_id, created_at) VALUES (?, ?, ?, ?, ?)",
+                late.getId(), EntityType.CATEGORY.name(), 1L, late.getNodeId(), LocalDateTime.now());
+        otherNode.poll();
+        otherNode.poll();
+        assertThat(received).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void testChangeFromOtherNodeEvictsCachedEntity() throws Exception {
+        mockMvc.perform(get("/api/categories/" + category.getId()))
+                .andExpect(jsonPath("$.name").value("Soups"));
+
+        // Другой узел изменил категорию в базе и записал изменение в журнал
+        category.setName("Stews");
+        categoryRepo.save(category);
+        mockMvc.perform(get("/api/categories/" + category.getId()))
+                .andExpect(jsonPath("$.name").value("Soups"));
+
+        EntityChange change = new EntityChange();
+        change.setEntityType(EntityType.CATEGORY);
+        change.setEntityId(category.getId());
+        change.setNodeId(UUID.randomUUID().toString());
+        changeRepo.save(change);
+        transport.poll();
+
+        mockMvc.perform(get("/api/categories/" + category.getId()))
+                .andExpect(jsonPath("$.name").value("Stews"));
+    }
+
+    @Test
+    void testReadDuringTransactionDoesNotKeepOldStateInCache() throws Exception {
+        CategoryDto update = new CategoryDto();
+        update.setName("Stews");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            categoryService.update(category.getId(), update);
+            // Параллельный запрос видит еще закоммиченное старое состояние и кэширует его
+            CategoryDto concurrent = CompletableFuture
+                    .supplyAsync(() -> categoryService.findById(category.getId()))
+                    .join();
+            assertThat(concurrent.getName()).isEqualTo("Soups");
+        });
+
+        mockMvc.perform(get("/api/categories/" + category.getId()))
+                .andExpect(jsonPath("$.name").value("Stews"));
+    }
+
+    @Test
+    void testChangeIsLoggedOnlyAfterCommit() {
+        CategoryDto update = new CategoryDto();
+        update.setName("Stews");
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            categoryService.update(category.getId(), update);
+            assertThat(changeRepo.count()).isZero();
+            throw new IllegalStateException("rollback");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(changeRepo.count()).isZero();
+
+        transactionTemplate.executeWithoutResult(status -> categoryService.update(category.getId(), update));
+        assertThat(changeRepo.count()).isEqualTo(1);
+    }
+
+    @Test
+    void testCreatingUsersAndProductsChangesTheirVersions() {
+        long userVersion = versionRegistry.getVersion(EntityType.USER);
+        long productVersion = versionRegistry.getVersion(EntityType.PRODUCT);
+        UserDto dto = new UserDto();
+        dto.setUsername("newcomer");
+        dto.setEmail("newcomer@test.com");
+        dto.setPassword("password123");
+        dto.setRole("USER");
+
+        UserDto created = userService.create(dto);
+        Map<String, Product> products = productService.resolveByNames(List.of("Saffron " + UUID.randomUUID()));
+
+        assertThat(versionRegistry.getVersion(EntityType.USER)).isEqualTo(userVersion + 1);
+        assertThat(versionRegistry.getVersion(EntityType.PRODUCT)).isEqualTo(productVersion + 1);
+
+        userService.deleteById(created.getId());
+        productService.deleteById(products.values().iterator().next().getId());
+    }
+
+    private EntityChange saveChange(Long entityId) {
+        EntityChange change = new EntityChange();
+        change.setEntityType(EntityType.CATEGORY);
+        change.setEntityId(entityId);
+        change.setNodeId(UUID.randomUUID().toString());
+        return changeRepo.save(change);
+    }
+}
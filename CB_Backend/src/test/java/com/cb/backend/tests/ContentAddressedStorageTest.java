@@ -0,0 +1,178 @@
+package com.cb.backend.tests;
+
+import com.cb.backend.FileStorageProperties;
+import com.cb.backend.model.Category;
+import com.cb.backend.model.EntityType;
+import com.cb.backend.repository.CategoryRepository;
+import com.cb.backend.service.BlobStore;
+import com.cb.backend.service.ContentAddressedMigration;
+import com.cb.backend.service.EntityChangePublisher;
+import com.cb.backend.service.EntityVersionRegistry;
+import com.cb.backend.service.FileStorageService;
+import com.cb.backend.service.ImageProcessingQueue;
+import com.cb.backend.service.ImageVariantService;
+import com.cb.backend.service.LocalBlobStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ContentAddressedStorageTest {
+    private static final byte[] PHOTO = "same stock photo".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private CategoryRepository categoryRepo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityChangePublisher changePublisher;
+    @Autowired
+    private EntityVersionRegistry versionRegistry;
+
+    @TempDir
+    private Path uploadDir;
+
+    private BlobStore blobStore;
+    private FileStorageService storageService;
+
+    @BeforeEach
+    void setUp() {
+        categoryRepo.deleteAll();
+        jdbcTemplate.update("DELETE FROM CB_FILE_REFERENCES");
+
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.setUploadDir(uploadDir.toString());
+        properties.setContentAddressed(true);
+        blobStore = new LocalBlobStore(uploadDir);
+        storageService = new FileStorageService(properties, blobStore, new ImageVariantService(properties, blobStore),
+                jdbcTemplate, transactionTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        categoryRepo.deleteAll();
+    }
+
+    @Test
+    void testIdenticalUploadsShareOneFile() {
+        String first = storageService.storeFile(new MockMultipartFile("file", "a.JPG", "image/jpeg", PHOTO), "recipes");
+        String second = storageService.storeFile(new MockMultipartFile("file", "b.jpg", "image/jpeg", PHOTO), "blogs");
+
+        assertThat(first).isEqualTo(second).matches("sha256/[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.jpg");
+        assertThat(storageService.getReferenceCount(first)).isEqualTo(2);
+
+        assertThat(storageService.releaseFile(first)).isFalse();
+        assertThat(uploadDir.resolve(first)).exists();
+        assertThat(storageService.releaseFile(first)).isTrue();
+        assertThat(uploadDir.resolve(first)).doesNotExist();
+    }
+
+    @Test
+    void testSameContentWithOtherExtensionHasOwnVariants() {
+        ImageVariantService variants = new ImageVariantService(new FileStorageProperties(), blobStore);
+        String png = storageService.storeFile(new MockMultipartFile("file", "a.png", "image/png", PHOTO), "recipes");
+        String jpg = storageService.storeFile(new MockMultipartFile("file", "a.jpg", "image/jpeg", PHOTO), "recipes");
+
+        assertThat(variants.variantKey(png, 160)).startsWith(png).isNotEqualTo(variants.variantKey(jpg, 160));
+    }
+
+    @Test
+    void testContentIsUploadedOutsideOfTransaction() throws Exception {
+        List<Boolean> uploadsInTransaction = new ArrayList<>();
+        BlobStore store = spy(blobStore);
+        doAnswer(invocation -> {
+            uploadsInTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.callRealMethod();
+        }).when(store).put(anyString(), any());
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.setUploadDir(uploadDir.toString());
+        properties.setContentAddressed(true);
+        FileStorageService service = new FileStorageService(properties, store, new ImageVariantService(properties, store),
+                jdbcTemplate, transactionTemplate);
+
+        String key = service.storeFile(new MockMultipartFile("file", "a.jpg", "image/jpeg", PHOTO), "recipes");
+        Files.delete(uploadDir.resolve(key));
+        service.storeFile(new MockMultipartFile("file", "b.jpg", "image/jpeg", PHOTO), "recipes");
+
+        assertThat(uploadsInTransaction).containsExactly(false, false);
+        assertThat(uploadDir.resolve(key)).hasBinaryContent(PHOTO);
+        assertThat(service.getReferenceCount(key)).isEqualTo(2);
+    }
+
+    @Test
+    void testMigrationDeduplicatesAndRewritesPhotoUrls() throws Exception {
+        Files.createDirectories(uploadDir.resolve("recipes"));
+        Files.createDirectories(uploadDir.resolve("categories"));
+        Files.write(uploadDir.resolve("recipes/uuid1-photo.jpg"), PHOTO);
+        Files.write(uploadDir.resolve("categories/uuid2-photo.jpg"), PHOTO);
+        Category category = new Category();
+        category.setName("Soups");
+        category.setPhotoUrl("categories/uuid2-photo.jpg");
+        category = categoryRepo.save(category);
+
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.setMigrationDeleteOriginals(true);
+        ContentAddressedMigration migration = new ContentAddressedMigration(
+                storageService, blobStore, mock(ImageProcessingQueue.class), jdbcTemplate, transactionTemplate,
+                changePublisher, properties);
+
+        Map<String, String> moved = migration.migrate();
+
+        assertThat(moved).hasSize(2);
+        String newPath = moved.get("categories/uuid2-photo.jpg");
+        assertThat(moved.get("recipes/uuid1-photo.jpg")).isEqualTo(newPath);
+        assertThat(storageService.getReferenceCount(newPath)).isEqualTo(2);
+        assertThat(uploadDir.resolve("recipes/uuid1-photo.jpg")).doesNotExist();
+        assertThat(categoryRepo.findById(category.getId()).orElseThrow().getPhotoUrl()).isEqualTo(newPath);
+
+        assertThat(uploadDir.resolve(".content-addressed-migration.0")).exists();
+        assertThat(migration.migrate()).isEmpty();
+    }
+
+    @Test
+    void testInterruptedMigrationIsFinishedOnRestart() throws Exception {
+        String newPath = storageService.storeFile(new MockMultipartFile("file", "a.jpg", "image/jpeg", PHOTO), "recipes");
+        Files.createDirectories(uploadDir.resolve("categories"));
+        Files.write(uploadDir.resolve("categories/uuid3-photo.jpg"), PHOTO);
+        // Файл уже сохранен, но процесс остановился до перезаписи photo_url
+        Files.writeString(uploadDir.resolve(".content-addressed-migration.0"),
+                "stored\tcategories/uuid3-photo.jpg\t" + newPath + "\n");
+        Category category = new Category();
+        category.setName("Salads");
+        category.setPhotoUrl("categories/uuid3-photo.jpg");
+        category = categoryRepo.save(category);
+        long version = versionRegistry.getVersion(EntityType.CATEGORY);
+
+        ImageProcessingQueue queue = mock(ImageProcessingQueue.class);
+        ContentAddressedMigration migration = new ContentAddressedMigration(
+                storageService, blobStore, queue, jdbcTemplate, transactionTemplate, changePublisher,
+                new FileStorageProperties());
+
+        assertThat(migration.migrate()).containsExactly(Map.entry("categories/uuid3-photo.jpg", newPath));
+        assertThat(categoryRepo.findById(category.getId()).orElseThrow().getPhotoUrl()).isEqualTo(newPath);
+        assertThat(storageService.getReferenceCount(newPath)).isEqualTo(1);
+        assertThat(versionRegistry.getVersion(EntityType.CATEGORY)).isEqualTo(version + 1);
+        verify(queue).submit(newPath.substring(0, newPath.lastIndexOf('/')), newPath.substring(newPath.lastIndexOf('/') + 1));
+
+        assertThat(migration.migrate()).isEmpty();
+    }
+}
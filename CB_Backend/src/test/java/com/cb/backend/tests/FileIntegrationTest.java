@@ -0,0 +1,228 @@
+package com.cb.backend.tests;
+
+import com.cb.backend.FileStorageProperties;
+import com.cb.backend.dto.ImageJobDto;
+import com.cb.backend.model.ImageJobStatus;
+import com.cb.backend.service.FileStorageService;
+import com.cb.backend.service.ImageProcessingQueue;
+import com.cb.backend.service.ImageVariantService;
+import com.cb.backend.service.LocalBlobStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.endsWith;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FileIntegrationTest {
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String path;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "photo.jpg", "image/jpeg", CONTENT);
+        String body = mockMvc.perform(multipart("/api/files/upload").file(file).param("folder", "recipes"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        path = objectMapper.readTree(body).get("path").asText();
+    }
+
+    @Test
+    void testGetFileStreamsWholeFile() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/files/images/" + path))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().contentType("image/jpeg"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(body).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void testGetFileSupportsRangeRequests() throws Exception {
+        mockMvc.perform(get("/api/files/images/" + path).header(HttpHeaders.RANGE, "bytes=10-14"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-14/" + CONTENT.length))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 5))
+                .andExpect(content().string("abcde"));
+    }
+
+    @Test
+    void testGetFileSendsCachingHeaders() throws Exception {
+        String eTag = mockMvc.perform(get("/api/files/images/" + path))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("\"").doesNotStartWith("W/");
+
+        mockMvc.perform(get("/api/files/images/" + path).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().bytes(new byte[0]));
+
+        mockMvc.perform(get("/api/files/images/" + path).header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testGetFileHonorsIfModifiedSince() throws Exception {
+        String lastModified = mockMvc.perform(get("/api/files/images/" + path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        mockMvc.perform(get("/api/files/images/" + path).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testUploadedImageIsServedInRequestedWidth() throws Exception {
+        BufferedImage image = new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        MockMultipartFile file = new MockMultipartFile("file", "hero.png", "image/png", png.toByteArray());
+        String body = mockMvc.perform(multipart("/api/files/upload").file(file).param("folder", "recipes"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String imagePath = objectMapper.readTree(body).get("path").asText();
+        String jobId = objectMapper.readTree(body).get("jobId").asText();
+
+        awaitJobDone(jobId)
+                .andExpect(jsonPath("$.variants.length()").value(3));
+
+        assertThat(widthOf(imagePath + "?w=400", "image/jpeg")).isEqualTo(480);
+        assertThat(widthOf(imagePath + "?w=100", "image/jpeg")).isEqualTo(160);
+        assertThat(widthOf(imagePath + "?w=5000", "image/jpeg")).isEqualTo(1280);
+        assertThat(widthOf(imagePath, "image/png")).isEqualTo(2000);
+    }
+
+    @Test
+    void testImageAbovePixelLimitIsRejectedBeforeDecoding(@TempDir Path dir) throws Exception {
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.setImageMaxPixels(1_000_000);
+        ImageVariantService variants = new ImageVariantService(properties, new LocalBlobStore(dir));
+        Files.createDirectories(dir.resolve("recipes"));
+        ImageIO.write(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB), "png", dir.resolve("recipes/big.png").toFile());
+        ImageIO.write(new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB), "png", dir.resolve("recipes/small.png").toFile());
+
+        assertThatThrownBy(() -> variants.generateVariants("recipes/big.png"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("2000x1000");
+        assertThat(variants.generateVariants("recipes/small.png")).isEmpty();
+    }
+
+    @Test
+    void testJobWithoutAttemptsLeftIsFailedInsteadOfQueued(@TempDir Path dir) throws Exception {
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.setUploadDir(dir.toString());
+        ImageVariantService variants = mock(ImageVariantService.class);
+        ImageProcessingQueue queue = new ImageProcessingQueue(mock(FileStorageService.class), variants, objectMapper, properties);
+        ImageJobDto job = new ImageJobDto();
+        job.setId(UUID.randomUUID().toString());
+        job.setFolder("recipes");
+        job.setFileName("crash.png");
+        job.setStatus(ImageJobStatus.PENDING.name());
+        job.setAttempts(properties.getImageMaxAttempts());
+        job.setCreatedAt(LocalDateTime.now());
+        job.setUpdatedAt(job.getCreatedAt());
+        objectMapper.writeValue(dir.resolve(".jobs/" + job.getId() + ".json").toFile(), job);
+
+        queue.sweep();
+
+        assertThat(queue.findById(job.getId()).getStatus()).isEqualTo(ImageJobStatus.FAILED.name());
+        verifyNoInteractions(variants);
+    }
+
+    @Test
+    void testNonImageFileIsServedAsIsForAnyWidth() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/files/images/" + path + "?w=160"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(body).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void testUploadReturnsProcessingJob() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "notes.txt", "text/plain", CONTENT);
+        String body = mockMvc.perform(multipart("/api/files/upload").file(file).param("folder", "recipes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.jobId").exists())
+                .andReturn().getResponse().getContentAsString();
+        String jobId = objectMapper.readTree(body).get("jobId").asText();
+
+        awaitJobDone(jobId)
+                .andExpect(jsonPath("$.fileName").value(endsWith("notes.txt")))
+                .andExpect(jsonPath("$.variants.length()").value(0));
+
+        mockMvc.perform(get("/api/files/jobs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.DONE").exists())
+                .andExpect(jsonPath("$.queued").exists());
+        mockMvc.perform(get("/api/files/jobs/" + UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/files/images/.jobs/" + jobId + ".json"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetMissingFileReturnsNotFound() throws Exception {
+        mockMvc.perform(get("/api/files/images/recipes/missing.jpg"))
+                .andExpect(status().isNotFound());
+    }
+
+    private int widthOf(String url, String expectedType) throws Exception {
+        byte[] body = mockMvc.perform(get("/api/files/images/" + url))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(expectedType))
+                .andReturn().getResponse().getContentAsByteArray();
+        return ImageIO.read(new ByteArrayInputStream(body)).getWidth();
+    }
+
+    private ResultActions awaitJobDone(String jobId) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            String body = mockMvc.perform(get("/api/files/jobs/" + jobId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            String status = objectMapper.readTree(body).get("status").asText();
+            assertThat(status).isNotEqualTo("FAILED");
+            if (status.equals("DONE")) {
+                break;
+            }
+            Thread.sleep(50);
+        }
+        return mockMvc.perform(get("/api/files/jobs/" + jobId))
+                .andExpect(jsonPath("$.status").value("DONE"));
+    }
+}
@@ -0,0 +1,294 @@
+package com.cb.backend.tests;
+
+import com.cb.backend.CacheConfig;
+import com.cb.backend.RecipeProperties;
+import com.cb.backend.model.ContentStatus;
+import com.cb.backend.model.Rating;
+import com.cb.backend.model.Recipe;
+import com.cb.backend.model.Role;
+import com.cb.backend.model.User;
+import com.cb.backend.repository.RatingRepository;
+import com.cb.backend.repository.RecipeRepository;
+import com.cb.backend.repository.UserRepository;
+import com.cb.backend.service.EntityChangePublisher;
+import com.cb.backend.service.RatingAggregateReconciler;
+import com.cb.backend.service.RatingWriteBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RatingIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private RatingRepository ratingRepo;
+    @Autowired
+    private RecipeRepository recipeRepo;
+    @Autowired
+    private UserRepository userRepo;
+    @Autowired
+    private RatingAggregateReconciler reconciler;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityChangePublisher changePublisher;
+
+    @TempDir
+    private Path logDir;
+
+    private User alice;
+    private User bob;
+    private Recipe recipe;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.RECIPES).clear();
+        cacheManager.getCache(CacheConfig.RESPONSES).clear();
+        ratingRepo.deleteAll();
+        recipeRepo.deleteAll();
+        userRepo.deleteAll();
+
+        alice = createUser("alice");
+        bob = createUser("bob");
+        recipe = recipeRepo.save(createRecipe());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ratingRepo.deleteAll();
+        recipeRepo.deleteAll();
+        userRepo.deleteAll();
+    }
+
+    @Test
+    void testRatingChangesUpdateRecipeAggregates() throws Exception {
+        long fiveStars = createRating(alice, 5);
+        long threeStars = createRating(bob, 3);
+
+        mockMvc.perform(get("/api/recipes/" + recipe.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ratingCount").value(2))
+                .andExpect(jsonPath("$.ratingAverage").value(4.0))
+                .andExpect(jsonPath("$.ratingHistogram[2]").value(1))
+                .andExpect(jsonPath("$.ratingHistogram[4]").value(1));
+
+        String json = """
+                {"rating": 4, "userId": %d, "recipeId": %d}
+                """.formatted(bob.getId(), recipe.getId());
+        mockMvc.perform(put("/api/ratings/" + threeStars)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/ratings/" + fiveStars))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/recipes/public/summaries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].ratingCount").value(1))
+                .andExpect(jsonPath("$.items[0].ratingAverage").value(4.0));
+        Recipe stored = recipeRepo.findById(recipe.getId()).orElseThrow();
+        assertThat(stored.getRatingHistogram()).containsExactly(0, 0, 0, 1, 0);
+        assertThat(stored.getRatingSum()).isEqualTo(4L);
+        assertThat(reconciler.reconcile()).isZero();
+    }
+
+    @Test
+    void testRatingTheSameRecipeAgainReplacesTheValue() throws Exception {
+        long first = createRating(alice, 2);
+        long second = createRating(alice, 5);
+        createRating(alice, 5);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(ratingRepo.count()).isEqualTo(1);
+        assertThat(ratingRepo.findById(first).orElseThrow().getRating()).isEqualTo(5);
+        Recipe stored = recipeRepo.findById(recipe.getId()).orElseThrow();
+        assertThat(stored.getRatingCount()).isEqualTo(1);
+        assertThat(stored.getRatingHistogram()).containsExactly(0, 0, 0, 0, 1);
+        assertThat(reconciler.reconcile()).isZero();
+
+        String json = """
+                {"rating": 4, "userId": %d, "recipeId": %d}
+                """.formatted(alice.getId(), recipe.getId() + 1000);
+        mockMvc.perform(post("/api/ratings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isBadRequest());
+        assertThat(ratingRepo.count()).isEqualTo(1);
+    }
+
+    @Test
+    void testRatingOutOfRangeIsRejected() throws Exception {
+        String json = """
+                {"rating": 6, "userId": %d, "recipeId": %d}
+                """.formatted(alice.getId(), recipe.getId());
+        mockMvc.perform(post("/api/ratings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isBadRequest());
+
+        assertThat(ratingRepo.count()).isZero();
+    }
+
+    @Test
+    void testReconcilerRecomputesAggregatesFromRatings() throws Exception {
+        Rating rating = new Rating();
+        rating.setRating(2);
+        rating.setUser(alice);
+        rating.setRecipe(recipe);
+        ratingRepo.save(rating);
+
+        assertThat(recipeRepo.findById(recipe.getId()).orElseThrow().getRatingCount()).isZero();
+        assertThat(reconciler.reconcile()).isEqualTo(1);
+
+        mockMvc.perform(get("/api/recipes/" + recipe.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ratingCount").value(1))
+                .andExpect(jsonPath("$.ratingAverage").value(2.0))
+                .andExpect(jsonPath("$.ratingHistogram[1]").value(1));
+        assertThat(reconciler.reconcile()).isZero();
+    }
+
+    @Test
+    void testRatingSummaryIsReadFromRecipeAggregates() throws Exception {
+        mockMvc.perform(get("/api/recipes/" + recipe.getId() + "/ratings/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(0))
+                .andExpect(jsonPath("$.average").doesNotExist());
+
+        createRating(alice, 5);
+        createRating(bob, 2);
+
+        mockMvc.perform(get("/api/recipes/" + recipe.getId() + "/ratings/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recipeId").value(recipe.getId()))
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.average").value(3.5))
+                .andExpect(jsonPath("$.histogram[1]").value(1))
+                .andExpect(jsonPath("$.histogram[4]").value(1));
+        mockMvc.perform(get("/api/recipes/" + (recipe.getId() + 1000) + "/ratings/summary"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testWriteBehindBufferCoalescesRatingsAndRecoversThemFromLog() throws Exception {
+        RatingWriteBuffer buffer = createBuffer();
+        buffer.submit(alice.getId(), recipe.getId(), 2);
+        buffer.submit(alice.getId(), recipe.getId(), 4);
+        buffer.submit(bob.getId(), recipe.getId(), 5);
+        buffer.submit(bob.getId(), recipe.getId() + 1000, 3);
+
+        assertThat(buffer.getPendingCount()).isEqualTo(3);
+        assertThat(ratingRepo.count()).isZero();
+
+        // Новый экземпляр на том же каталоге, как после сбоя: оценки читаются из лога
+        RatingWriteBuffer recovered = createBuffer();
+        assertThat(recovered.getPendingCount()).isEqualTo(3);
+        assertThat(recovered.flush()).isEqualTo(2);
+
+        assertThat(ratingRepo.count()).isEqualTo(2);
+        Recipe stored = recipeRepo.findById(recipe.getId()).orElseThrow();
+        assertThat(stored.getRatingCount()).isEqualTo(2);
+        assertThat(stored.getRatingHistogram()).containsExactly(0, 0, 0, 1, 1);
+        assertThat(recovered.getPendingCount()).isZero();
+        try (var files = Files.list(logDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void testConcurrentRatingsAreAllLoggedBeforeSubmitReturns() throws Exception {
+        RatingWriteBuffer buffer = createBuffer();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            long recipeId = recipe.getId() + i;
+            threads.add(Thread.ofVirtual().start(() -> {
+                for (int value = 1; value <= 5; value++) {
+                    buffer.submit(alice.getId(), recipeId, value);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(buffer.getPendingCount()).isEqualTo(8);
+        List<String> records = new ArrayList<>();
+        try (var files = Files.list(logDir)) {
+            for (Path file : files.toList()) {
+                records.addAll(Files.readAllLines(file));
+            }
+        }
+        assertThat(records).hasSize(40);
+    }
+
+    private RatingWriteBuffer createBuffer() {
+        RecipeProperties properties = new RecipeProperties();
+        properties.getRatingBuffer().setEnabled(true);
+        properties.getRatingBuffer().setLogDir(logDir.toString());
+        RatingWriteBuffer buffer = new RatingWriteBuffer(
+                jdbcTemplate, transactionTemplate, recipeRepo, changePublisher, properties);
+        buffer.recover();
+        return buffer;
+    }
+
+    private long createRating(User user, int value) throws Exception {
+        String json = """
+                {"rating": %d, "userId": %d, "recipeId": %d}
+                """.formatted(value, user.getId(), recipe.getId());
+        String body = mockMvc.perform(post("/api/ratings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@test.com");
+        user.setPasswordHash("hash");
+        user.setPasswordSalt("salt");
+        user.setRole(Role.USER);
+        user.onCreate();
+        return userRepo.save(user);
+    }
+
+    private Recipe createRecipe() {
+        Recipe recipe = new Recipe();
+        recipe.setTitle("Soup");
+        recipe.setDescription("Desc");
+        recipe.setText("Recipe text");
+        recipe.setCookingTime(20);
+        recipe.setStatus(ContentStatus.PUBLISHED);
+        recipe.setUser(alice);
+        return recipe;
+    }
+}
@@ -0,0 +1,639 @@
+package com.cb.backend.tests;
+
+import com.cb.backend.CacheConfig;
+import com.cb.backend.dto.RecipeDto;
+import com.cb.backend.model.Category;
+import com.cb.backend.model.Comment;
+import com.cb.backend.model.ContentStatus;
+import com.cb.backend.model.EntityType;
+import com.cb.backend.model.Ingredient;
+import com.cb.backend.model.Product;
+import com.cb.backend.model.Recipe;
+import com.cb.backend.model.Role;
+import com.cb.backend.model.User;
+import com.cb.backend.repository.CategoryRepository;
+import com.cb.backend.repository.CommentRepository;
+import com.cb.backend.repository.IngredientRepository;
+import com.cb.backend.repository.ProductRepository;
+import com.cb.backend.repository.RecipeRepository;
+import com.cb.backend.repository.UserRepository;
+import com.cb.backend.service.PublicRecipeFeed;
+import com.cb.backend.service.RecipeService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RecipeIntegrationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private RecipeRepository recipeRepo;
+    @Autowired
+    private UserRepository userRepo;
+    @Autowired
+    private CategoryRepository categoryRepo;
+    @Autowired
+    private ProductRepository productRepo;
+    @Autowired
+    private IngredientRepository ingredientRepo;
+    @Autowired
+    private CommentRepository commentRepo;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private PublicRecipeFeed publicFeed;
+    @Autowired
+    private RecipeService recipeService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.RECIPES).clear();
+        cacheManager.getCache(CacheConfig.RESPONSES).clear();
+        publicFeed.invalidate();
+        commentRepo.deleteAll();
+        recipeRepo.deleteAll();
+        userRepo.deleteAll();
+        categoryRepo.deleteAll();
+        productRepo.deleteAll();
+
+        testUser = createUser();
+    }
+
+    @AfterEach
+    void tearDown() {
+        commentRepo.deleteAll();
+        recipeRepo.deleteAll();
+        userRepo.deleteAll();
+        categoryRepo.deleteAll();
+        productRepo.deleteAll();
+    }
+
+    @Test
+    void testGetPublishedPageWalksAllRecipesOnce() throws Exception {
+        List<Long> publishedIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            publishedIds.add(recipeRepo.save(createRecipe("Recipe " + i, ContentStatus.PUBLISHED)).getId());
+        }
+        recipeRepo.save(createRecipe("Pending recipe", ContentStatus.PENDING));
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String url = "/api/recipes/public/page?size=2" + (cursor != null ? "&cursor=" + cursor : "");
+            String body = mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            assertThat(page.get("items").size()).isLessThanOrEqualTo(2);
+            page.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).containsExactlyElementsOf(publishedIds.reversed());
+    }
+
+    @Test
+    void testGetPageWithStatusFilter() throws Exception {
+        recipeRepo.save(createRecipe("Published recipe", ContentStatus.PUBLISHED));
+        recipeRepo.save(createRecipe("Pending recipe", ContentStatus.PENDING));
+
+        mockMvc.perform(get("/api/recipes/page?status=PENDING"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("Pending recipe"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        mockMvc.perform(get("/api/recipes/page"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2));
+    }
+
+    @Test
+    void testGetPageWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/recipes/public/page?cursor=not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetPublishedSummariesByCategory() throws Exception {
+        Category desserts = new Category();
+        desserts.setName("Desserts");
+        desserts = categoryRepo.save(desserts);
+
+        Recipe cake = createRecipe("Cake", ContentStatus.PUBLISHED);
+        cake.getCategories().add(desserts);
+        recipeRepo.save(cake);
+        recipeRepo.save(createRecipe("Soup", ContentStatus.PUBLISHED));
+
+        mockMvc.perform(get("/api/recipes/public/summaries?categoryId=" + desserts.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("Cake"))
+                .andExpect(jsonPath("$.items[0].username").value("recipeuser"))
+                .andExpect(jsonPath("$.items[0].text").doesNotExist())
+                .andExpect(jsonPath("$.items[0].ingredientsDto").doesNotExist());
+
+        mockMvc.perform(get("/api/recipes/public/summaries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].title").value("Soup"));
+    }
+
+    @Test
+    void testRecipeListQueryCountIsIndependentOfPageSize() throws Exception {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            products.add(productRepo.save(product));
+        }
+        for (int i = 0; i < 6; i++) {
+            Recipe recipe = recipeRepo.save(createRecipe("Recipe " + i, ContentStatus.PUBLISHED));
+            for (Product product : products) {
+                recipe.getIngredients().add(new Ingredient(recipe, product, 100.0, "g"));
+            }
+            recipeRepo.save(recipe);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        mockMvc.perform(get("/api/recipes/page?size=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].ingredientsDto.length()").value(3));
+        long smallPageQueries = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        mockMvc.perform(get("/api/recipes/page?size=6"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(6))
+                .andExpect(jsonPath("$.items[5].ingredientsDto[0].productName").value("Product 0"));
+        long largePageQueries = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        mockMvc.perform(get("/api/recipes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(6));
+        long fullListQueries = statistics.getPrepareStatementCount();
+
+        assertThat(smallPageQueries).isEqualTo(largePageQueries).isBetween(1L, 3L);
+        assertThat(fullListQueries).isBetween(1L, 2L);
+    }
+
+    @Test
+    void testCreateRecipeResolvesProductsInBulk() throws Exception {
+        Product salt = new Product();
+        salt.setName("Salt");
+        salt = productRepo.save(salt);
+
+        String json = """
+                {
+                  "title": "Bread",
+                  "description": "Desc",
+                  "text": "Recipe text",
+                  "cookingTime": 60,
+                  "userDto": {"id": %d},
+                  "ingredientsDto": [
+                    {"productName": " salt ", "quantity": 5.0, "unit": "g"},
+                    {"productName": "Flour", "quantity": 500.0, "unit": "g"},
+                    {"productName": "Water", "quantity": 300.0, "unit": "ml"}
+                  ]
+                }
+                """.formatted(testUser.getId());
+
+        mockMvc.perform(post("/api/recipes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ingredientsDto.length()").value(3));
+
+        assertThat(productRepo.count()).isEqualTo(3);
+        assertThat(productRepo.findByNameIgnoreCase("salt")).get()
+                .extracting(Product::getId).isEqualTo(salt.getId());
+        assertThat(productRepo.findByNameIgnoreCase("flour")).isPresent();
+    }
+
+    @Test
+    void testCreateRecipeVerifiesIngredientsAndRecordsTimings() throws Exception {
+        long verifiedBefore = createTimerCount("verify");
+        long totalBefore = createTimerCount("total");
+
+        String json = """
+                {
+                  "title": "Omelette",
+                  "description": "Desc",
+                  "text": "Recipe text",
+                  "cookingTime": 10,
+                  "userDto": {"id": %d},
+                  "ingredientsDto": [
+                    {"productName": "Egg", "quantity": 3.0, "unit": "pcs"},
+                    {"productName": "Milk", "quantity": 50.0, "unit": "ml"}
+                  ]
+                }
+                """.formatted(testUser.getId());
+
+        String body = mockMvc.perform(post("/api/recipes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long recipeId = objectMapper.readTree(body).get("id").asLong();
+
+        assertThat(ingredientRepo.countByIdRecipeId(recipeId)).isEqualTo(2);
+        assertThat(createTimerCount("verify")).isEqualTo(verifiedBefore + 1);
+        assertThat(createTimerCount("total")).isEqualTo(totalBefore + 1);
+    }
+
+    @Test
+    void testFailedIngredientWriteRollsBackCreatedRecipe() throws Exception {
+        long recipesBefore = recipeRepo.count();
+        String json = """
+                {
+                  "title": "Omelette",
+                  "description": "Desc",
+                  "text": "Recipe text",
+                  "cookingTime": 10,
+                  "userDto": {"id": %d},
+                  "ingredientsDto": [
+                    {"productName": "Egg", "quantity": 3.0, "unit": "pcs"},
+                    {"productName": "Egg", "quantity": 1.0, "unit": "pcs"}
+                  ]
+                }
+                """.formatted(testUser.getId());
+
+        mockMvc.perform(post("/api/recipes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().is4xxClientError());
+
+        assertThat(recipeRepo.count()).isEqualTo(recipesBefore);
+    }
+
+    @Test
+    void testGetRecipeIsCachedUntilUpdated() throws Exception {
+        Recipe recipe = recipeRepo.save(createRecipe("Soup", ContentStatus.PUBLISHED));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        double hitsBefore = cacheGets("hit");
+
+        mockMvc.perform(get("/api/recipes/" + recipe.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Soup"));
+
+        statistics.clear();
+        mockMvc.perform(get("/api/recipes/" + recipe.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Soup"));
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(cacheGets("hit")).isEqualTo(hitsBefore + 1);
+
+        String json = """
+                {"title": "Borscht", "description": "Desc", "text": "Recipe text", "cookingTime": 20,
+                 "status": "PUBLISHED", "userDto": {"id": %d}}
+                """.formatted(testUser.getId());
+        mockMvc.perform(put("/api/recipes/" + recipe.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/recipes/" + recipe.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Borscht"));
+
+        mockMvc.perform(delete("/api/recipes/" + recipe.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/recipes/" + recipe.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testUpdateWithOutdatedVersionReturnsConflict() throws Exception {
+        Recipe recipe = recipeRepo.save(createRecipe("Soup", ContentStatus.PUBLISHED));
+        long version = recipe.getVersion();
+        String json = """
+                {"title": "%s", "description": "Desc", "text": "Recipe text", "cookingTime": 20,
+                 "status": "PUBLISHED", "version": %d, "userDto": {"id": %d},
+                 "ingredientsDto": [{"productName": "Salt", "quantity": 5.0, "unit": "g"}]}
+                """;
+
+        mockMvc.perform(put("/api/recipes/" + recipe.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json.formatted("Borscht", version, testUser.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(version + 1));
+
+        mockMvc.perform(put("/api/recipes/" + recipe.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json.formatted("Stale title", version, testUser.getId())))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").exists());
+
+        mockMvc.perform(get("/api/recipes/" + recipe.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Borscht"))
+                .andExpect(jsonPath("$.version").value(version + 1))
+                .andExpect(jsonPath("$.ingredientsDto.length()").value(1));
+    }
+
+    @Test
+    void testRecipeListResponseIsCachedUntilRecipeChanges() throws Exception {
+        Recipe recipe = recipeRepo.save(createRecipe("Soup", ContentStatus.PUBLISHED));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        String first = mockMvc.perform(get("/api/recipes/public/page?size=5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("Soup"))
+                .andReturn().getResponse().getContentAsString();
+
+        statistics.clear();
+        String second = mockMvc.perform(get("/api/recipes/public/page?size=5"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(second).isEqualTo(first);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        String eTag = mockMvc.perform(get("/api/recipes"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        statistics.clear();
+        mockMvc.perform(get("/api/recipes"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        mockMvc.perform(get("/api/recipes").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        String json = """
+                {"title": "Borscht", "description": "Desc", "text": "Recipe text", "cookingTime": 20,
+                 "status": "PUBLISHED", "userDto": {"id": %d}}
+                """.formatted(testUser.getId());
+        mockMvc.perform(put("/api/recipes/" + recipe.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/recipes/public/page?size=5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("Borscht"));
+    }
+
+    @Test
+    void testPublicFeedIsServedFromSnapshotUntilStatusChanges() throws Exception {
+        Recipe recipe = recipeRepo.save(createRecipe("Soup", ContentStatus.PUBLISHED));
+        recipeRepo.save(createRecipe("Pending recipe", ContentStatus.PENDING));
+        publicFeed.invalidate();
+
+        String eTag = mockMvc.perform(get("/api/recipes/public/feed"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.page").value(0))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].title").value("Soup"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("\"");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/recipes/public"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        mockMvc.perform(get("/api/recipes/public/feed").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        String json = """
+                {"title": "Soup", "description": "Desc", "text": "Recipe text", "cookingTime": 20,
+                 "status": "REJECTED", "userDto": {"id": %d}}
+                """.formatted(testUser.getId());
+        mockMvc.perform(put("/api/recipes/" + recipe.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/recipes/public/feed").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+                .andExpect(jsonPath("$.items.length()").value(0));
+        mockMvc.perform(get("/api/recipes/public/feed?page=-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testRecipeUnpublishedDuringFeedReadLeavesFeedAfterCommit() throws Exception {
+        Recipe recipe = recipeRepo.save(createRecipe("Soup", ContentStatus.PUBLISHED));
+        publicFeed.invalidate();
+        assertThat(new String(publicFeed.getAll().getBytes())).contains("\"Soup\"");
+
+        RecipeDto dto = recipeService.findById(recipe.getId());
+        dto.setStatus(ContentStatus.REJECTED.name());
+        transactionTemplate.executeWithoutResult(status -> {
+            recipeService.update(recipe.getId(), dto);
+            // Чтение до коммита видит рецепт еще опубликованным
+            String concurrent = CompletableFuture
+                    .supplyAsync(() -> new String(publicFeed.getAll().getBytes()))
+                    .join();
+            assertThat(concurrent).contains("\"Soup\"");
+        });
+
+        mockMvc.perform(get("/api/recipes/public/feed"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+    }
+
+    @Test
+    void testChangedRecipeRebuildsOnlyItsFeedPage() {
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            recipes.add(recipeRepo.save(createRecipe("Recipe " + i, ContentStatus.PUBLISHED)));
+        }
+        publicFeed.invalidate();
+        PublicRecipeFeed.JsonBuffer firstPage = publicFeed.getPage(0);
+        PublicRecipeFeed.JsonBuffer secondPage = publicFeed.getPage(1);
+
+        Recipe newest = recipes.get(recipes.size() - 1);
+        newest.setDescription("Changed");
+        recipeRepo.save(newest);
+        publicFeed.onEntityChange(EntityType.RECIPE, newest.getId());
+
+        assertThat(publicFeed.getPage(1)).isSameAs(secondPage);
+        assertThat(publicFeed.getPage(0).getETag()).isNotEqualTo(firstPage.getETag());
+        assertThat(new String(publicFeed.getPage(0).getBytes())).contains("\"Changed\"");
+        assertThat(new String(publicFeed.getAll().getBytes())).contains("\"Changed\"");
+    }
+
+    @Test
+    void testRecipeCommentsArePagedNewestFirst() throws Exception {
+        Recipe soup = recipeRepo.save(createRecipe("Soup", ContentStatus.PUBLISHED));
+        Recipe salad = recipeRepo.save(createRecipe("Salad", ContentStatus.PUBLISHED));
+        List<Long> soupComments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            soupComments.add(createComment(soup, "Soup comment " + i).getId());
+        }
+        createComment(salad, "Salad comment");
+
+        List<Long> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            String url = "/api/recipes/" + soup.getId() + "/comments?size=2" + (cursor != null ? "&cursor=" + cursor : "");
+            JsonNode page = objectMapper.readTree(mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("items").forEach(item -> {
+                assertThat(item.get("recipeId").asLong()).isEqualTo(soup.getId());
+                listed.add(item.get("id").asLong());
+            });
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertThat(listed).containsExactlyElementsOf(soupComments.reversed());
+        mockMvc.perform(get("/api/recipes/" + salad.getId() + "/comments"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].userDto.username").value(testUser.getUsername()));
+        mockMvc.perform(get("/api/recipes/" + (salad.getId() + 1000) + "/comments"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCommentThreadsListTopLevelCommentsAndLoadRepliesInThreadOrder() throws Exception {
+        Recipe soup = recipeRepo.save(createRecipe("Soup", ContentStatus.PUBLISHED));
+        long root = postComment(soup, null, "Long comment ".repeat(50));
+        long first = postComment(soup, root, "First reply");
+        long nested = postComment(soup, first, "Nested reply");
+        long second = postComment(soup, root, "Second reply");
+        long other = postComment(soup, null, "Other thread");
+
+        mockMvc.perform(get("/api/recipes/" + soup.getId() + "/comments"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value(other))
+                .andExpect(jsonPath("$.items[0].replyCount").value(0))
+                .andExpect(jsonPath("$.items[1].id").value(root))
+                .andExpect(jsonPath("$.items[1].replyCount").value(3));
+
+        List<JsonNode> replies = new ArrayList<>();
+        String cursor = null;
+        do {
+            String url = "/api/comments/" + root + "/replies?size=2" + (cursor != null ? "&cursor=" + cursor : "");
+            JsonNode page = objectMapper.readTree(mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("items").forEach(replies::add);
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertThat(replies).extracting(reply -> reply.get("id").asLong()).containsExactly(first, nested, second);
+        assertThat(replies.get(1).get("parentId").asLong()).isEqualTo(first);
+        assertThat(replies.get(1).get("depth").asInt()).isEqualTo(2);
+        mockMvc.perform(get("/api/comments/" + root + "/replies?cursor=bogus"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(delete("/api/comments/" + first))
+                .andExpect(status().isOk());
+        assertThat(commentRepo.count()).isEqualTo(3);
+        mockMvc.perform(get("/api/comments/" + root))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.replyCount").value(1));
+
+        mockMvc.perform(delete("/api/comments/" + root))
+                .andExpect(status().isOk());
+        assertThat(commentRepo.findAll()).extracting(Comment::getId).containsExactly(other);
+    }
+
+    private double cacheGets(String result) {
+        FunctionCounter counter = meterRegistry.find("cache.gets")
+                .tag("cache", CacheConfig.RECIPES)
+                .tag("result", result)
+                .functionCounter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private long createTimerCount(String step) {
+        Timer timer = meterRegistry.find(RecipeService.CREATE_TIMER).tag("step", step).timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setUsername("recipeuser");
+        user.setEmail("recipe@test.com");
+        user.setPasswordHash("hash");
+        user.setPasswordSalt("salt");
+        user.setRole(Role.AUTHOR);
+        user.onCreate();
+        return userRepo.save(user);
+    }
+
+    private long postComment(Recipe recipe, Long parentId, String text) throws Exception {
+        String json = """
+                {"text": "%s", "recipeId": %d, "parentId": %s, "userDto": {"id": %d}}
+                """.formatted(text, recipe.getId(), parentId, testUser.getId());
+        String body = mockMvc.perform(post("/api/comments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private Comment createComment(Recipe recipe, String text) {
+        Comment comment = new Comment();
+        comment.setText(text);
+        comment.setRecipe(recipe);
+        comment.setUser(testUser);
+        return commentRepo.save(comment);
+    }
+
+    private Recipe createRecipe(String title, ContentStatus status) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle(title);
+        recipe.setDescription("Desc");
+        recipe.setText("Recipe text");
+        recipe.setPhotoUrl("photo.jpg");
+        recipe.setCookingTime(20);
+        recipe.setStatus(status);
+        recipe.setUser(testUser);
+        return recipe;
+    }
+}
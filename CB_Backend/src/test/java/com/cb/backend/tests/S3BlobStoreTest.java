@@ -0,0 +1,93 @@
+package com.cb.backend.tests;
+
+import com.cb.backend.service.S3BlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class S3BlobStoreTest {
+    private S3Client client;
+    private S3BlobStore store;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(S3Client.class);
+        store = new S3BlobStore(client, "bucket", "uploads", S3BlobStore.MIN_PART_SIZE);
+    }
+
+    @Test
+    void testSmallFileIsStoredWithSinglePut() {
+        store.put("recipes/photo.jpg", new ByteArrayInputStream(new byte[100]));
+
+        ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(client).putObject(request.capture(), any(RequestBody.class));
+        assertThat(request.getValue().key()).isEqualTo("uploads/recipes/photo.jpg");
+        verify(client, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+    }
+
+    @Test
+    void testLargeFileIsStreamedAsMultipartUpload() {
+        when(client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+        when(client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("\"part\"").build());
+
+        store.put("recipes/video.mp4", new ByteArrayInputStream(new byte[S3BlobStore.MIN_PART_SIZE * 2 + 1]));
+
+        verify(client, times(3)).uploadPart(any(UploadPartRequest.class), any(RequestBody.class));
+        ArgumentCaptor<CompleteMultipartUploadRequest> complete = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(client).completeMultipartUpload(complete.capture());
+        assertThat(complete.getValue().uploadId()).isEqualTo("upload-1");
+        assertThat(complete.getValue().multipartUpload().parts()).hasSize(3);
+        verify(client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    }
+
+    @Test
+    void testRangedReadRequestsOnlyTheRest() throws Exception {
+        when(client.getObject(any(GetObjectRequest.class))).thenReturn(new ResponseInputStream<>(
+                GetObjectResponse.builder().build(), AbortableInputStream.create(new ByteArrayInputStream(new byte[5]))));
+
+        try (InputStream in = store.open("recipes/photo.jpg", 10)) {
+            assertThat(in.readAllBytes()).hasSize(5);
+        }
+
+        ArgumentCaptor<GetObjectRequest> request = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(client).getObject(request.capture());
+        assertThat(request.getValue().range()).isEqualTo("bytes=10-");
+        assertThat(request.getValue().key()).isEqualTo("uploads/recipes/photo.jpg");
+    }
+
+    @Test
+    void testStatOfMissingFileIsEmpty() {
+        when(client.headObject(any(HeadObjectRequest.class)))
+                .thenThrow(NoSuchKeyException.builder().statusCode(404).build());
+
+        assertThat(store.stat("recipes/missing.jpg")).isEmpty();
+        assertThat(store.exists("recipes/missing.jpg")).isFalse();
+
+        reset(client);
+        when(client.headObject(any(HeadObjectRequest.class)))
+                .thenThrow(S3Exception.builder().statusCode(403).build());
+        assertThatThrownBy(() -> store.stat("recipes/secret.jpg")).isInstanceOf(RuntimeException.class);
+    }
+}
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.test.context.ActiveProfiles;
@@ -87,6 +88,36 @@ class UserIntegrationTest {
                 .andExpect(jsonPath("$.email").value("test@example.com"));
     }
 
+    @Test
+    void testGetUserByIdHonorsIfNoneMatchUntilUpdated() throws Exception {
+        User savedUser = userRepo.save(createTestUser());
+
+        String eTag = mockMvc.perform(get("/api/users/" + savedUser.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        assertTrue(eTag.startsWith("W/\""));
+
+        mockMvc.perform(get("/api/users/" + savedUser.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/users").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        testDto.setUsername("updateduser");
+        mockMvc.perform(put("/api/users/" + savedUser.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testDto)))
+                .andExpect(status().isOk());
+
+        String newETag = mockMvc.perform(get("/api/users/" + savedUser.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("updateduser"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, newETag);
+    }
+
     @Test
     void testUpdateUser() throws Exception {
         User savedUser = userRepo.save(createTestUser());